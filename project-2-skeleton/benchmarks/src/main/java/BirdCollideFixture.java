@@ -0,0 +1,36 @@
+import flappy.bench.Fixture;
+
+/**
+ * Bird.collidePipes with the bird in front of count Level 1 pipes, none of which it touches
+ */
+public class BirdCollideFixture implements Fixture {
+
+    private final static long SEED = 42;
+    private final static int FIRST_X = 400;
+    private final static int SPACING = 150;
+
+    private Bird bird;
+    private PipeQueue pipes;
+
+
+    @Override
+    public void setUp(int count){
+
+        World world = new World(SEED);
+        world.levelUp();
+        pipes = new PipeQueue(count);
+
+        for(int current = 0; current < count; current++) {
+            PipeSet pipe = PipeSet.spawn(world);
+            pipe.placeAt(FIRST_X + current * SPACING);
+            pipes.add(pipe);
+        }
+
+        bird = world.getBird();
+        bird.move();
+    }
+
+
+    @Override
+    public int run(){ return bird.collidePipes(pipes) ? 1 : 0; }
+}
@@ -0,0 +1,13 @@
+/**
+ * Bird-pipe collision checks of the same layout as MaskCollideFixture by boxes alone, as before masks,
+ * for comparison with it
+ */
+public class BoxCollideFixture extends MaskCollideFixture {
+
+    @Override
+    void place(Box bird, double x, double y, CollisionMask mask){
+
+        bird.set(x, y, mask.getWidth(), mask.getHeight());
+        bird.savePosition();
+    }
+}
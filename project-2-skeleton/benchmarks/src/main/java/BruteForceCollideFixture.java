@@ -0,0 +1,15 @@
+/**
+ * Weapon-pipe collision checks against every pipe, as before the broadphase, for comparison with WeaponCollideFixture
+ */
+public class BruteForceCollideFixture extends WeaponCollideFixture {
+
+    @Override
+    int check(Weapon weapon){
+
+        for(int currentPipe = 0; currentPipe < pipes.getUnscoredCount(); currentPipe++)
+            if(pipes.getUnscored(currentPipe).findBox(weapon.getBox(0)) >= 0)
+                return currentPipe;
+
+        return -1;
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * One tick of a Level 1 game, with steel pipes, flames and weapons, played by the Autopilot
+ */
+public class Level1TickFixture extends LevelTickFixture {
+
+    @Override
+    Level makeLevel(World world){
+
+        world.levelUp();
+        world.getBird().levelUp();
+        return new Level1(world);
+    }
+}
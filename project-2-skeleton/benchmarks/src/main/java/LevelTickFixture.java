@@ -0,0 +1,53 @@
+import flappy.bench.Fixture;
+
+/**
+ * One tick of a Level 0 game played by the Autopilot. Score is held at 0 so the level never ends in a win,
+ * and lives are given back every tick so that it is not lost either. Otherwise making a new World,
+ * with its pools, every few hundred ticks would be counted in the allocation rate of a tick.
+ * A level that is still lost, such as by a crash that ends the game at once, is replaced by one with the next seed.
+ */
+public class LevelTickFixture implements Fixture {
+
+    private final static long SEED = 42;
+
+    private long seed = SEED;
+    private Level level;
+    private Autopilot autopilot;
+    private int tick;
+
+
+    @Override
+    public void setUp(int count){ start(); }
+
+
+    @Override
+    public int run(){
+
+        if(level.getIsLoss())
+            start();
+
+        GameInput input = autopilot.next(level, tick++);
+        level.update(input);
+        input.endTick();
+        level.score = 0;
+        level.getBird().refillLives();
+        return (int) level.getBird().getY();
+    }
+
+
+    /**
+     * Starts a new level that is already past its start screen
+     */
+    private void start(){
+
+        level = makeLevel(new World(seed++));
+        level.isGameOn = true;
+        autopilot = new Autopilot();
+    }
+
+
+    /**
+     * @return level to play in world
+     */
+    Level makeLevel(World world){ return new Level(world); }
+}
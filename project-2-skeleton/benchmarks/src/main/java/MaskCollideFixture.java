@@ -0,0 +1,67 @@
+import flappy.bench.Fixture;
+
+import java.util.Random;
+
+/**
+ * Bird-pipe collision checks where the boxes always overlap, so that the pixels of both masks are checked.
+ * Lays out count birds at random around the corner of the gap of a Level 1 pipe, each box overlapping
+ * the top pipe or its flame, and checks one bird per run.
+ */
+public class MaskCollideFixture implements Fixture {
+
+    private final static long SEED = 42;
+    private final static int PIPE_X = 500;
+    private final static Sprite BIRD = new Sprite("level-1/birdWingUp", Layer.BIRD, true);
+
+    private PipeSet pipe;
+    private Box[] birds;
+    private int next;
+
+
+    @Override
+    public void setUp(int count){
+
+        World world = new World(SEED);
+        Random random = new Random(SEED);
+        world.levelUp();
+        EntityStore store = new EntityStore();
+        pipe = PipeSet.spawn(world);
+        pipe.placeAt(PIPE_X);
+        birds = new Box[count];
+
+        // Centres from which the box of the bird reaches into the box of the top pipe by at least a pixel
+        CollisionMask mask = BIRD.getMask();
+        double left = pipe.getLeft() - mask.getWidth()/2.0 + 1;
+        double right = pipe.getRight() + mask.getWidth()/2.0 - 1;
+        double top = pipe.getY() - mask.getHeight()/2.0 + 1;
+        double bottom = pipe.getY() + mask.getHeight()/2.0 - 1;
+
+        for(int current = 0; current < count; current++) {
+
+            birds[current] = new Box(store);
+            place(birds[current], left + random.nextDouble() * (right - left), top + random.nextDouble() * (bottom - top), mask);
+        }
+    }
+
+
+    @Override
+    public int run(){
+
+        Box bird = birds[next];
+
+        if(++next == birds.length)
+            next = 0;
+
+        return pipe.findBox(bird);
+    }
+
+
+    /**
+     * Places box of bird without it having moved there, with its mask
+     */
+    void place(Box bird, double x, double y, CollisionMask mask){
+
+        bird.set(x, y, mask);
+        bird.savePosition();
+    }
+}
@@ -0,0 +1,33 @@
+import flappy.bench.Fixture;
+
+/**
+ * PipeSet.spawn and release at a given level
+ */
+public class PipeSpawnFixture implements Fixture {
+
+    private final static long SEED = 42;
+
+    private World world;
+
+
+    /**
+     * @param count level to spawn pipes for
+     */
+    @Override
+    public void setUp(int count){
+
+        world = new World(SEED);
+
+        for(int level = 0; level < count; level++)
+            world.levelUp();
+    }
+
+
+    @Override
+    public int run(){
+
+        PipeSet pipe = PipeSet.spawn(world);
+        pipe.release();
+        return (int) pipe.getY();
+    }
+}
@@ -0,0 +1,33 @@
+import flappy.bench.Fixture;
+
+/**
+ * Level.checkScoreIncrease for a pipe placed left of both the bird and the Window, so each run scores it,
+ * retires it and releases it back to the pool it is spawned from on the next run
+ */
+public class ScoreCheckFixture implements Fixture {
+
+    private final static long SEED = 42;
+    private final static int PASSED_X = -1;
+
+    private World world;
+    private Level level;
+
+
+    @Override
+    public void setUp(int count){
+
+        world = new World(SEED);
+        level = new Level(world);
+    }
+
+
+    @Override
+    public int run(){
+
+        PipeSet pipe = PipeSet.spawn(world);
+        pipe.placeAt(PASSED_X);
+        level.pipes.add(pipe);
+        level.checkScoreIncrease();
+        return level.getScore();
+    }
+}
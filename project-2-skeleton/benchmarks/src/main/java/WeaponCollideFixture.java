@@ -0,0 +1,60 @@
+import flappy.bench.Fixture;
+
+import java.util.Random;
+
+/**
+ * Weapon-pipe collision checks through the PipeQueue broadphase, one weapon per run. Lays out count Level 1 pipes
+ * with as many shot weapons spread among them. Uses Weapon.findPipe, which is Weapon.collidePipe without
+ * destroying anything, so the layout stays the same from run to run.
+ */
+public class WeaponCollideFixture implements Fixture {
+
+    private final static long SEED = 42;
+    private final static int SPACING = 150;
+    private final static int MIN_Y = 100;
+    private final static int MAX_Y = 500;
+
+    PipeQueue pipes;
+    Weapon[] weapons;
+    private int next;
+
+
+    @Override
+    public void setUp(int count){
+
+        World world = new World(SEED);
+        Random random = new Random(SEED);
+        world.levelUp();
+        pipes = new PipeQueue(count);
+        weapons = new Weapon[count];
+
+        for(int current = 0; current < count; current++) {
+
+            PipeSet pipe = PipeSet.spawn(world);
+            pipe.placeAt(current * SPACING);
+            pipes.add(pipe);
+
+            weapons[current] = Weapon.spawn(world);
+            weapons[current].shoot();
+            weapons[current].placeAt(random.nextInt(count * SPACING), MIN_Y + random.nextInt(MAX_Y - MIN_Y));
+        }
+    }
+
+
+    @Override
+    public int run(){
+
+        Weapon weapon = weapons[next];
+
+        if(++next == weapons.length)
+            next = 0;
+
+        return check(weapon);
+    }
+
+
+    /**
+     * @return index of pipe weapon overlaps, or -1 if none
+     */
+    int check(Weapon weapon){ return weapon.findPipe(pipes); }
+}
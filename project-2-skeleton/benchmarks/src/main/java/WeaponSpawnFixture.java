@@ -0,0 +1,33 @@
+import flappy.bench.Fixture;
+
+/**
+ * Weapon.spawn and release at a given level
+ */
+public class WeaponSpawnFixture implements Fixture {
+
+    private final static long SEED = 42;
+
+    private World world;
+
+
+    /**
+     * @param count level to spawn weapons for
+     */
+    @Override
+    public void setUp(int count){
+
+        world = new World(SEED);
+
+        for(int level = 0; level < count; level++)
+            world.levelUp();
+    }
+
+
+    @Override
+    public int run(){
+
+        Weapon weapon = Weapon.spawn(world);
+        weapon.release();
+        return weapon.getIsShot() ? 1 : 0;
+    }
+}
@@ -0,0 +1,57 @@
+package flappy.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision checks at varying numbers of pipes, with as many shot weapons spread among them.
+ * Bird.collidePipes only looks at the next pipe, so its cost should not grow with count.
+ * Weapon checks are timed per weapon, through the PipeQueue broadphase and by checking every pipe.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int count;
+
+    private Fixture bird;
+    private Fixture weapon;
+    private Fixture bruteForce;
+
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+
+        bird = Fixtures.load("BirdCollideFixture", count);
+        weapon = Fixtures.load("WeaponCollideFixture", count);
+        bruteForce = Fixtures.load("BruteForceCollideFixture", count);
+    }
+
+
+    @Benchmark
+    public int birdCollidePipes(){ return bird.run(); }
+
+
+    @Benchmark
+    public int weaponCollidePipe(){ return weapon.run(); }
+
+
+    @Benchmark
+    public int weaponCollidePipeBruteForce(){ return bruteForce.run(); }
+}
@@ -0,0 +1,20 @@
+package flappy.bench;
+
+/**
+ * Game state for one benchmark. The game is in the default package, which named packages can not import,
+ * so fixtures live in the default package, implement this interface, and are loaded by name.
+ */
+public interface Fixture {
+
+    /**
+     * Builds game state, once per trial
+     * @param count of entities, for benchmarks that vary it
+     */
+    void setUp(int count);
+
+    /**
+     * Runs the benchmarked operation once
+     * @return a result for the blackhole, so the operation can not be optimised away
+     */
+    int run();
+}
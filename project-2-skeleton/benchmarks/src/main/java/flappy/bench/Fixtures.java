@@ -0,0 +1,21 @@
+package flappy.bench;
+
+/**
+ * Loads fixtures from the default package by class name
+ */
+final class Fixtures {
+
+    /**
+     * @param name of fixture class in the default package
+     * @param count of entities, for benchmarks that vary it
+     * @return fixture that is set up and ready to run
+     */
+    static Fixture load(String name, int count) throws ReflectiveOperationException {
+
+        Fixture fixture = (Fixture) Class.forName(name).getDeclaredConstructor().newInstance();
+        fixture.setUp(count);
+        return fixture;
+    }
+
+    private Fixtures(){}
+}
@@ -0,0 +1,49 @@
+package flappy.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bird checks against the edge of a gap, where boxes always overlap, timed with and without masks,
+ * to show the cost of checking pixels once boxes overlap. Each run checks the next of a fixed set of
+ * birds laid out at random, so that branches of the mask check are not all predicted the same way.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MaskBenchmark {
+
+    private final static int BIRDS = 1000;
+
+    private Fixture mask;
+    private Fixture box;
+
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+
+        mask = Fixtures.load("MaskCollideFixture", BIRDS);
+        box = Fixtures.load("BoxCollideFixture", BIRDS);
+    }
+
+
+    @Benchmark
+    public int birdCollideGapEdgeByMask(){ return mask.run(); }
+
+
+    @Benchmark
+    public int birdCollideGapEdgeByBox(){ return box.run(); }
+}
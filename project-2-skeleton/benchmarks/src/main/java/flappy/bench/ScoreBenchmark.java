@@ -0,0 +1,37 @@
+package flappy.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level.checkScoreIncrease for a pipe that has passed both the bird and the left side of the Window,
+ * so that it is scored, retired and released in one call
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreBenchmark {
+
+    private Fixture fixture;
+
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException { fixture = Fixtures.load("ScoreCheckFixture", 0); }
+
+
+    @Benchmark
+    public int checkScoreIncrease(){ return fixture.run(); }
+}
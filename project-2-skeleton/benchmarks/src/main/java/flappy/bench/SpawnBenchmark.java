@@ -0,0 +1,50 @@
+package flappy.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spawning a PipeSet or Weapon from the pool and releasing it again.
+ * Level 1 pipes may be steel, which spawn flames as well.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnBenchmark {
+
+    @Param({"0", "1"})
+    private int level;
+
+    private Fixture pipe;
+    private Fixture weapon;
+
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+
+        pipe = Fixtures.load("PipeSpawnFixture", level);
+        weapon = Fixtures.load("WeaponSpawnFixture", level);
+    }
+
+
+    @Benchmark
+    public int spawnPipeSet(){ return pipe.run(); }
+
+
+    @Benchmark
+    public int spawnWeapon(){ return weapon.run(); }
+}
@@ -0,0 +1,17 @@
+/**
+ * Reading of command line arguments, shared by every main
+ */
+public class Arguments {
+
+    /**
+     * @param arg index of value, after the flag it belongs to
+     * @return value of flag
+     */
+    static String getValue(String[] args, int arg){
+
+        if(arg == args.length)
+            throw new IllegalArgumentException("Missing value after " + args[arg - 1]);
+
+        return args[arg];
+    }
+}
@@ -0,0 +1,303 @@
+import bagel.Image;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Textures of the Bagel window, shared by path and counted by the number of holders, so that the textures
+ * of a level can be released once nothing else holds them.
+ * Files are decoded on a background thread as soon as they are acquired. Bagel can only make a texture from a path
+ * and only on the window thread, so the decoded pixels are written back out uncompressed to a directory of copies,
+ * and update then makes a few textures per frame from copies, which leaves Bagel little more than the upload to do.
+ * Bagel has no way to free a texture, so one released is kept to be used again if its file is acquired again,
+ * rather than making another texture that could not be freed either.
+ */
+public class AssetManager {
+
+    private final static String THREAD_NAME = "asset-reader";
+    private final static String COPIES = "textures";
+    private final static String FORMAT = "png";
+    private final static long CLOSE_MILLIS = 1000;
+
+    private final LinkedHashMap<String, Asset> assets = new LinkedHashMap<>();
+    private final HashMap<String, Image> released = new HashMap<>();
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Path copies;
+
+    // Counts since the manager was made
+    private int loads;
+    private int misses;
+    private int releases;
+    private int copyCount;
+
+
+    /**
+     * Texture of one file, with the number of holders and the background decode of its file
+     */
+    private static class Asset {
+
+        private final String path;
+        private final Path copy;
+        private int holders;
+        private Future<?> decode;
+        private Image image;
+
+        private Asset(String path, Path copy){
+            this.path = path;
+            this.copy = copy;
+        }
+    }
+
+
+    /**
+     * Makes the directory that uncompressed copies of files are written to while their textures are made
+     */
+    AssetManager(){
+
+        try {
+            copies = Files.createTempDirectory(COPIES);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("Could not make directory for textures", e);
+        }
+    }
+
+
+    /**
+     * Holds texture of file at path, starting to decode it if nothing held it before
+     */
+    public void acquire(String path){
+
+        Asset asset = assets.get(path);
+
+        if(asset == null) {
+            asset = new Asset(path, copies.resolve(copyCount++ + "." + FORMAT));
+            asset.image = released.remove(path);
+
+            if(asset.image == null) {
+                Path copy = asset.copy;
+                asset.decode = reader.submit(() -> decode(path, copy));
+            }
+
+            assets.put(path, asset);
+        }
+
+        asset.holders++;
+    }
+
+
+    /**
+     * Stops holding texture of file at path. Once it has no holders it is kept aside, as Bagel can not free it.
+     */
+    public void release(String path){
+
+        Asset asset = assets.get(path);
+
+        if(asset == null)
+            throw new IllegalStateException(path + " is not held");
+
+        if(--asset.holders == 0) {
+
+            assets.remove(path);
+            releases++;
+
+            if(asset.image != null)
+                released.put(path, asset.image);
+
+            // Decodes run in order on one thread, so the copy is deleted after any decode still running has written it
+            else {
+                asset.decode.cancel(false);
+                reader.execute(() -> delete(asset.copy));
+            }
+        }
+    }
+
+
+    /**
+     * Makes textures of files that have been decoded, in the order they were acquired
+     * @param maxLoads most textures to make, to keep the frame short
+     * @return true if every texture held has been made
+     */
+    public boolean update(int maxLoads){
+
+        for(Asset asset : assets.values()) {
+
+            if(maxLoads > 0 && asset.image == null && asset.decode.isDone()) {
+                load(asset);
+                maxLoads--;
+            }
+        }
+
+        return getPending() == 0;
+    }
+
+
+    /**
+     * @return true if texture of file at path has been made
+     */
+    public boolean isLoaded(String path){
+
+        Asset asset = assets.get(path);
+        return asset != null && asset.image != null;
+    }
+
+
+    /**
+     * Gets texture of file at path, making it now if it has not been made yet
+     * @return Bagel image of file
+     */
+    public Image get(String path){
+
+        Asset asset = assets.get(path);
+
+        if(asset == null)
+            throw new IllegalStateException(path + " is not held");
+
+        // Textures made when first drawn are counted as they stall the frame
+        if(asset.image == null) {
+            misses++;
+            load(asset);
+        }
+
+        return asset.image;
+    }
+
+
+    /**
+     * @return number of textures held but not made yet
+     */
+    public int getPending(){
+
+        int pending = 0;
+
+        for(Asset asset : assets.values())
+            if(asset.image == null)
+                pending++;
+
+        return pending;
+    }
+
+
+    /**
+     * @return number of textures held
+     */
+    public int size(){ return assets.size(); }
+
+
+    /**
+     * @return number of textures made
+     */
+    public int getLoads(){ return loads; }
+
+
+    /**
+     * @return number of textures made when first drawn rather than ahead of time
+     */
+    public int getMisses(){ return misses; }
+
+
+    /**
+     * @return number of textures released
+     */
+    public int getReleases(){ return releases; }
+
+
+    /**
+     * Stops the background reader and deletes copies it left
+     */
+    public void close() throws InterruptedException {
+
+        reader.shutdownNow();
+        reader.awaitTermination(CLOSE_MILLIS, TimeUnit.MILLISECONDS);
+
+        try(Stream<Path> files = Files.list(copies)){
+            files.forEach(AssetManager::delete);
+        }
+        catch(IOException ignored){
+        }
+
+        delete(copies);
+    }
+
+
+    /**
+     * Makes texture on the window thread from the copy, once the background decode is done
+     */
+    private void load(Asset asset){
+
+        try {
+            asset.decode.get();
+        }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        catch(ExecutionException e){
+            throw new UncheckedIOException(new IOException("Could not decode " + asset.path, e.getCause()));
+        }
+
+        asset.image = new Image(asset.copy.toString());
+        delete(asset.copy);
+        loads++;
+    }
+
+
+    /**
+     * Decodes file at path and writes its pixels to copy without compressing them
+     */
+    private static Object decode(String path, Path copy) throws IOException {
+
+        BufferedImage image = ImageIO.read(Paths.get(path).toFile());
+
+        if(image == null)
+            throw new IOException(path + " is not an image");
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(FORMAT).next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(1);
+
+        try(ImageOutputStream out = ImageIO.createImageOutputStream(copy.toFile())){
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        }
+        finally {
+            writer.dispose();
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Deletes file if it is there, leaving it if it can not be deleted
+     */
+    private static void delete(Path file){
+
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch(IOException ignored){
+        }
+    }
+}
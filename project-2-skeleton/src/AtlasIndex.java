@@ -0,0 +1,182 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of sprites packed into atlas pages by AtlasPacker, read by Sprite to find a sprite by name.
+ * It is a text file with one line per page and then one line per sprite:
+ * <pre>
+ * page atlas-0.png level-1
+ * sprite level-1/flame 0 1 1 38 38
+ * </pre>
+ * Page lines give file name and group, which is the directory under res of all sprites on the page.
+ * Sprite lines give name, page, x, y, width and height. Names are paths under res without ".png".
+ */
+public class AtlasIndex {
+
+    public final static String FILE_NAME = "atlas.index";
+    private final static String PAGE = "page";
+    private final static String SPRITE = "sprite";
+    private final static String COMMENT = "#";
+
+    private final List<String> pages = new ArrayList<>();
+    private final List<String> groups = new ArrayList<>();
+    private final Map<String, AtlasRegion> regions = new LinkedHashMap<>();
+
+
+    /**
+     * Adds a page, which must be added before sprites on it
+     * @param fileName of page image, relative to the index
+     * @param group directory under res of sprites on the page
+     * @return number of page
+     */
+    public int addPage(String fileName, String group){
+
+        pages.add(fileName);
+        groups.add(group);
+        return pages.size() - 1;
+    }
+
+
+    /**
+     * Adds a sprite on a page already added
+     */
+    public void add(String name, AtlasRegion region){
+
+        if(region.getPage() >= pages.size())
+            throw new IllegalArgumentException("Sprite " + name + " is on missing page " + region.getPage());
+
+        regions.put(name, region);
+    }
+
+
+    /**
+     * @return region of sprite with name, or null if it is not in the atlas
+     */
+    public AtlasRegion get(String name){ return regions.get(name); }
+
+
+    /**
+     * @return file name of page image, relative to the index
+     */
+    public String getPage(int page){ return pages.get(page); }
+
+
+    /**
+     * @return directory under res of all sprites on page
+     */
+    public String getGroup(int page){ return groups.get(page); }
+
+
+    /**
+     * @return number of pages
+     */
+    public int getPageCount(){ return pages.size(); }
+
+
+    /**
+     * @return names of all sprites in the order they were added
+     */
+    public Iterable<String> getNames(){ return regions.keySet(); }
+
+
+    /**
+     * @return number of sprites
+     */
+    public int size(){ return regions.size(); }
+
+
+    /**
+     * Writes index as text
+     */
+    public void save(Path file) throws IOException {
+
+        try(BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)){
+
+            out.write(COMMENT + " Sprite atlas written by AtlasPacker: sprite name page x y width height");
+            out.newLine();
+
+            for(int page = 0; page < pages.size(); page++) {
+                out.write(PAGE + " " + pages.get(page) + " " + groups.get(page));
+                out.newLine();
+            }
+
+            for(Map.Entry<String, AtlasRegion> entry : regions.entrySet()) {
+
+                AtlasRegion region = entry.getValue();
+                out.write(SPRITE + " " + entry.getKey() + " " + region.getPage() + " " + region.getX() + " " +
+                        region.getY() + " " + region.getWidth() + " " + region.getHeight());
+                out.newLine();
+            }
+        }
+    }
+
+
+    /**
+     * Reads index written by save
+     */
+    public static AtlasIndex load(Path file) throws IOException {
+
+        AtlasIndex index = new AtlasIndex();
+
+        try(BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)){
+
+            String line;
+            int number = 0;
+
+            while((line = in.readLine()) != null) {
+
+                number++;
+                line = line.trim();
+
+                if(line.isEmpty() || line.startsWith(COMMENT))
+                    continue;
+
+                String[] fields = line.split("\\s+");
+
+                try {
+                    if(fields[0].equals(PAGE) && fields.length == 3)
+                        index.addPage(fields[1], fields[2]);
+
+                    else if(fields[0].equals(SPRITE) && fields.length == 7)
+                        index.add(fields[1], new AtlasRegion(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                                Integer.parseInt(fields[4]), Integer.parseInt(fields[5]), Integer.parseInt(fields[6])));
+
+                    else
+                        throw new IOException("Bad line " + number + " in " + file + ": " + line);
+                }
+                catch(IllegalArgumentException e){
+                    throw new IOException("Bad line " + number + " in " + file + ": " + line, e);
+                }
+            }
+        }
+
+        return index;
+    }
+
+
+    /**
+     * Reads index if it has been built
+     * @return index, or null if there is no index file
+     */
+    public static AtlasIndex loadIfPresent(Path file){
+
+        if(!Files.isRegularFile(file))
+            return null;
+
+        try {
+            return load(file);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+}
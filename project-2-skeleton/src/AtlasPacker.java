@@ -0,0 +1,208 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Packs every sprite under res into as few atlas pages as fit, and writes the pages with an AtlasIndex.
+ * Run by Maven while building, so that the game binds few textures per frame.
+ * Each directory under res is a group packed onto pages of its own, so that an AssetManager can load and
+ * release the sprites of one level together. Within a group, sprites are packed in shelves, tallest first,
+ * each kept apart by a gap so filtering does not bleed.
+ * Only reads and writes image files, so it runs without a window.
+ *
+ * Usage: AtlasPacker resDirectory outDirectory [--page-size n]
+ */
+public class AtlasPacker {
+
+    public final static int DEFAULT_PAGE_SIZE = 2048;
+    private final static int GAP = 2;
+    private final static String EXTENSION = ".png";
+    private final static String PAGE_PREFIX = "atlas-";
+
+    /**
+     * The entry point for packing sprites.
+     */
+    public static void main(String[] args) throws IOException {
+
+        if(args.length < 2)
+            throw new IllegalArgumentException("Usage: AtlasPacker resDirectory outDirectory [--page-size n]");
+
+        Path res = Paths.get(args[0]);
+        Path out = Paths.get(args[1]);
+        int pageSize = DEFAULT_PAGE_SIZE;
+
+        for(int arg = 2; arg < args.length; arg++) {
+
+            if(args[arg].equals("--page-size"))
+                pageSize = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else
+                throw new IllegalArgumentException("Unknown argument " + args[arg]);
+        }
+
+        Map<String, BufferedImage> sprites = read(res, out);
+        List<BufferedImage> pages = new ArrayList<>();
+        AtlasIndex index = pack(sprites, pageSize, pages);
+
+        Files.createDirectories(out);
+
+        for(int page = 0; page < pages.size(); page++)
+            ImageIO.write(pages.get(page), "png", out.resolve(index.getPage(page)).toFile());
+
+        index.save(out.resolve(AtlasIndex.FILE_NAME));
+        System.out.println("Packed " + index.size() + " sprites into " + pages.size() + " pages in " + out);
+    }
+
+
+    /**
+     * Reads every png image under res, except those in out or in any other directory holding an atlas index
+     * @return images by name, which is the path under res without ".png" and with '/' between directories
+     */
+    public static Map<String, BufferedImage> read(Path res, Path out) throws IOException {
+
+        Map<String, BufferedImage> sprites = new TreeMap<>();
+        Path skipped = out.toAbsolutePath().normalize();
+        List<Path> files = new ArrayList<>();
+
+        try(Stream<Path> walk = Files.walk(res)){
+            walk.filter(file -> file.toString().endsWith(EXTENSION))
+                .filter(file -> !file.toAbsolutePath().normalize().startsWith(skipped))
+                .filter(file -> !Files.exists(file.resolveSibling(AtlasIndex.FILE_NAME)))
+                .forEach(files::add);
+        }
+
+        for(Path file : files) {
+
+            String name = res.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            BufferedImage image = ImageIO.read(file.toFile());
+
+            if(image == null)
+                throw new IOException("Could not decode " + file);
+
+            sprites.put(name.substring(0, name.length() - EXTENSION.length()), image);
+        }
+
+        return sprites;
+    }
+
+
+    /**
+     * Packs sprites into pages of at most pageSize square, with each group on its own pages
+     * @param sprites images by name
+     * @param pages list to add page images to, cropped to what they use
+     * @return index of where each sprite was placed, with page files named atlas-0.png onwards
+     */
+    public static AtlasIndex pack(Map<String, BufferedImage> sprites, int pageSize, List<BufferedImage> pages){
+
+        Map<String, List<String>> groups = new TreeMap<>();
+
+        for(String name : sprites.keySet())
+            groups.computeIfAbsent(getGroup(name), group -> new ArrayList<>()).add(name);
+
+        AtlasIndex index = new AtlasIndex();
+
+        for(Map.Entry<String, List<String>> group : groups.entrySet())
+            packGroup(index, group.getKey(), group.getValue(), sprites, pageSize, pages);
+
+        return index;
+    }
+
+
+    /**
+     * @return directory under res of sprite with name, or "." if it is directly in res
+     */
+    public static String getGroup(String name){
+
+        int slash = name.indexOf('/');
+        return slash < 0 ? "." : name.substring(0, slash);
+    }
+
+
+    /**
+     * Packs sprites of one group onto new pages, placing each at the end of the current shelf,
+     * or on a new shelf or page once it does not fit
+     */
+    private static void packGroup(AtlasIndex index, String group, List<String> names,
+                                  Map<String, BufferedImage> sprites, int pageSize, List<BufferedImage> pages){
+
+        // Tallest first keeps shelves from wasting height. Ties are broken by name so builds are repeatable.
+        names.sort(Comparator.comparingInt((String name) -> -sprites.get(name).getHeight())
+                .thenComparingInt(name -> -sprites.get(name).getWidth())
+                .thenComparing(Comparator.naturalOrder()));
+
+        List<List<String>> pageNames = new ArrayList<>();
+        int page = -1;
+        int shelfX = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+
+        for(String name : names) {
+
+            BufferedImage image = sprites.get(name);
+            int width = image.getWidth();
+            int height = image.getHeight();
+
+            if(width > pageSize || height > pageSize)
+                throw new IllegalArgumentException("Sprite " + name + " is larger than page size " + pageSize);
+
+            // Start a new shelf when the sprite does not fit at the end of this one
+            if(page >= 0 && shelfX + width > pageSize) {
+                shelfY += shelfHeight + GAP;
+                shelfX = 0;
+                shelfHeight = 0;
+            }
+
+            // Start a new page when the sprite does not fit below the last shelf
+            if(page < 0 || shelfY + height > pageSize) {
+                page = index.addPage(PAGE_PREFIX + index.getPageCount() + EXTENSION, group);
+                pageNames.add(new ArrayList<>());
+                shelfX = shelfY = shelfHeight = 0;
+            }
+
+            AtlasRegion region = new AtlasRegion(page, shelfX, shelfY, width, height);
+            index.add(name, region);
+            pageNames.get(pageNames.size() - 1).add(name);
+            shelfX += width + GAP;
+            shelfHeight = Integer.max(shelfHeight, height);
+        }
+
+        for(List<String> pageName : pageNames)
+            pages.add(draw(index, pageName, sprites));
+    }
+
+
+    /**
+     * Draws sprites onto a page just large enough to hold them
+     */
+    private static BufferedImage draw(AtlasIndex index, List<String> names, Map<String, BufferedImage> sprites){
+
+        int width = 1;
+        int height = 1;
+
+        for(String name : names) {
+            AtlasRegion region = index.get(name);
+            width = Integer.max(width, region.getX() + region.getWidth());
+            height = Integer.max(height, region.getY() + region.getHeight());
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+
+        for(String name : names) {
+            AtlasRegion region = index.get(name);
+            graphics.drawImage(sprites.get(name), region.getX(), region.getY(), null);
+        }
+
+        graphics.dispose();
+        return image;
+    }
+}
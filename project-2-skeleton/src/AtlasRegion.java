@@ -0,0 +1,51 @@
+/**
+ * Rectangle of an atlas page holding one sprite
+ */
+public class AtlasRegion {
+
+    private final int page;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+
+    /**
+     * @return number of atlas page the region is on
+     */
+    public int getPage(){ return page; }
+
+
+    /**
+     * @return x-coordinate of the left of the region on its page
+     */
+    public int getX(){ return x; }
+
+
+    /**
+     * @return y-coordinate of the top of the region on its page
+     */
+    public int getY(){ return y; }
+
+
+    /**
+     * @return width of region in pixels
+     */
+    public int getWidth(){ return width; }
+
+
+    /**
+     * @return height of region in pixels
+     */
+    public int getHeight(){ return height; }
+
+
+    AtlasRegion(int page, int x, int y, int width, int height){
+
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+}
@@ -0,0 +1,26 @@
+import bagel.Keys;
+
+/**
+ * Scripted policy that presses SPACE to start each level, then holds it while bird is below the middle of the next gap
+ */
+public class Autopilot implements Policy {
+
+    private final static int DEFAULT_TARGET_Y = 350;
+
+    private final SyntheticInput input = new SyntheticInput();
+
+
+    @Override
+    public GameInput next(Level level, int tick){
+
+        PipeSet pipe = level.getNextPipe();
+        double target = pipe == null ? DEFAULT_TARGET_Y : pipe.getY() + pipe.getGapHeight() / 2.0;
+
+        if(level.getIsGameOn() ? level.getBird().getY() > target : tick % 2 == 0)
+            input.press(Keys.SPACE);
+        else
+            input.release(Keys.SPACE);
+
+        return input;
+    }
+}
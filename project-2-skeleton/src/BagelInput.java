@@ -0,0 +1,38 @@
+import bagel.Input;
+import bagel.Keys;
+
+/**
+ * Turns keys polled from the Bagel window each frame into timestamped press and release events.
+ * Bagel only reports keys once per frame, so every event of a frame has the time of that frame's poll.
+ * Game logic reads the events through a QueuedInput at the start of its next tick.
+ */
+public class BagelInput {
+
+    private final static Keys[] KEYS = Keys.values();
+
+    private final InputEventQueue queue;
+
+
+    /**
+     * Adds an event for every key pressed or released since the last frame
+     * @param input given by Bagel for the current frame
+     * @param time of the frame, from System.nanoTime()
+     */
+    public void poll(Input input, long time){
+
+        for(Keys key : KEYS) {
+
+            if(input.wasPressed(key))
+                queue.offer(key, true, time);
+
+            if(input.wasReleased(key))
+                queue.offer(key, false, time);
+        }
+    }
+
+
+    /**
+     * @param queue to add events to
+     */
+    BagelInput(InputEventQueue queue){ this.queue = queue; }
+}
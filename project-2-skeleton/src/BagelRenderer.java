@@ -0,0 +1,59 @@
+import bagel.DrawOptions;
+import bagel.Font;
+
+/**
+ * Renderer that draws into the Bagel window. Used for interactive play.
+ * Sprites packed into an atlas are drawn as a section of their atlas page. Textures come from an AssetManager.
+ */
+public class BagelRenderer implements Renderer {
+
+    private final DrawOptions rotate = new DrawOptions();
+    private final DrawOptions section = new DrawOptions();
+    private final Font font;
+    private final AssetManager assets;
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y){
+
+        if(sprite.getRegion() == null)
+            assets.get(sprite.getTexturePath()).draw(x, y);
+        else
+            draw(sprite, x, y, 0);
+    }
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y, double rotation){
+
+        AtlasRegion region = sprite.getRegion();
+
+        if(region == null)
+            assets.get(sprite.getTexturePath()).draw(x, y, rotate.setRotation(rotation));
+
+        else {
+            section.setSection(region.getX(), region.getY(), region.getWidth(), region.getHeight());
+            assets.get(sprite.getTexturePath()).draw(x, y, section.setRotation(rotation));
+        }
+    }
+
+
+    @Override
+    public void drawString(String text, double x, double y){ font.drawString(text, x, y); }
+
+
+    @Override
+    public double getStringWidth(String text){ return font.getWidth(text); }
+
+
+    /**
+     * @param fontPath for font file
+     * @param fontSize for size of text
+     * @param assets holding textures of sprites
+     */
+    BagelRenderer(String fontPath, int fontSize, AssetManager assets){
+
+        font = new Font(fontPath, fontSize);
+        this.assets = assets;
+    }
+}
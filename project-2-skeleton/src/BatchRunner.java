@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many headless sessions at once across all cores and sums up how they ended.
+ * Every session has its own World, so sessions share nothing and scale with the number of threads.
+ * Sessions are played for a range of seeds with a random or scripted policy, or from recorded input logs.
+ * With --endless, sessions of seeds are played in endless mode. Logs play the mode they were recorded in.
+ *
+ * Usage: BatchRunner [--seeds first count] [--policy random|scripted] [--endless] [--ticks max] [--threads n] [--replay file...]
+ */
+public class BatchRunner {
+
+    private final static int DEFAULT_SESSIONS = 1000;
+    private final static int DEFAULT_MAX_TICKS = 100000;
+    private final static String RANDOM = "random";
+    private final static String SCRIPTED = "scripted";
+
+    /**
+     * The entry point for batch simulation.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+
+        long firstSeed = 0;
+        int sessions = DEFAULT_SESSIONS;
+        String policy = SCRIPTED;
+        int maxTicks = DEFAULT_MAX_TICKS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean isEndless = false;
+        List<InputLog> logs = new ArrayList<>();
+
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--seeds")) {
+                firstSeed = Long.parseLong(Arguments.getValue(args, ++arg));
+                sessions = Integer.parseInt(Arguments.getValue(args, ++arg));
+            }
+            else if(args[arg].equals("--policy"))
+                policy = Arguments.getValue(args, ++arg);
+            else if(args[arg].equals("--endless"))
+                isEndless = true;
+            else if(args[arg].equals("--ticks"))
+                maxTicks = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--threads"))
+                threads = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--replay"))
+                while(arg + 1 < args.length && !args[arg + 1].startsWith("--"))
+                    logs.add(InputLog.load(Paths.get(args[++arg])));
+            else
+                throw new IllegalArgumentException("Unknown argument " + args[arg]);
+        }
+
+        List<Callable<SessionResult>> tasks = new ArrayList<>();
+        int limit = maxTicks;
+
+        if(!logs.isEmpty()) {
+            policy = "replay";
+
+            for(InputLog log : logs)
+                tasks.add(() -> SessionResult.play(log.getSeed(), log.getIsEndless(), new ReplayPolicy(log), Integer.min(limit, log.size())));
+        }
+
+        else if(policy.equals(RANDOM) || policy.equals(SCRIPTED)) {
+
+            boolean isRandom = policy.equals(RANDOM);
+            boolean isSessionEndless = isEndless;
+
+            for(long seed = firstSeed; seed < firstSeed + sessions; seed++) {
+                long sessionSeed = seed;
+                tasks.add(() -> SessionResult.play(sessionSeed, isSessionEndless, isRandom ? new RandomPolicy(sessionSeed) : new Autopilot(), limit));
+            }
+        }
+
+        else
+            throw new IllegalArgumentException("Unknown policy " + policy);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        List<SessionResult> results = new ArrayList<>(tasks.size());
+        long start = System.nanoTime();
+
+        try {
+            for(Future<SessionResult> result : pool.invokeAll(tasks))
+                results.add(result.get());
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d %s sessions on %d threads in %.3f s (%.1f sessions/s)%n",
+                results.size(), policy, threads, seconds, results.size() / seconds);
+        report(results);
+    }
+
+
+    /**
+     * Prints score, survival and how sessions ended
+     * @param results of all sessions
+     */
+    private static void report(List<SessionResult> results){
+
+        if(results.isEmpty())
+            return;
+
+        long totalScore = 0, totalTicks = 0;
+        int minScore = Integer.MAX_VALUE, maxScore = 0;
+        int minTicks = Integer.MAX_VALUE, maxTicks = 0;
+        int won = 0, alive = 0;
+        int[] levels = new int[2];
+        EnumMap<Hazard, Integer> causes = new EnumMap<>(Hazard.class);
+
+        for(Hazard hazard : Hazard.values())
+            causes.put(hazard, 0);
+
+        for(SessionResult result : results) {
+
+            totalScore += result.getScore();
+            minScore = Integer.min(minScore, result.getScore());
+            maxScore = Integer.max(maxScore, result.getScore());
+            totalTicks += result.getTicks();
+            minTicks = Integer.min(minTicks, result.getTicks());
+            maxTicks = Integer.max(maxTicks, result.getTicks());
+
+            if(result.getLevel() >= levels.length)
+                levels = Arrays.copyOf(levels, result.getLevel() + 1);
+
+            levels[result.getLevel()]++;
+
+            if(result.getIsWon())
+                won++;
+            else if(result.getCause() == null)
+                alive++;
+            else
+                causes.merge(result.getCause(), 1, Integer::sum);
+        }
+
+        int count = results.size();
+        System.out.printf("score: mean %.2f, min %d, max %d%n", totalScore / (double) count, minScore, maxScore);
+        System.out.printf("survival ticks: mean %.1f, min %d, max %d%n", totalTicks / (double) count, minTicks, maxTicks);
+
+        for(int level = 0; level < levels.length; level++)
+            System.out.printf("ended in level %d: %d%n", level, levels[level]);
+
+        System.out.printf("won: %d%n", won);
+
+        for(Hazard hazard : Hazard.values())
+            System.out.printf("lost to %s: %d%n", hazard, causes.get(hazard));
+
+        System.out.printf("alive at tick limit: %d%n", alive);
+    }
+}
@@ -1,7 +1,4 @@
-import bagel.Image;
-import bagel.Window;
-import bagel.util.Rectangle;
-import bagel.util.Point;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -16,54 +13,69 @@ public class Bird extends GameElement implements Movable{
     private final static double MAX_VELOCITY = 10;
     private final static double FLY_VELOCITY = 6;
 
-    private final static Image BIRD_UP_0 = new Image("project-2-skeleton/res/level-0/birdWingUp.png");
-    private final static Image BIRD_DOWN_0 = new Image("project-2-skeleton/res/level-0/birdWingDown.png");
-    private final static Image BIRD_UP_1 = new Image("project-2-skeleton/res/level-1/birdWingUp.png");
-    private final static Image BIRD_DOWN_1 = new Image("project-2-skeleton/res/level-1/birdWingDown.png");
-    private final static Image[] BIRD_UP = new Image[]{BIRD_UP_0, BIRD_UP_1};
-    private final static Image[] BIRD_DOWN = new Image[]{BIRD_DOWN_0, BIRD_DOWN_1};
+    private final static Sprite BIRD_UP_0 = new Sprite("level-0/birdWingUp", Layer.BIRD, true);
+    private final static Sprite BIRD_DOWN_0 = new Sprite("level-0/birdWingDown", Layer.BIRD, true);
+    private final static Sprite BIRD_UP_1 = new Sprite("level-1/birdWingUp", Layer.BIRD, true);
+    private final static Sprite BIRD_DOWN_1 = new Sprite("level-1/birdWingDown", Layer.BIRD, true);
+    private final static Sprite[] BIRD_UP = new Sprite[]{BIRD_UP_0, BIRD_UP_1};
+    private final static Sprite[] BIRD_DOWN = new Sprite[]{BIRD_DOWN_0, BIRD_DOWN_1};
+
+    // Sprites by their number in a saved game
+    private final static Sprite[] SPRITES = new Sprite[]{BIRD_UP_0, BIRD_DOWN_0, BIRD_UP_1, BIRD_DOWN_1};
+    private final static Hazard[] HAZARDS = Hazard.values();
+    private final static int WEAPON_EQUIPPED = 1, RESPAWNED = 2;
     private final LifeBar health;
 
-    // Bird is a Singleton class
-    private static Bird _instance = null;
-
-    private Rectangle box;
-    private Rectangle weaponBox;
+    private final Box box;
     private Weapon equippedWeapon;
+    private Hazard lastHazard;
+
+    // Share of the last move still to come when the pipe last found by findPipeBox was touched, higher being sooner
+    private double contact;
 
 
     private double yVelocity;
     private boolean isWeaponEquipped;
+    private boolean isRespawned;
     private int level;
     private int frame;
 
     /**
-     * Renders bird on the screen in wings down (or wings up every 10th frame) and forms box around image
-     * to help with collision detection
+     * Renders bird on the screen in wings down (or wings up every 10th frame) along with its life bar
      */
     @Override
-    public void render() {
+    public void render(Renderer renderer, double alpha) {
 
-        frame++;
+        if(frame % 10 == 0)
+            renderer.draw(BIRD_UP[level], renderX(alpha), renderY(alpha));
 
-        if(frame % 10 == 0) {
-            wingUp();
-            super.render();
-            wingDown();
-        }
-
-        elementImage.draw(x, y);
-        box = elementImage.getBoundingBoxAt(new Point(x, y));
-        health.render();
-        this.move();
+        super.render(renderer, alpha);
+        health.render(renderer, alpha);
     }
 
     /**
-     * Moves bird down depending on bird velocity and gravity
+     * Forms box around image to help with collision detection, remembering where it was so that collisions
+     * can be checked along its whole move, then moves bird down depending on bird velocity and gravity.
+     * Wings go down every 10th frame.
      */
     @Override
     public void move() {
 
+        savePosition();
+        frame++;
+
+        if(frame % 10 == 0)
+            wingDown();
+
+        box.savePosition();
+        box.set(x, y, elementImage.getMask());
+
+        // A respawned bird jumps back into the Window rather than sweeping across it
+        if(isRespawned) {
+            box.savePosition();
+            isRespawned = false;
+        }
+
         yVelocity = Double.min(MAX_VELOCITY, yVelocity + GRAVITY);
         y += yVelocity;
     }
@@ -71,33 +83,58 @@ public class Bird extends GameElement implements Movable{
     /**
      * Collision Detection with pipes or flame
      * Every pipe and flame is checked for collision
-     * @param pipes ArrayList
+     * @param pipes queue of Level
      * @return true if all lives are over
      */
-    public boolean collidePipes(ArrayList<PipeSet> pipes) {
+    public boolean collidePipes(PipeQueue pipes) {
+
+        int pipeBox = findPipeBox(pipes);
+
+        if(pipeBox >= 0){
+
+            // Touching the path of a flame while it is off ends the game
+            if(pipeBox >= PipeSet.getNumPipeBox() && !pipes.getUnscored(0).flameCollide()) {
+                lastHazard = Hazard.FLAME;
+                return true;
+            }
+
+            pipes.removeUnscored(0).release();
+            loseLife(pipeBox < PipeSet.getNumPipeBox() ? Hazard.PIPE : Hazard.FLAME);
+        }
+
+        // Lives are over
+        return health.isLivesOver();
+    }
+
+    /**
+     * Finds which box of the first pipe to the right of the bird the bird, or its equipped weapon, touches first
+     * during the last move, without any effects of the collision. When it was touched is kept for getContact.
+     * @param pipes queue of Level
+     * @return index of box as in PipeSet.getBox, or -1 if there is no collision
+     */
+    public int findPipeBox(PipeQueue pipes) {
 
         // If no pipes exist to the right of bird
-        if(pipes.size() == 0)
-            return health.isLivesOver();
+        if(pipes.getUnscoredCount() == 0)
+            return -1;
 
         // First pipe to the right of the bird is the only one that can collide
-        for(int pipeBox = 0; pipeBox < pipes.get(0).getBox().length; pipeBox++)
+        PipeSet pipe = pipes.getUnscored(0);
 
-            // Check for collision of bird (and equipped weapon if exists) with pipe or flame
-            if(box.intersects(pipes.get(0).getBox()[pipeBox]) || (isWeaponEquipped && weaponBox.intersects(pipes.get(0).getBox()[pipeBox]))){
+        // Check for collision of bird (and equipped weapon if exists) with pipe or flame, taking whichever is touched first
+        int pipeBox = pipe.findBox(box);
+        contact = pipe.getContact();
 
-                // Successful collision with pipe or flame
-                if(pipeBox < PipeSet.getNumPipeBox() || pipes.get(0).flameCollide()) {
-                    pipes.remove(pipes.get(0));
-                    health.setLifeLost();
-                    break;
-                }
+        if(isWeaponEquipped) {
+            int weaponBox = pipe.findBox(equippedWeapon.getBox(0));
 
-                return true;
+            if(weaponBox >= 0 && (pipeBox < 0 || pipe.getContact() > contact)) {
+                pipeBox = weaponBox;
+                contact = pipe.getContact();
             }
+        }
 
-        // Lives are over
-        return health.isLivesOver();
+        return pipeBox;
     }
 
     /**
@@ -111,14 +148,17 @@ public class Bird extends GameElement implements Movable{
         if(isWeaponEquipped)
             return false;
 
-        for(Weapon weapon: weapons)
+        for(int currentWeapon = 0; currentWeapon < weapons.size(); currentWeapon++) {
+
+            Weapon weapon = weapons.get(currentWeapon);
 
             // Bird-weapon collision is checked one by one
-            if(box.intersects(weapon.getBox()[0])){
+            if(box.intersects(weapon.getBox(0))){
                 weapon.collideBird();
                 equip(weapon);
                 return true;
             }
+        }
 
         return false;
     }
@@ -129,13 +169,23 @@ public class Bird extends GameElement implements Movable{
      */
     public void checkOOB(){
 
-        if(y < 0 || y > Window.getHeight()){
-            health.setLifeLost();
+        if(y < 0 || y > ShadowFlap.WINDOW_HEIGHT){
+            loseLife(Hazard.OUT_OF_BOUNDS);
             respawn();
         }
     }
 
 
+    /**
+     * Loses a life and remembers what took it
+     */
+    private void loseLife(Hazard hazard){
+
+        health.setLifeLost();
+        lastHazard = hazard;
+    }
+
+
     /**
      * Bird flies up with fly speed and wings up
      */
@@ -165,9 +215,17 @@ public class Bird extends GameElement implements Movable{
 
         x = DEFAULT_X;
         y = DEFAULT_Y;
+        savePosition();
+        isRespawned = true;
     }
 
 
+    /**
+     * Gives back all lives lost, for practice where running out of lives does not end the game
+     */
+    public void refillLives(){ health.refill(); }
+
+
     /**
      * Levels up - makes bird more badass and able to use weapons
      */
@@ -179,11 +237,18 @@ public class Bird extends GameElement implements Movable{
     }
 
 
+    /**
+     * @return number of boxes around bird
+     */
+    @Override
+    public int getNumBoxes() { return 1; }
+
+
     /**
      * Returns box around bird
      */
     @Override
-    public Rectangle[] getBox() { return new Rectangle[]{box}; }
+    public Box getBox(int index) { return box; }
 
 
     /**
@@ -193,7 +258,6 @@ public class Bird extends GameElement implements Movable{
 
         isWeaponEquipped = true;
         equippedWeapon = weapon;
-        weaponBox = weapon.getBox()[0];
     }
 
 
@@ -204,9 +268,53 @@ public class Bird extends GameElement implements Movable{
 
         isWeaponEquipped = false;
         equippedWeapon.shoot();
+
+        // Forgotten so that it is not mistaken for a weapon reused by the pool once it is released
+        equippedWeapon = null;
     }
 
 
+    /**
+     * Unequips Weapon without shooting it, once the Level removes it
+     */
+    public void drop(){
+
+        isWeaponEquipped = false;
+        equippedWeapon = null;
+    }
+
+
+    /**
+     * @return y-coordinate of centre of bird
+     */
+    public double getY(){ return y; }
+
+
+    /**
+     * @return speed of bird downwards
+     */
+    public double getYVelocity(){ return yVelocity; }
+
+
+    /**
+     * @return fastest speed bird falls at
+     */
+    public static double getMaxVelocity(){ return MAX_VELOCITY; }
+
+
+    /**
+     * @return what the bird last lost a life to, or null if it has lost none
+     */
+    public Hazard getLastHazard(){ return lastHazard; }
+
+
+    /**
+     * @return share of the last move still to come when the pipe found by findPipeBox was first touched,
+     * from 1 at the start of the move to 0 at its end, so higher is sooner
+     */
+    public double getContact(){ return contact; }
+
+
     /**
      * @return weapon that is equipped
      */
@@ -220,10 +328,86 @@ public class Bird extends GameElement implements Movable{
 
 
     /**
-     * Default constructor of bird, initialises velocity, weapon status, level and frame
+     * Writes bird, its box and its lives into a saved game. The equipped weapon is written by the level holding it.
+     */
+    void write(ByteBuffer buffer){
+
+        buffer.putDouble(x).putDouble(y).putDouble(prevX).putDouble(prevY).putDouble(yVelocity)
+                .put((byte) ((isWeaponEquipped ? WEAPON_EQUIPPED : 0) | (isRespawned ? RESPAWNED : 0)))
+                .putInt(level).putInt(frame)
+                .put((byte) indexOf(elementImage))
+                .put((byte) indexOfMask(box.getMask()))
+                .put((byte) (lastHazard == null ? -1 : lastHazard.ordinal()));
+        box.write(buffer);
+        health.write(buffer);
+    }
+
+
+    /**
+     * Reads bird written by write
+     */
+    void read(ByteBuffer buffer){
+
+        x = buffer.getDouble();
+        y = buffer.getDouble();
+        prevX = buffer.getDouble();
+        prevY = buffer.getDouble();
+        yVelocity = buffer.getDouble();
+        int flags = buffer.get();
+        isWeaponEquipped = (flags & WEAPON_EQUIPPED) != 0;
+        isRespawned = (flags & RESPAWNED) != 0;
+        level = buffer.getInt();
+        frame = buffer.getInt();
+        elementImage = SPRITES[buffer.get()];
+        int mask = buffer.get();
+        int hazard = buffer.get();
+        lastHazard = hazard < 0 ? null : HAZARDS[hazard];
+        box.read(buffer, mask < 0 ? null : SPRITES[mask].getMask());
+        health.read(buffer);
+    }
+
+
+    /**
+     * Points bird at its equipped weapon in a restored level, without picking it up again
+     * @param weapon equipped, or null if there is none
+     */
+    void restoreWeapon(Weapon weapon){ equippedWeapon = weapon; }
+
+
+    /**
+     * @return number of sprite in a saved game
      */
-    private Bird(){
+    private static int indexOf(Sprite sprite){
+
+        for(int index = 0; index < SPRITES.length; index++)
+            if(SPRITES[index] == sprite)
+                return index;
+
+        throw new IllegalStateException("Bird is not drawn with " + sprite.getName());
+    }
 
+
+    /**
+     * @return number of sprite whose mask a box was set with, or -1 for a box never set
+     */
+    private static int indexOfMask(CollisionMask mask){
+
+        for(int index = 0; index < SPRITES.length; index++)
+            if(SPRITES[index].getMask() == mask)
+                return index;
+
+        return -1;
+    }
+
+
+    /**
+     * Default constructor of bird, initialises velocity, weapon status, level and frame.
+     * Each World has its own bird.
+     * @param store to keep box of bird in
+     */
+    Bird(EntityStore store){
+
+        box = new Box(store);
         respawn();
         fly();
         isWeaponEquipped = false;
@@ -232,15 +416,4 @@ public class Bird extends GameElement implements Movable{
 
         health = new LifeBar();
     }
-
-
-    /**
-     * Method to make an instance of Bird if none exists, else points to existing instance
-     * @return instance of Bird
-     */
-    public static Bird getInstance(){
-        if(_instance == null)
-            _instance = new Bird();
-        return _instance;
-    }
 }
@@ -0,0 +1,149 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Box around a Game Element for collision detection. A box is a view of one slot of an EntityStore,
+ * which keeps the position, size and speed of every box of a kind in arrays so that they can all be moved at once.
+ * Each element keeps its boxes and updates them when it moves, so checking for collisions does not make any objects.
+ */
+public class Box {
+
+    /**
+     * Bytes taken by a box in a saved game: position before and after the last move, edges and speed
+     */
+    public final static int BYTES = 9 * Double.BYTES;
+
+    private final EntityStore store;
+    private int slot;
+
+
+    /**
+     * Moves box to surround an image, all of which can be collided with
+     * @param centreX x-coordinate of centre of image
+     * @param centreY y-coordinate of centre of image
+     * @param width of image
+     * @param height of image
+     */
+    public void set(double centreX, double centreY, double width, double height){ store.set(slot, centreX, centreY, width, height, null); }
+
+
+    /**
+     * Moves box to surround a sprite, so that collisions are checked against its pixels
+     * @param centreX x-coordinate of centre of sprite
+     * @param centreY y-coordinate of centre of sprite
+     * @param mask of sprite as it is drawn
+     */
+    public void set(double centreX, double centreY, CollisionMask mask){
+        store.set(slot, centreX, centreY, mask.getWidth(), mask.getHeight(), mask);
+    }
+
+
+    /**
+     * @return true if boxes overlap
+     */
+    public boolean intersects(Box other){
+        return left() < other.right() && right() > other.left() && top() < other.bottom() && bottom() > other.top();
+    }
+
+
+    /**
+     * @param velocity to the left that the box moves at each time its store moves
+     */
+    public void setXVelocity(double velocity){ store.setXVelocity(slot, velocity); }
+
+
+    /**
+     * Remembers position as if the box had been there before the last move, so it is not drawn moving there
+     */
+    public void savePosition(){ store.savePosition(slot); }
+
+
+    /**
+     * @return x-coordinate to draw at, between position before and after the last move
+     */
+    public double renderX(double alpha){ return store.getPrevX(slot) + (store.getX(slot) - store.getPrevX(slot)) * alpha; }
+
+
+    /**
+     * @return y-coordinate to draw at, between position before and after the last move
+     */
+    public double renderY(double alpha){ return store.getPrevY(slot) + (store.getY(slot) - store.getPrevY(slot)) * alpha; }
+
+
+    /**
+     * @return distance moved to the right in the last move
+     */
+    public double getMoveX(){ return store.getX(slot) - store.getPrevX(slot); }
+
+
+    /**
+     * @return distance moved down in the last move
+     */
+    public double getMoveY(){ return store.getY(slot) - store.getPrevY(slot); }
+
+
+    public double getX(){ return store.getX(slot); }
+
+    public double getY(){ return store.getY(slot); }
+
+    public double left(){ return store.left(slot); }
+
+    public double top(){ return store.top(slot); }
+
+    public double right(){ return store.right(slot); }
+
+    public double bottom(){ return store.bottom(slot); }
+
+    public CollisionMask getMask(){ return store.getMask(slot); }
+
+
+    /**
+     * Writes box into a saved game, taking BYTES bytes
+     */
+    void write(ByteBuffer buffer){ store.write(slot, buffer); }
+
+
+    /**
+     * Reads box from a saved game
+     * @param mask of sprite box surrounds
+     */
+    void read(ByteBuffer buffer, CollisionMask mask){ store.read(slot, buffer, mask); }
+
+
+    /**
+     * Takes a slot of the store for box, reusing one given back if possible, for an element spawned from its pool
+     */
+    void take(){ slot = store.add(1); }
+
+
+    /**
+     * Gives slot of box back to the store, for an element released to its pool
+     */
+    void free(){
+
+        store.free(slot, 1);
+        slot = EntityStore.NO_SLOT;
+    }
+
+
+    /**
+     * Points box at a slot reserved along with others by its owner
+     */
+    void setSlot(int slot){ this.slot = slot; }
+
+
+    /**
+     * @param store to keep box in
+     */
+    Box(EntityStore store){ this(store, store.add(1)); }
+
+
+    /**
+     * @param store box is kept in
+     * @param slot of box, already reserved, or NO_SLOT until its owner is spawned
+     */
+    Box(EntityStore store, int slot){
+
+        this.store = store;
+        this.slot = slot;
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * Interface implemented by classes with objects that have boxes and can thus collide
+ */
+public interface Collidable {
+
+    /**
+     * @return number of boxes around object
+     */
+    int getNumBoxes();
+
+    /**
+     * @return box at index, as it was after the last move
+     */
+    Box getBox(int index);
+}
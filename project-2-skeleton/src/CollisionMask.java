@@ -0,0 +1,181 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Pixels of a sprite that can be collided with, which are those that are not mostly transparent.
+ * Each row is packed into longs, one bit per pixel with the leftmost pixel in the lowest bit, so two masks
+ * are checked against each other one row and 64 pixels at a time by shifting one and ANDing it with the other.
+ * Masks are read once, when their sprite is made, along with a copy turned half a turn for sprites drawn flipped.
+ */
+public class CollisionMask {
+
+    // Alpha from 0 to 255 at and above which a pixel can be collided with
+    private final static int ALPHA_THRESHOLD = 128;
+    private final static int WORD_BITS = 64;
+
+    private final int width;
+    private final int height;
+    private final int words;
+    private final long[] bits;
+    private CollisionMask flipped;
+
+
+    /**
+     * Checks whether any pixel of this mask is on a pixel of another
+     * @param other mask to check
+     * @param dx column of this mask that the left of the other is on, which may be outside this mask
+     * @param dy row of this mask that the top of the other is on, which may be outside this mask
+     * @return true if the masks share a pixel
+     */
+    public boolean overlaps(CollisionMask other, int dx, int dy){
+
+        int firstRow = Integer.max(0, dy);
+        int lastRow = Integer.min(height, dy + other.height);
+        int firstColumn = Integer.max(0, dx);
+        int lastColumn = Integer.min(width, dx + other.width);
+
+        if(firstRow >= lastRow || firstColumn >= lastColumn)
+            return false;
+
+        int firstWord = firstColumn / WORD_BITS;
+        int lastWord = (lastColumn - 1) / WORD_BITS;
+
+        for(int row = firstRow; row < lastRow; row++) {
+
+            int base = row * words;
+            int otherRow = row - dy;
+
+            for(int word = firstWord; word <= lastWord; word++)
+                if((bits[base + word] & other.getWord(otherRow, word * WORD_BITS - dx)) != 0)
+                    return true;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * @return 64 pixels of a row starting at column, as they would be stored if the row began there.
+     * Pixels outside the mask are empty.
+     */
+    private long getWord(int row, int column){
+
+        if(column >= width || column <= -WORD_BITS)
+            return 0;
+
+        int base = row * words;
+
+        if(column < 0)
+            return bits[base] << -column;
+
+        int word = column / WORD_BITS;
+        int shift = column % WORD_BITS;
+        long value = bits[base + word] >>> shift;
+
+        if(shift != 0 && word + 1 < words)
+            value |= bits[base + word + 1] << (WORD_BITS - shift);
+
+        return value;
+    }
+
+
+    /**
+     * @return whether pixel can be collided with
+     */
+    public boolean isSet(int column, int row){ return (bits[row * words + column / WORD_BITS] & (1L << column)) != 0; }
+
+
+    /**
+     * @return mask of the sprite drawn turned half a turn, as bottom pipes and flames are
+     */
+    public CollisionMask getFlipped(){
+
+        if(flipped == null) {
+
+            flipped = new CollisionMask(width, height);
+            flipped.flipped = this;
+
+            for(int row = 0; row < height; row++)
+                for(int column = 0; column < width; column++)
+                    if(isSet(column, row))
+                        flipped.set(width - 1 - column, height - 1 - row);
+        }
+
+        return flipped;
+    }
+
+
+    /**
+     * @return width in pixels
+     */
+    public int getWidth(){ return width; }
+
+
+    /**
+     * @return height in pixels
+     */
+    public int getHeight(){ return height; }
+
+
+    /**
+     * Reads the alpha channel of an image file, along with its flipped copy so that neither is made during play
+     * @param path of png file
+     */
+    public static CollisionMask read(String path){
+
+        BufferedImage image;
+
+        try {
+            image = ImageIO.read(new File(path));
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("Could not read mask of " + path, e);
+        }
+
+        if(image == null)
+            throw new UncheckedIOException(new IOException(path + " is not an image"));
+
+        return read(image, 0, 0, image.getWidth(), image.getHeight());
+    }
+
+
+    /**
+     * Reads the alpha channel of part of an image, such as the region of a sprite on an atlas page,
+     * along with its flipped copy so that neither is made during play
+     * @param x of left of part
+     * @param y of top of part
+     */
+    public static CollisionMask read(BufferedImage image, int x, int y, int width, int height){
+
+        CollisionMask mask = new CollisionMask(width, height);
+
+        for(int row = 0; row < height; row++)
+            for(int column = 0; column < width; column++)
+                if(image.getRGB(x + column, y + row) >>> 24 >= ALPHA_THRESHOLD)
+                    mask.set(column, row);
+
+        mask.getFlipped();
+        return mask;
+    }
+
+
+    /**
+     * Makes pixel one that can be collided with
+     */
+    private void set(int column, int row){ bits[row * words + column / WORD_BITS] |= 1L << column; }
+
+
+    /**
+     * Makes an empty mask
+     */
+    CollisionMask(int width, int height){
+
+        this.width = width;
+        this.height = height;
+        words = (width + WORD_BITS - 1) / WORD_BITS;
+        bits = new long[Integer.max(1, words * height)];
+    }
+}
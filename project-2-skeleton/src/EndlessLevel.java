@@ -0,0 +1,155 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Level of Flappy Bird Game that never ends, played with the pipes and weapons of level 1.
+ * Pipes come from a PipeGenerator as they are needed, so the level gets harder the longer it is played.
+ * Pipes are spaced by distance moved rather than by ticks, so that spacing stays as generated while pipes speed up.
+ * Removed pipes, flames and weapons go back to the pools of the World, so the level uses the same memory however long it runs.
+ *
+ * In practice, losing every life takes nothing but a count of losses and the bird plays on with all of them,
+ * which lets bots play a single level for as long as they are left to.
+ */
+public class EndlessLevel extends Level1 {
+
+    private final static String ENDLESS = "ENDLESS MODE";
+
+    private final PipeGenerator generator;
+
+    // Distances left for pipes to move before the next pipe and the next weapon are spawned
+    private int untilPipe;
+    private int untilWeapon;
+    private boolean isWeaponDue;
+
+    private boolean isPractice;
+    private long losses;
+
+
+    /**
+     * Spawns pipes as the generator describes them, with weapons halfway between those that have one
+     */
+    @Override
+    void spawn(){
+
+        if(untilPipe <= 0) {
+
+            PipeSpawn spawn = generator.next();
+
+            // Pipes already spawned and weapons not yet picked up speed up along with the new pipe
+            world.setSpeedUp(spawn.getSpeedUp());
+
+            for(int weapon = 0; weapon < weapons.size(); weapon++)
+                weapons.get(weapon).setXVelocity();
+
+            pipes.add(PipeSet.spawn(world, spawn));
+            untilPipe += spawn.getSpacing();
+            untilWeapon = spawn.getSpacing() / 2;
+            isWeaponDue = spawn.getHasWeapon();
+        }
+
+        if(isWeaponDue && untilWeapon <= 0) {
+            weapons.add(Weapon.spawn(world));
+            isWeaponDue = false;
+        }
+
+        untilPipe -= world.getPipeXVelocity();
+        untilWeapon -= world.getPipeXVelocity();
+    }
+
+
+    /**
+     * Checking for collisions, with losses in practice taken back
+     */
+    @Override
+    void collisionCheck(){
+
+        super.collisionCheck();
+
+        if(isPractice && isLoss) {
+            losses++;
+            isLoss = false;
+            isGameOn = true;
+            bird.refillLives();
+        }
+    }
+
+
+    /**
+     * Start Screen of endless mode
+     */
+    @Override
+    void startScreen(Renderer renderer){
+
+        drawCentred(renderer, ENDLESS, -START_GAP);
+        super.startScreen(renderer);
+    }
+
+
+    /**
+     * Endless mode is the first level of its session, so it loads behind the usual loading screen
+     */
+    @Override
+    public String getLoadingText(){ return LOADING; }
+
+
+    /**
+     * Writes endless mode into a saved game, with where the generator and the next spawns are up to
+     */
+    @Override
+    void write(ByteBuffer buffer){
+
+        super.write(buffer);
+        generator.write(buffer);
+        buffer.putInt(untilPipe).putInt(untilWeapon).put((byte) (isWeaponDue ? 1 : 0))
+                .put((byte) (isPractice ? 1 : 0)).putLong(losses);
+    }
+
+
+    /**
+     * Reads endless mode written by write
+     */
+    @Override
+    void read(ByteBuffer buffer){
+
+        super.read(buffer);
+        generator.read(buffer);
+        untilPipe = buffer.getInt();
+        untilWeapon = buffer.getInt();
+        isWeaponDue = buffer.get() != 0;
+        isPractice = buffer.get() != 0;
+        losses = buffer.getLong();
+    }
+
+
+    /**
+     * @param isPractice true if losing every life should only be counted, not end the level
+     */
+    public void setIsPractice(boolean isPractice){ this.isPractice = isPractice; }
+
+
+    /**
+     * @return number of times every life was lost in practice
+     */
+    public long getLosses(){ return losses; }
+
+
+    /**
+     * @return generator of the pipes of the level
+     */
+    public PipeGenerator getGenerator(){ return generator; }
+
+
+    /**
+     * Constructor which starts the World and bird at level 1, as there is no level before this one
+     * @param world of the session
+     */
+    EndlessLevel(World world){
+
+        super(world);
+
+        // Score never reaches the max, so the level is never won
+        max_score = Integer.MAX_VALUE;
+        world.levelUp();
+        bird.levelUp();
+        generator = new PipeGenerator(world.getRandom());
+    }
+}
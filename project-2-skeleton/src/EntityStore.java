@@ -0,0 +1,516 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Positions, sizes and speeds of many boxes kept in parallel arrays, one slot per box.
+ * Moving every box is then one pass over contiguous arrays instead of a virtual call per Game Element,
+ * and collision checks read the arrays directly. Boxes are views of their slot.
+ * Elements give their slots back when released to their pool and take slots again when spawned, so dead slots
+ * are flagged, skipped by moves and collision checks, and reused before the arrays grow.
+ */
+public class EntityStore {
+
+    private final static int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Slot of boxes whose owner is waiting in a pool
+     */
+    final static int NO_SLOT = -1;
+
+    // Centre of box after and before the last move
+    private double[] x;
+    private double[] y;
+    private double[] prevX;
+    private double[] prevY;
+
+    // Edges of box, kept rather than worked out from the centre as collision checks read them most
+    private double[] left;
+    private double[] top;
+    private double[] right;
+    private double[] bottom;
+
+    // Distance moved to the left every move
+    private double[] xVelocity;
+
+    // Pixels of the sprite each box surrounds, or null for boxes that are solid
+    private CollisionMask[] masks;
+
+    // Whether a slot holds the box of a spawned element, as slots given back keep whatever they last held
+    private boolean[] alive;
+
+    // Runs of slots given back, by first slot and number of slots, taken last first
+    private int[] freeFirsts;
+    private int[] freeCounts;
+    private int freeRuns;
+
+    // Shares of the move still to come when the boxes last checked by isSweptOverlap started and stopped overlapping
+    private double enter;
+    private double exit;
+
+    // Share of the move still to come when the box found by findSweptOverlap first touched the other, higher being sooner
+    private double contact;
+
+    // Boxes as the whole last move left them, kept while collisions are checked along slices of it.
+    // Only made once a store is first sliced.
+    private double[] endX;
+    private double[] endY;
+    private double[] endPrevX;
+    private double[] endPrevY;
+    private double[] endLeft;
+    private double[] endTop;
+    private double[] endRight;
+    private double[] endBottom;
+
+    private int size;
+    private long moves;
+
+
+    /**
+     * Moves every box left by its velocity, remembering where it was for drawing between ticks
+     */
+    public void moveAll(){
+
+        for(int slot = 0; slot < size; slot++) {
+
+            if(!alive[slot])
+                continue;
+
+            prevX[slot] = x[slot];
+            prevY[slot] = y[slot];
+            x[slot] -= xVelocity[slot];
+            left[slot] -= xVelocity[slot];
+            right[slot] -= xVelocity[slot];
+        }
+
+        moves++;
+    }
+
+
+    /**
+     * Keeps every box as the last move left it, so that collisions can be checked along slices of the move
+     * and the boxes then put back exactly
+     */
+    public void beginSlices(){
+
+        if(endX == null || endX.length < x.length) {
+            endX = new double[x.length];
+            endY = new double[x.length];
+            endPrevX = new double[x.length];
+            endPrevY = new double[x.length];
+            endLeft = new double[x.length];
+            endTop = new double[x.length];
+            endRight = new double[x.length];
+            endBottom = new double[x.length];
+        }
+
+        System.arraycopy(x, 0, endX, 0, size);
+        System.arraycopy(y, 0, endY, 0, size);
+        System.arraycopy(prevX, 0, endPrevX, 0, size);
+        System.arraycopy(prevY, 0, endPrevY, 0, size);
+        System.arraycopy(left, 0, endLeft, 0, size);
+        System.arraycopy(top, 0, endTop, 0, size);
+        System.arraycopy(right, 0, endRight, 0, size);
+        System.arraycopy(bottom, 0, endBottom, 0, size);
+    }
+
+
+    /**
+     * Places every box as if the last move had only run between two shares of the way, each box still moving
+     * in a straight line from where it was before the move to where it ended up. Only called after beginSlices.
+     * @param from share of the move at which the slice starts, from 0 to 1
+     * @param to share of the move at which the slice ends
+     */
+    public void slice(double from, double to){
+
+        for(int slot = 0; slot < size; slot++) {
+
+            if(!alive[slot])
+                continue;
+
+            double moveX = endX[slot] - endPrevX[slot];
+            double moveY = endY[slot] - endPrevY[slot];
+            double dx = (to - 1) * moveX, dy = (to - 1) * moveY;
+
+            x[slot] = endX[slot] + dx;
+            y[slot] = endY[slot] + dy;
+            prevX[slot] = endX[slot] + (from - 1) * moveX;
+            prevY[slot] = endY[slot] + (from - 1) * moveY;
+            left[slot] = endLeft[slot] + dx;
+            right[slot] = endRight[slot] + dx;
+            top[slot] = endTop[slot] + dy;
+            bottom[slot] = endBottom[slot] + dy;
+        }
+    }
+
+
+    /**
+     * Puts every box back where the whole last move left it, as kept by beginSlices
+     */
+    public void endSlices(){
+
+        System.arraycopy(endX, 0, x, 0, size);
+        System.arraycopy(endY, 0, y, 0, size);
+        System.arraycopy(endPrevX, 0, prevX, 0, size);
+        System.arraycopy(endPrevY, 0, prevY, 0, size);
+        System.arraycopy(endLeft, 0, left, 0, size);
+        System.arraycopy(endTop, 0, top, 0, size);
+        System.arraycopy(endRight, 0, right, 0, size);
+        System.arraycopy(endBottom, 0, bottom, 0, size);
+    }
+
+
+    /**
+     * @return number of times moveAll has run, used as a clock by elements that change every move
+     */
+    public long getMoves(){ return moves; }
+
+
+    /**
+     * Sets velocity of every box
+     * @param velocity to the left
+     */
+    public void setAllXVelocity(double velocity){ Arrays.fill(xVelocity, 0, size, velocity); }
+
+
+    /**
+     * @return number of slots reserved so far, including those given back
+     */
+    public int size(){ return size; }
+
+
+    /**
+     * Reserves slots for boxes next to each other, reusing slots given back for as many boxes if there are some,
+     * otherwise growing the arrays if they are full
+     * @param count of boxes
+     * @return slot of first box
+     */
+    int add(int count){
+
+        int first = -1;
+
+        for(int run = freeRuns - 1; run >= 0; run--)
+            if(freeCounts[run] == count) {
+                first = freeFirsts[run];
+                freeRuns--;
+                freeFirsts[run] = freeFirsts[freeRuns];
+                freeCounts[run] = freeCounts[freeRuns];
+                break;
+            }
+
+        if(first == -1) {
+            while(size + count > x.length)
+                grow();
+
+            first = size;
+            size += count;
+        }
+
+        Arrays.fill(alive, first, first + count, true);
+        return first;
+    }
+
+
+    /**
+     * Gives back slots reserved by add, so that they are no longer moved or checked and can be reserved again
+     * @param first slot of boxes
+     * @param count of boxes, as reserved
+     */
+    void free(int first, int count){
+
+        if(freeRuns == freeFirsts.length) {
+            freeFirsts = Arrays.copyOf(freeFirsts, freeRuns * 2);
+            freeCounts = Arrays.copyOf(freeCounts, freeRuns * 2);
+        }
+
+        freeFirsts[freeRuns] = first;
+        freeCounts[freeRuns] = count;
+        freeRuns++;
+        kill(first, count);
+    }
+
+
+    /**
+     * Flags reserved slots as dead, so that they are not moved or checked until reserved again.
+     * Used for boxes an element keeps but does not use, such as flame boxes of plastic pipes.
+     * @param first slot of boxes
+     * @param count of boxes
+     */
+    void kill(int first, int count){ Arrays.fill(alive, first, first + count, false); }
+
+
+    /**
+     * Finds which of a run of boxes another box touches soonest during the last move, reading the arrays directly.
+     * Both boxes are taken to move in a straight line from where they were before the move, so a box that passed
+     * right through another within one move, as fast boxes can at high timescales, is still found.
+     * Boxes that did not move are only checked where they are.
+     * Once boxes are found to overlap, the pixels of their masks are checked as well, if both have one.
+     * Boxes touched at the same time are taken in order of the run.
+     * Dead boxes in the run are skipped.
+     * @param first slot of run
+     * @param count of boxes in run
+     * @param other box to check, which may be kept in another store
+     * @return index of box within run, or -1 if there is no overlap
+     */
+    int findSweptOverlap(int first, int count, Box other){
+
+        double otherLeft = other.left(), otherTop = other.top(), otherRight = other.right(), otherBottom = other.bottom();
+        double otherMoveX = other.getMoveX(), otherMoveY = other.getMoveY();
+        CollisionMask otherMask = other.getMask();
+        int found = -1;
+        double soonest = -1;
+
+        for(int slot = first; slot < first + count; slot++) {
+
+            if(!alive[slot])
+                continue;
+
+            // Movement of other box as seen from this one, which is then taken to stand still
+            double moveX = otherMoveX - (x[slot] - prevX[slot]);
+            double moveY = otherMoveY - (y[slot] - prevY[slot]);
+
+            if(isSweptOverlap(otherLeft - right[slot], otherRight - left[slot], moveX,
+                    otherTop - bottom[slot], otherBottom - top[slot], moveY)
+                    && exit > soonest
+                    && isMaskOverlap(slot, otherMask, otherLeft, otherTop, moveX, moveY)
+                    && contact > soonest) {
+                found = slot - first;
+                soonest = contact;
+            }
+        }
+
+        contact = soonest;
+        return found;
+    }
+
+
+    /**
+     * @return share of the move still to come when the box last found by findSweptOverlap was first touched,
+     * from 1 at the start of the move to 0 at its end
+     */
+    double getContact(){ return contact; }
+
+
+    /**
+     * Checks whether a moving box overlaps a still one at any point of its move. With a share s of the move
+     * still to come, running from 1 at the start to 0 at the end, the moving box is offset by -s * move from
+     * where it ends up. Along each axis the boxes overlap for a range of s, and they overlap if the ranges of
+     * both axes have some s between 0 and 1 in common, which is kept for checking masks.
+     * @param lowX left of moving box less right of still box, where it ends up, so overlapping along x needs it below 0
+     * @param highX right of moving box less left of still box, which needs to be above 0
+     * @param moveX distance moved along x
+     * @param lowY top of moving box less bottom of still box
+     * @param highY bottom of moving box less top of still box
+     * @param moveY distance moved along y
+     * @return true if the boxes overlap at some point of the move
+     */
+    private boolean isSweptOverlap(double lowX, double highX, double moveX, double lowY, double highY, double moveY){
+
+        enter = 0;
+        exit = 1;
+
+        // Along an axis the boxes overlap for low < s * move < high, or for every s if the box does not move along it
+        if(moveX == 0) {
+            if(lowX >= 0 || highX <= 0)
+                return false;
+        }
+        else {
+            enter = Double.max(enter, Double.min(lowX/moveX, highX/moveX));
+            exit = Double.min(exit, Double.max(lowX/moveX, highX/moveX));
+        }
+
+        if(moveY == 0) {
+            if(lowY >= 0 || highY <= 0)
+                return false;
+        }
+        else {
+            enter = Double.max(enter, Double.min(lowY/moveY, highY/moveY));
+            exit = Double.min(exit, Double.max(lowY/moveY, highY/moveY));
+        }
+
+        return enter < exit;
+    }
+
+
+    /**
+     * Checks pixels of the masks of two boxes found to overlap by isSweptOverlap, at every whole pixel offset
+     * between them along the part of the move during which their boxes overlap, from the earliest to the latest.
+     * The offset is rounded from a straight line, so it only changes where the line crosses half a pixel along
+     * x or y. The move is walked from one crossing to the next and the masks are checked once in each stretch
+     * between them, which checks the same offsets however the move is split into slices.
+     * Boxes without a mask are only checked by their box, and touch as soon as their boxes overlap.
+     * Keeps the share of the move still to come at the start of the first stretch found to overlap as the contact.
+     * @param otherLeft left of other box where it ends up
+     * @param otherTop top of other box where it ends up
+     * @param moveX distance other box moved along x as seen from this one
+     * @param moveY distance other box moved along y as seen from this one
+     * @return true if any pixels overlap
+     */
+    private boolean isMaskOverlap(int slot, CollisionMask otherMask, double otherLeft, double otherTop, double moveX, double moveY){
+
+        CollisionMask mask = masks[slot];
+        contact = exit;
+
+        if(mask == null || otherMask == null)
+            return true;
+
+        // Offset of other box from this one with a share s of the move still to come is start - s * move
+        double startX = otherLeft - left[slot], startY = otherTop - top[slot];
+
+        while(contact > enter) {
+
+            double next = Double.max(enter, Double.max(nextCrossing(startX, moveX, contact), nextCrossing(startY, moveY, contact)));
+
+            // Shares too close together to tell apart are skipped, as the offset can not change between them
+            if(next >= contact)
+                next = Math.nextDown(contact);
+
+            double middle = (contact + next) / 2;
+
+            if(mask.overlaps(otherMask, (int) Math.round(startX - middle * moveX), (int) Math.round(startY - middle * moveY)))
+                return true;
+
+            contact = next;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * @param start offset along an axis at the end of the move
+     * @param move distance moved along the axis
+     * @param share of the move still to come
+     * @return next share, going down from share towards the end of the move, at which the rounded offset
+     * start - share * move changes, or negative infinity if it never does
+     */
+    private static double nextCrossing(double start, double move, double share){
+
+        if(move == 0)
+            return Double.NEGATIVE_INFINITY;
+
+        double offset = start - share * move;
+        double crossing = move > 0 ? Math.floor(offset + 0.5) + 0.5 : Math.ceil(offset - 0.5) - 0.5;
+        return (start - crossing) / move;
+    }
+
+
+    /**
+     * Moves box to surround an image, without it counting as a move
+     * @param mask of image, or null if the whole box can be collided with
+     */
+    void set(int slot, double centreX, double centreY, double width, double height, CollisionMask mask){
+
+        x[slot] = centreX;
+        y[slot] = centreY;
+        left[slot] = centreX - width/2;
+        right[slot] = left[slot] + width;
+        top[slot] = centreY - height/2;
+        bottom[slot] = top[slot] + height;
+        masks[slot] = mask;
+    }
+
+
+    void setXVelocity(int slot, double velocity){ xVelocity[slot] = velocity; }
+
+
+    /**
+     * Writes position before and after the last move, edges and speed of box, in the layout read by read.
+     * Edges are kept as they are rather than worked out again, as moves round them differently from the centre.
+     */
+    void write(int slot, ByteBuffer buffer){
+
+        buffer.putDouble(x[slot]).putDouble(y[slot]).putDouble(prevX[slot]).putDouble(prevY[slot])
+                .putDouble(left[slot]).putDouble(top[slot]).putDouble(right[slot]).putDouble(bottom[slot])
+                .putDouble(xVelocity[slot]);
+    }
+
+
+    /**
+     * Reads box written by write
+     * @param mask of sprite box surrounds, which is not written as it belongs to the owner of the box
+     */
+    void read(int slot, ByteBuffer buffer, CollisionMask mask){
+
+        x[slot] = buffer.getDouble();
+        y[slot] = buffer.getDouble();
+        prevX[slot] = buffer.getDouble();
+        prevY[slot] = buffer.getDouble();
+        left[slot] = buffer.getDouble();
+        top[slot] = buffer.getDouble();
+        right[slot] = buffer.getDouble();
+        bottom[slot] = buffer.getDouble();
+        xVelocity[slot] = buffer.getDouble();
+        masks[slot] = mask;
+    }
+
+
+    /**
+     * Sets number of moves made, for a restored game
+     */
+    void setMoves(long moves){ this.moves = moves; }
+
+    void savePosition(int slot){
+
+        prevX[slot] = x[slot];
+        prevY[slot] = y[slot];
+    }
+
+    double getX(int slot){ return x[slot]; }
+
+    double getY(int slot){ return y[slot]; }
+
+    double getPrevX(int slot){ return prevX[slot]; }
+
+    double getPrevY(int slot){ return prevY[slot]; }
+
+    double left(int slot){ return left[slot]; }
+
+    double right(int slot){ return right[slot]; }
+
+    double top(int slot){ return top[slot]; }
+
+    double bottom(int slot){ return bottom[slot]; }
+
+    CollisionMask getMask(int slot){ return masks[slot]; }
+
+
+    /**
+     * Doubles capacity of all arrays
+     */
+    private void grow(){
+
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        right = Arrays.copyOf(right, capacity);
+        bottom = Arrays.copyOf(bottom, capacity);
+        xVelocity = Arrays.copyOf(xVelocity, capacity);
+        masks = Arrays.copyOf(masks, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+    }
+
+
+    /**
+     * Makes an empty store
+     */
+    EntityStore(){
+
+        x = new double[DEFAULT_CAPACITY];
+        y = new double[DEFAULT_CAPACITY];
+        prevX = new double[DEFAULT_CAPACITY];
+        prevY = new double[DEFAULT_CAPACITY];
+        left = new double[DEFAULT_CAPACITY];
+        top = new double[DEFAULT_CAPACITY];
+        right = new double[DEFAULT_CAPACITY];
+        bottom = new double[DEFAULT_CAPACITY];
+        xVelocity = new double[DEFAULT_CAPACITY];
+        masks = new CollisionMask[DEFAULT_CAPACITY];
+        alive = new boolean[DEFAULT_CAPACITY];
+        freeFirsts = new int[DEFAULT_CAPACITY];
+        freeCounts = new int[DEFAULT_CAPACITY];
+    }
+}
@@ -0,0 +1,252 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Trains a NeuralPolicy to play by evolution. Each generation, every genome plays the same few headless
+ * sessions, across all cores, and is scored by how far it got: levels reached first, then score, then ticks survived.
+ * The best genomes are kept as they are and the rest of the next generation are mutated copies of good ones.
+ * Genomes of a generation are kept one after another in one flat array, each read in place by a policy made once,
+ * so playing makes no objects beyond the sessions themselves.
+ * The best genome of every generation is written to file, to be flown by ShadowFlap with --autopilot.
+ *
+ * Usage: EvolutionTrainer [--population n] [--generations n] [--episodes n] [--ticks max] [--threads n]
+ *                         [--seed seed] [--out file]
+ */
+public class EvolutionTrainer {
+
+    private final static int DEFAULT_POPULATION = 64;
+    private final static int DEFAULT_GENERATIONS = 50;
+    private final static int DEFAULT_EPISODES = 4;
+    private final static int DEFAULT_MAX_TICKS = 20000;
+    private final static String DEFAULT_OUT = "autopilot.genome";
+
+    // Fitness of one session, so that reaching a level is worth more than any score and a point more than any survival
+    private final static double LEVEL_FITNESS = 100;
+    private final static double TICK_FITNESS = 0.001;
+
+    // Spread of starting weights and of the change made to each weight by mutation
+    private final static double INITIAL_SPREAD = 0.5;
+    private final static double MUTATION_SPREAD = 0.1;
+    private final static int ELITE_SHARE = 8;
+    private final static int TOURNAMENT_SIZE = 3;
+
+    private final double[] genomes;
+    private final double[] children;
+    private final double[] fitness;
+    private final int[] ranks;
+    private final NeuralPolicy[] policies;
+    private final int episodes;
+    private final int maxTicks;
+    private final Random random;
+
+    // First seed of the sessions played by the generation being evaluated
+    private long firstSeed;
+
+
+    /**
+     * The entry point for training.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+
+        int population = DEFAULT_POPULATION;
+        int generations = DEFAULT_GENERATIONS;
+        int episodes = DEFAULT_EPISODES;
+        int maxTicks = DEFAULT_MAX_TICKS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 0;
+        Path out = Paths.get(DEFAULT_OUT);
+
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--population"))
+                population = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--generations"))
+                generations = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--episodes"))
+                episodes = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--ticks"))
+                maxTicks = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--threads"))
+                threads = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--seed"))
+                seed = Long.parseLong(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--out"))
+                out = Paths.get(Arguments.getValue(args, ++arg));
+            else
+                throw new IllegalArgumentException("Unknown argument " + args[arg]);
+        }
+
+        EvolutionTrainer trainer = new EvolutionTrainer(population, episodes, maxTicks, seed);
+        List<Callable<Double>> tasks = trainer.getTasks();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+
+        try {
+            for(int generation = 0; generation < generations; generation++) {
+
+                List<Future<Double>> results = pool.invokeAll(tasks);
+
+                for(int genome = 0; genome < population; genome++)
+                    trainer.fitness[genome] = results.get(genome).get();
+
+                trainer.rank();
+                int best = trainer.ranks[0];
+                trainer.policies[best].save(out);
+
+                System.out.printf("generation %d: best %.3f, mean %.3f%n", generation, trainer.fitness[best], trainer.getMeanFitness());
+                trainer.breed();
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        double minutes = (System.nanoTime() - start) / 60e9;
+        System.out.printf("%d generations of %d genomes on %d threads in %.2f min (%.1f generations/min)%n",
+                generations, population, threads, minutes, generations / minutes);
+        System.out.println("Best genome of last generation written to " + out);
+    }
+
+
+    /**
+     * @return one task per genome, playing its sessions of the current generation and returning its fitness
+     */
+    private List<Callable<Double>> getTasks(){
+
+        List<Callable<Double>> tasks = new ArrayList<>(policies.length);
+
+        for(NeuralPolicy policy : policies)
+            tasks.add(() -> evaluate(policy));
+
+        return tasks;
+    }
+
+
+    /**
+     * Plays every session of the current generation with a policy
+     * @return mean fitness over the sessions
+     */
+    private double evaluate(NeuralPolicy policy){
+
+        double total = 0;
+
+        for(int episode = 0; episode < episodes; episode++) {
+
+            SessionResult result = SessionResult.play(firstSeed + episode, policy, maxTicks);
+            total += result.getLevel() * LEVEL_FITNESS + result.getScore() + result.getTicks() * TICK_FITNESS;
+        }
+
+        return total / episodes;
+    }
+
+
+    /**
+     * Orders genomes from best to worst by fitness
+     */
+    private void rank(){
+
+        for(int genome = 0; genome < ranks.length; genome++) {
+
+            int rank = genome;
+
+            // Insertion sort, as populations are small and sorting primitives needs no boxing
+            for( ; rank > 0 && fitness[ranks[rank - 1]] < fitness[genome]; rank--)
+                ranks[rank] = ranks[rank - 1];
+
+            ranks[rank] = genome;
+        }
+    }
+
+
+    /**
+     * Makes the next generation: the best genomes kept as they are, then mutated copies of winners of tournaments.
+     * Sessions played move on, so that genomes are not fitted to a few seeds.
+     */
+    private void breed(){
+
+        int size = NeuralPolicy.getWeightCount();
+        int elites = Integer.max(1, ranks.length / ELITE_SHARE);
+
+        for(int child = 0; child < ranks.length; child++) {
+
+            int parent = child < elites ? ranks[child] : select();
+            System.arraycopy(genomes, parent * size, children, child * size, size);
+
+            if(child >= elites)
+                for(int weight = child * size; weight < (child + 1) * size; weight++)
+                    children[weight] += random.nextGaussian() * MUTATION_SPREAD;
+        }
+
+        System.arraycopy(children, 0, genomes, 0, genomes.length);
+        firstSeed += episodes;
+    }
+
+
+    /**
+     * @return fittest of a few genomes chosen at random
+     */
+    private int select(){
+
+        int best = random.nextInt(ranks.length);
+
+        for(int round = 1; round < TOURNAMENT_SIZE; round++) {
+
+            int other = random.nextInt(ranks.length);
+
+            if(fitness[other] > fitness[best])
+                best = other;
+        }
+
+        return best;
+    }
+
+
+    /**
+     * @return mean fitness of the generation
+     */
+    private double getMeanFitness(){
+
+        double total = 0;
+
+        for(double value : fitness)
+            total += value;
+
+        return total / fitness.length;
+    }
+
+
+    /**
+     * Makes a first generation of random genomes
+     * @param population number of genomes in each generation
+     * @param episodes sessions played by each genome in each generation
+     * @param maxTicks limit on ticks of each session
+     * @param seed of random weights and mutations, and of the first session played
+     */
+    EvolutionTrainer(int population, int episodes, int maxTicks, long seed){
+
+        int size = NeuralPolicy.getWeightCount();
+        genomes = new double[population * size];
+        children = new double[population * size];
+        fitness = new double[population];
+        ranks = new int[population];
+        policies = new NeuralPolicy[population];
+        this.episodes = episodes;
+        this.maxTicks = maxTicks;
+        random = new Random(seed);
+        firstSeed = seed;
+
+        for(int weight = 0; weight < genomes.length; weight++)
+            genomes[weight] = random.nextGaussian() * INITIAL_SPREAD;
+
+        for(int genome = 0; genome < population; genome++)
+            policies[genome] = new NeuralPolicy(genomes, genome * size);
+    }
+}
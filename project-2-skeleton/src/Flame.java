@@ -1,63 +1,62 @@
-import bagel.DrawOptions;
-import bagel.Image;
-import bagel.Window;
-import bagel.util.Point;
-import bagel.util.Rectangle;
+
+import java.nio.ByteBuffer;
 
 /**
  * Set of Flames in Flappy Birds Game. Flame is a Game Element.
- * Flame can move and thus collide with other movable objects.
+ * Flame is moved with its PipeSet by the EntityStore of pipes and can collide with movable objects.
  */
-public class Flame extends GameElement implements Movable{
+public class Flame extends GameElement implements Collidable{
 
-    // Frames that Flame stays on changed due to FPS Reasons
+    // Ticks of SimClock that Flame stays on and off for
     private final static int STAY_FRAMES = 30;
     private final static int SPAWN_RATE = 20;
-    private final static int GAP_HEIGHT = 168;
-    private final static DrawOptions FLIP = new DrawOptions().setRotation(Math.PI);
-    private final static Image FLAME = new Image("project-2-skeleton/res/level-1/flame.png");
+    private final static double FLIP = Math.PI;
+    private final static Sprite FLAME = new Sprite("level-1/flame", Layer.FLAMES, true);
 
-    private static int xVelocity = PipeSet.getXVelocity();
+    // Bytes taken in a saved game by where flames are drawn and when they were spawned
+    final static int BYTES = 2 * Double.BYTES + Long.BYTES;
 
-    private final double TOP_Y;
-    private final double BOTTOM_Y;
+    // Only change when Flame is spawned again from the pool
+    private double topY;
+    private double bottomY;
 
-    private int frames;
-    private Rectangle topBox;
-    private Rectangle bottomBox;
+    // Moves of the pipe store when spawned, so that frames since then can be counted without moving each flame
+    private long spawnMove;
+    private Box topBox;
+    private Box bottomBox;
+    private World world;
 
 
     /**
      * Renders Set of Flames
      */
     @Override
-    public void render() {
+    public void render(Renderer renderer, double alpha) {
 
         //  Flame is rendered Every SPAWN_RATE frames for STAY_FRAMES
-        if(frames % (SPAWN_RATE + STAY_FRAMES) < STAY_FRAMES){
-            elementImage.draw(x, TOP_Y);
-            elementImage.draw(x, BOTTOM_Y, FLIP);
+        if(flameCollide()){
+            renderer.draw(elementImage, renderX(alpha), topY);
+            renderer.draw(elementImage, renderX(alpha), bottomY, FLIP);
         }
-
-        this.move();
-        frames++;
     }
 
 
     /**
-     * Moves flames to the left
+     * @return x-coordinate to draw at, read from the store
      */
     @Override
-    public void move() {
-        x -= xVelocity;
-    }
+    protected double renderX(double alpha){ return topBox.renderX(alpha); }
 
 
     /**
-     * Sets xVelocity to xVelocity of PipeSet class
+     * Places Flame at x along with its PipeSet
      */
-    public static void setXVelocity(){
-        xVelocity = PipeSet.getXVelocity();
+    void placeAt(double x){
+
+        topBox.set(x, topY, elementImage.getMask());
+        bottomBox.set(x, bottomY, elementImage.getMask().getFlipped());
+        topBox.savePosition();
+        bottomBox.savePosition();
     }
 
 
@@ -65,34 +64,104 @@ public class Flame extends GameElement implements Movable{
      * Checks for collision with bird or shot weapon only if flame is being rendered
      * @return true for collision
      */
-    public boolean flameCollide() { return frames % (SPAWN_RATE + STAY_FRAMES) < STAY_FRAMES; }
+    public boolean flameCollide() {
+
+        long frames = world.getPipeStore().getMoves() - spawnMove;
+        return frames % (SPAWN_RATE + STAY_FRAMES) < STAY_FRAMES;
+    }
 
 
     /**
-     * Returns box array
+     * @return number of boxes of flames
      */
     @Override
-    public Rectangle[] getBox() {
+    public int getNumBoxes() { return 2; }
+
 
-        topBox = elementImage.getBoundingBoxAt(new Point(x, TOP_Y));
-        bottomBox = elementImage.getBoundingBoxAt(new Point(x, BOTTOM_Y));
-        return new Rectangle[]{topBox, bottomBox};
+    /**
+     * Returns box of top flame for index 0 and bottom flame otherwise
+     */
+    @Override
+    public Box getBox(int index) { return index == 0 ? topBox : bottomBox; }
+
+
+    /**
+     * Spawns a set of Flames for a set of Pipes, reusing a removed one if possible
+     * @param world the Flame belongs to, for its pool and speed
+     * @param pipe for co-ordinates
+     * @return new Flame
+     */
+    public static Flame spawn(World world, PipeSet pipe){
+
+        Flame flame = world.getFlamePool().acquire();
+        flame.reset(world, pipe);
+        return flame;
     }
 
 
     /**
-     * Constructor that initiates set of Flames based on set of Pipes
+     * Gives Flame back to the pool once its PipeSet is removed
+     */
+    public void release(){ world.getFlamePool().release(this); }
+
+
+    /**
+     * Initiates set of Flames based on set of Pipes
      * @param pipe for co-ordinates
      */
-    Flame(PipeSet pipe){
+    private void reset(World world, PipeSet pipe){
 
+        // Boxes of flames belong to the PipeSet, next to its own in the store
+        this.world = world;
+        topBox = pipe.getBox(PipeSet.getNumPipeBox());
+        bottomBox = pipe.getBox(PipeSet.getNumPipeBox() + 1);
         elementImage = FLAME;
-        frames = 0;
-        x = Window.getWidth();
-        y = pipe.getY();
+        spawnMove = world.getPipeStore().getMoves();
 
         // topY and bottomY are co-ordinates of the centre of respective pipes
-        TOP_Y = y + elementImage.getHeight()/2.0;
-        BOTTOM_Y = TOP_Y + GAP_HEIGHT - elementImage.getHeight();
+        topY = pipe.getY() + elementImage.getHeight()/2.0;
+        bottomY = topY + pipe.getGapHeight() - elementImage.getHeight();
+        placeAt(ShadowFlap.WINDOW_WIDTH);
+        topBox.setXVelocity(world.getPipeXVelocity());
+        bottomBox.setXVelocity(world.getPipeXVelocity());
     }
+
+
+    /**
+     * Reads a set of Flames written by write for a restored PipeSet, reusing a removed one if possible.
+     * Boxes of flames belong to the PipeSet, which reads them.
+     * @param world the Flame belongs to
+     * @param pipe the Flame belongs to
+     * @return restored Flame
+     */
+    static Flame read(World world, PipeSet pipe, ByteBuffer buffer){
+
+        Flame flame = world.getFlamePool().acquire();
+        flame.world = world;
+        flame.topBox = pipe.getBox(PipeSet.getNumPipeBox());
+        flame.bottomBox = pipe.getBox(PipeSet.getNumPipeBox() + 1);
+        flame.elementImage = FLAME;
+        flame.topY = buffer.getDouble();
+        flame.bottomY = buffer.getDouble();
+        flame.spawnMove = buffer.getLong();
+        return flame;
+    }
+
+
+    /**
+     * Writes Flame into a saved game, taking BYTES bytes
+     */
+    void write(ByteBuffer buffer){ buffer.putDouble(topY).putDouble(bottomY).putLong(spawnMove); }
+
+
+    /**
+     * @return mask of top flame, which is turned half a turn for the bottom flame
+     */
+    static CollisionMask getMask(){ return FLAME.getMask(); }
+
+
+    /**
+     * Flames are only made by the pool of a World
+     */
+    Flame(){}
 }
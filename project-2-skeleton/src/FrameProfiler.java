@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Times each Phase of every tick and frame into its own LatencyHistogram.
+ * Timed code calls start and then stop. While disabled, start returns 0 without reading the clock and
+ * stop ignores it, so a disabled profiler costs one field read per phase.
+ * Each thread times its phases with its own profiler, and only that thread reads its histograms.
+ * Enabling is the one thing set from another thread. The window draws figures of the simulation thread
+ * from a ProfilerFigures copy handed over in each WorldSnapshot.
+ */
+public class FrameProfiler {
+
+    private final static Phase[] PHASES = Phase.values();
+    private final static double NANOS_PER_MICRO = 1e3;
+
+    private final EnumMap<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+    private final ProfilerFigures figures = new ProfilerFigures();
+    private volatile boolean isEnabled;
+
+
+    /**
+     * @return time the phase starts, or 0 if disabled
+     */
+    public long start(){ return isEnabled ? System.nanoTime() : 0; }
+
+
+    /**
+     * Records time since start into histogram of phase
+     * @param start as returned by start
+     */
+    public void stop(Phase phase, long start){
+
+        if(start != 0)
+            histograms.get(phase).record(System.nanoTime() - start);
+    }
+
+
+    /**
+     * Records a duration measured elsewhere into histogram of phase, if enabled
+     * @param nanos duration in nanoseconds
+     */
+    public void record(Phase phase, long nanos){
+
+        if(isEnabled)
+            histograms.get(phase).record(nanos);
+    }
+
+
+    /**
+     * Turns timing on or off. Histograms keep what was recorded while on.
+     */
+    public void toggle(){ isEnabled = !isEnabled; }
+
+
+    /**
+     * @param isEnabled true to time phases
+     */
+    public void setIsEnabled(boolean isEnabled){ this.isEnabled = isEnabled; }
+
+
+    /**
+     * @return true if phases are being timed
+     */
+    public boolean getIsEnabled(){ return isEnabled; }
+
+
+    /**
+     * @return histogram of durations of phase
+     */
+    public LatencyHistogram getHistogram(Phase phase){ return histograms.get(phase); }
+
+
+    /**
+     * Draws one line per phase timed so far with its p50, p99 and max in microseconds. Only drawn while enabled.
+     * Only called by the thread timing, as it reads the histograms.
+     * @param renderer to draw with, normally one with a small font
+     * @param x of left of lines
+     * @param y of first line
+     * @return y of the line after the last one drawn
+     */
+    public double render(Renderer renderer, double x, double y){
+
+        figures.capture(this);
+        return figures.render(renderer, x, y);
+    }
+
+
+    /**
+     * Writes one line per phase timed so far with its count, p50, p99 and max in microseconds
+     * @param path of text file
+     */
+    public void save(Path path) throws IOException { Files.write(path, getLines()); }
+
+
+    /**
+     * @return lines written by save, starting with a header
+     */
+    public List<String> getLines(){
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-14s %10s %7s %7s %7s", "phase (us)", "count", "p50", "p99", "max"));
+
+        for(Phase phase : PHASES)
+            if(histograms.get(phase).getTotal() > 0)
+                lines.add(String.format("%-14s %10d %s", phase, histograms.get(phase).getTotal(), formatTimes(phase)));
+
+        return lines;
+    }
+
+
+    /**
+     * @return p50, p99 and max of phase in microseconds
+     */
+    private String formatTimes(Phase phase){
+
+        LatencyHistogram histogram = histograms.get(phase);
+        return String.format("%7.1f %7.1f %7.1f", histogram.getPercentile(0.5) / NANOS_PER_MICRO,
+                histogram.getPercentile(0.99) / NANOS_PER_MICRO, histogram.getMax() / NANOS_PER_MICRO);
+    }
+
+
+    /**
+     * Makes a disabled profiler with an empty histogram for every phase
+     */
+    FrameProfiler(){
+
+        for(Phase phase : PHASES)
+            histograms.put(phase, new LatencyHistogram());
+    }
+}
@@ -1,15 +1,37 @@
-import bagel.Image;
-
 /**
  * Parent class for all Game Elements that have co-ordinates, an image and need to be rendered.
+ * Position before the last tick is kept so that drawing can be smoothed between ticks.
  */
 public abstract class GameElement{
 
     protected double x;
     protected double y;
-    protected Image elementImage;
+    protected double prevX;
+    protected double prevY;
+    protected Sprite elementImage;
+
+    /**
+     * @param alpha fraction of a tick passed since the last tick
+     */
+    public void render(Renderer renderer, double alpha){
+        renderer.draw(elementImage, renderX(alpha), renderY(alpha));
+    }
 
-    public void render(){
-        elementImage.draw(x, y);
+    /**
+     * Remembers position before it changes in a tick
+     */
+    protected void savePosition(){
+        prevX = x;
+        prevY = y;
     }
+
+    /**
+     * @return x-coordinate to draw at, between position before and after the last tick
+     */
+    protected double renderX(double alpha){ return prevX + (x - prevX) * alpha; }
+
+    /**
+     * @return y-coordinate to draw at, between position before and after the last tick
+     */
+    protected double renderY(double alpha){ return prevY + (y - prevY) * alpha; }
 }
@@ -0,0 +1,22 @@
+import bagel.Keys;
+
+/**
+ * Keys read by game logic every tick. Either comes from the Bagel window or is made up by a program.
+ */
+public interface GameInput {
+
+    /**
+     * @return true if key is held down
+     */
+    boolean isDown(Keys key);
+
+    /**
+     * @return true if key was pressed since the last tick
+     */
+    boolean wasPressed(Keys key);
+
+    /**
+     * Forgets presses once a tick has read them
+     */
+    void endTick();
+}
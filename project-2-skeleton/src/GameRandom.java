@@ -0,0 +1,49 @@
+import java.util.Random;
+
+/**
+ * Random source of a game, giving exactly the numbers java.util.Random gives for the same seed
+ * but keeping its state where it can be read and set, so that a game can be saved and restored mid-way.
+ * Only the generator behind nextInt, nextBoolean and nextDouble is kept; nextGaussian is not used by game logic.
+ */
+public class GameRandom extends Random {
+
+    private final static long serialVersionUID = 1L;
+
+    // Constants of the linear congruential generator of java.util.Random
+    private final static long MULTIPLIER = 0x5DEECE66DL;
+    private final static long ADDEND = 0xBL;
+    private final static long MASK = (1L << 48) - 1;
+
+    // Set by setSeed, which Random calls while it is being made, so it must not be given a starting value here
+    private long state;
+
+
+    @Override
+    protected int next(int bits){
+
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+
+    @Override
+    public void setSeed(long seed){ state = (seed ^ MULTIPLIER) & MASK; }
+
+
+    /**
+     * @return state of the generator, which gives the same numbers from here on when set again
+     */
+    public long getState(){ return state; }
+
+
+    /**
+     * @param state of the generator from getState
+     */
+    public void setState(long state){ this.state = state & MASK; }
+
+
+    /**
+     * @param seed same as for java.util.Random
+     */
+    GameRandom(long seed){ super(seed); }
+}
@@ -0,0 +1,8 @@
+/**
+ * What the bird can lose a life to
+ */
+public enum Hazard {
+    PIPE,
+    FLAME,
+    OUT_OF_BOUNDS
+}
@@ -0,0 +1,129 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs Flappy Bird Game without a window or graphics card, as fast as the CPU allows.
+ * Every tick is one fixed step of SimClock, so the game plays exactly as it would in a window.
+ * The Autopilot flaps whenever the bird falls below the middle of the next gap so that the game keeps going.
+ * Memory allocated by game logic per tick is measured once the JIT has warmed up.
+ * Frames are recorded into a RenderQueue and submitted to a renderer that draws nothing, so draw counts can be checked.
+ * A session can be recorded to an input log, or a recorded session played back instead of the autopilot.
+ * The final position of the bird is printed in full so that replays can be checked to match exactly.
+ *
+ * With --profile, phases of every tick and frame are timed and their histograms saved to file at the end.
+ * With --endless, endless mode is played instead of the levels. Replays play the mode they were recorded in.
+ *
+ * Usage: HeadlessShadowFlap [ticks] [--seed seed] [--endless] [--record file] [--replay file] [--profile file]
+ */
+public class HeadlessShadowFlap {
+
+    private final static int DEFAULT_TICKS = 100000;
+    private final static int WARMUP_TICKS = 1000;
+
+    /**
+     * The entry point for headless simulation.
+     */
+    public static void main(String[] args) throws IOException {
+
+        int ticks = DEFAULT_TICKS;
+        long seed = System.nanoTime();
+        Path record = null;
+        Path replay = null;
+        Path profile = null;
+        boolean isEndless = false;
+
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--seed"))
+                seed = Long.parseLong(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--endless"))
+                isEndless = true;
+            else if(args[arg].equals("--record"))
+                record = Paths.get(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--replay"))
+                replay = Paths.get(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--profile"))
+                profile = Paths.get(Arguments.getValue(args, ++arg));
+            else
+                ticks = Integer.parseInt(args[arg]);
+        }
+
+        Policy policy;
+
+        if(replay != null) {
+            InputLog log = InputLog.load(replay);
+            seed = log.getSeed();
+            isEndless = log.getIsEndless();
+            ticks = log.size();
+            policy = new ReplayPolicy(log);
+        }
+        else
+            policy = new Autopilot();
+
+        RecordingInput recording = null;
+
+        Session session = new Session(seed, isEndless);
+        session.getWorld().getProfiler().setIsEnabled(profile != null);
+        RenderQueue renderer = new RenderQueue(new NullRenderer());
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long start = System.nanoTime();
+        long allocated = 0;
+        long frameAllocated = 0;
+        int tick = 0;
+
+        for( ; tick < ticks && !session.getIsOver(); tick++){
+
+            GameInput input = policy.next(session.getLevel(), tick);
+
+            // Policies hand out the same input every tick, so it is wrapped once
+            if(record != null) {
+                if(recording == null)
+                    recording = new RecordingInput(input, new InputLog(seed, isEndless));
+
+                input = recording;
+            }
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            session.update(input);
+
+            if(tick >= WARMUP_TICKS)
+                allocated += threads.getThreadAllocatedBytes(threadId) - before;
+
+            before = threads.getThreadAllocatedBytes(threadId);
+            session.render(renderer, 1);
+            renderer.submit();
+
+            if(tick >= WARMUP_TICKS)
+                frameAllocated += threads.getThreadAllocatedBytes(threadId) - before;
+
+            input.endTick();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ticks in %.3f s (%.0f ticks/s), seed %d, score %d, bird y %s%n",
+                tick, seconds, tick / seconds, seed, session.getLevel().getScore(), session.getLevel().getBird().getY());
+
+        if(tick > WARMUP_TICKS)
+            System.out.printf("%.2f bytes allocated per tick and %.2f per frame after warm-up%n",
+                    allocated / (double) (tick - WARMUP_TICKS), frameAllocated / (double) (tick - WARMUP_TICKS));
+
+        if(renderer.getSubmits() > 0)
+            System.out.printf("Per frame: %.2f sprites drawn in %.2f batches, %.2f culled%n",
+                    renderer.getRecorded() / (double) renderer.getSubmits(), renderer.getBatches() / (double) renderer.getSubmits(),
+                    renderer.getCulled() / (double) renderer.getSubmits());
+
+        System.out.println("PipeSet pool: " + session.getWorld().getPipePool());
+        System.out.println("Flame pool: " + session.getWorld().getFlamePool());
+        System.out.println("Weapon pool: " + session.getWorld().getWeaponPool());
+
+        if(recording != null)
+            recording.getLog().save(record);
+
+        if(profile != null)
+            session.getWorld().getProfiler().save(profile);
+    }
+}
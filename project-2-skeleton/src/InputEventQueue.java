@@ -0,0 +1,110 @@
+import bagel.Keys;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free queue of key presses and releases, each with the time it was seen, from one producer to one consumer.
+ * The window thread offers events as it polls keys and game logic takes them at the start of a tick,
+ * whether or not both run on the same thread. Events are kept in parallel arrays of a fixed size,
+ * so neither side allocates or waits. Events offered while the queue is full are dropped and counted.
+ */
+public class InputEventQueue {
+
+    private final static Keys[] KEYS = Keys.values();
+    private final static int PRESS_BIT = 1 << 31;
+
+    // Slot of each event holds its key ordinal and whether it is a press, and its time in nanoseconds
+    private final int[] events;
+    private final long[] times;
+    private final int mask;
+
+    // Count of events ever taken and ever offered. Each is only written by one side and read by the other.
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only touched by the producer
+    private long dropped;
+
+
+    /**
+     * Adds an event. Only called by the producer.
+     * @param isPress true for a press, false for a release
+     * @param time the event was seen, from System.nanoTime()
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean offer(Keys key, boolean isPress, long time){
+
+        long current = tail.get();
+
+        if(current - head.get() == events.length) {
+            dropped++;
+            return false;
+        }
+
+        int slot = (int) current & mask;
+        events[slot] = key.ordinal() | (isPress ? PRESS_BIT : 0);
+        times[slot] = time;
+
+        // Publishes the slot to the consumer after it is written
+        tail.lazySet(current + 1);
+        return true;
+    }
+
+
+    /**
+     * Takes every event offered so far, oldest first. Only called by the consumer.
+     * @param consumer given each event
+     * @return number of events taken
+     */
+    public int drain(Consumer consumer){
+
+        long current = head.get();
+        long end = tail.get();
+
+        for(long event = current; event < end; event++) {
+
+            int slot = (int) event & mask;
+            consumer.accept(KEYS[events[slot] & ~PRESS_BIT], (events[slot] & PRESS_BIT) != 0, times[slot]);
+        }
+
+        // Frees the slots for the producer once they have been read
+        head.lazySet(end);
+        return (int) (end - current);
+    }
+
+
+    /**
+     * @return number of events waiting to be taken
+     */
+    public int size(){ return (int) (tail.get() - head.get()); }
+
+
+    /**
+     * @return number of events dropped because the queue was full. Only read by the producer.
+     */
+    public long getDropped(){ return dropped; }
+
+
+    /**
+     * Receives events taken from the queue
+     */
+    public interface Consumer {
+
+        /**
+         * @param isPress true for a press, false for a release
+         * @param time the event was seen, from System.nanoTime()
+         */
+        void accept(Keys key, boolean isPress, long time);
+    }
+
+
+    /**
+     * @param capacity most events held at once, rounded up to a power of 2
+     */
+    InputEventQueue(int capacity){
+
+        events = new int[Integer.highestOneBit(Integer.max(1, capacity - 1)) << 1];
+        times = new long[events.length];
+        mask = events.length - 1;
+    }
+}
@@ -0,0 +1,155 @@
+import bagel.Keys;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Keys read by game logic in every tick of a session, along with the seed of the session and whether it was endless.
+ * Together they are enough to play the session again exactly as it happened.
+ * Each tick is one byte: whether each key was down, and whether it was pressed in that tick.
+ */
+public class InputLog {
+
+    // Keys read by game logic. Bits 0-3 are isDown and bits 4-7 are wasPressed of these keys.
+    private final static Keys[] KEYS = new Keys[]{Keys.SPACE, Keys.S, Keys.K, Keys.L};
+    private final static int PRESSED_SHIFT = 4;
+    private final static int MAGIC = 0x53464c47;
+    private final static int VERSION = 1;
+    private final static int INITIAL_TICKS = 1 << 12;
+
+    private final long seed;
+    private final boolean isEndless;
+    private byte[] ticks;
+    private int size;
+
+
+    /**
+     * Adds state of keys in the current tick to the end of the log
+     */
+    public void record(GameInput input){
+
+        int state = 0;
+
+        for(int key = 0; key < KEYS.length; key++) {
+
+            if(input.isDown(KEYS[key]))
+                state |= 1 << key;
+
+            if(input.wasPressed(KEYS[key]))
+                state |= 1 << (key + PRESSED_SHIFT);
+        }
+
+        if(size == ticks.length)
+            ticks = Arrays.copyOf(ticks, size * 2);
+
+        ticks[size++] = (byte) state;
+    }
+
+
+    /**
+     * @return true if key was down in tick
+     */
+    public boolean isDown(int tick, Keys key){ return (ticks[tick] & (1 << indexOf(key))) != 0; }
+
+
+    /**
+     * @return true if key was pressed in tick
+     */
+    public boolean wasPressed(int tick, Keys key){ return (ticks[tick] & (1 << (indexOf(key) + PRESSED_SHIFT))) != 0; }
+
+
+    /**
+     * @return number of ticks recorded
+     */
+    public int size(){ return size; }
+
+
+    /**
+     * Forgets ticks after the first few, such as those wound back by rewinding, so the log plays as the game went on
+     * @param size number of ticks kept
+     */
+    public void truncate(int size){ this.size = Integer.min(this.size, size); }
+
+
+    /**
+     * @return seed of recorded session
+     */
+    public long getSeed(){ return seed; }
+
+
+    /**
+     * @return true if recorded session was of endless mode
+     */
+    public boolean getIsEndless(){ return isEndless; }
+
+
+    /**
+     * Writes log to a file
+     */
+    public void save(Path path) throws IOException {
+
+        try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(seed);
+            out.writeBoolean(isEndless);
+            out.writeInt(size);
+            out.write(ticks, 0, size);
+        }
+    }
+
+
+    /**
+     * Reads log written by save
+     */
+    public static InputLog load(Path path) throws IOException {
+
+        try(DataInputStream in = new DataInputStream(Files.newInputStream(path))){
+
+            if(in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(path + " is not an input log");
+
+            long seed = in.readLong();
+            InputLog log = new InputLog(seed, in.readBoolean());
+            log.size = in.readInt();
+            log.ticks = new byte[Integer.max(log.size, 1)];
+            in.readFully(log.ticks, 0, log.size);
+            return log;
+        }
+    }
+
+
+    /**
+     * @return bit of key in each tick
+     */
+    private static int indexOf(Keys key){
+
+        for(int index = 0; index < KEYS.length; index++)
+            if(KEYS[index] == key)
+                return index;
+
+        throw new IllegalArgumentException(key + " is not read by game logic");
+    }
+
+
+    /**
+     * @param seed of session being recorded
+     */
+    InputLog(long seed){ this(seed, false); }
+
+
+    /**
+     * @param seed of session being recorded
+     * @param isEndless true if session is of endless mode
+     */
+    InputLog(long seed, boolean isEndless){
+
+        this.seed = seed;
+        this.isEndless = isEndless;
+        ticks = new byte[INITIAL_TICKS];
+    }
+}
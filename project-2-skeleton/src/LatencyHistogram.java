@@ -0,0 +1,105 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of durations in nanoseconds. Buckets are exact below 64 ns and above that split each
+ * power of 2 into 32, so percentiles are within about 3%. Recording never allocates.
+ */
+public class LatencyHistogram {
+
+    private final static int SUB_BITS = 5;
+    private final static int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // Durations above about a minute land in the last bucket
+    private final static int MAX_SHIFT = 31;
+    private final static int NUM_BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long total;
+    private long max;
+
+
+    /**
+     * Adds one duration
+     * @param nanos duration in nanoseconds
+     */
+    public void record(long nanos){
+
+        if(nanos < 0)
+            nanos = 0;
+
+        counts[bucketOf(nanos)]++;
+        total++;
+        max = Long.max(max, nanos);
+    }
+
+
+    /**
+     * @param fraction of durations, from 0 to 1
+     * @return smallest duration in nanoseconds that fraction of recorded durations are at or below
+     */
+    public long getPercentile(double fraction){
+
+        long rank = Long.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+
+        for(int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+
+            seen += counts[bucket];
+
+            if(seen >= rank)
+                return Long.min(max, upperBound(bucket));
+        }
+
+        return max;
+    }
+
+
+    /**
+     * @return longest duration recorded in nanoseconds
+     */
+    public long getMax(){ return max; }
+
+
+    /**
+     * @return number of durations recorded
+     */
+    public long getTotal(){ return total; }
+
+
+    /**
+     * Forgets all recorded durations
+     */
+    public void clear(){
+
+        Arrays.fill(counts, 0);
+        total = max = 0;
+    }
+
+
+    /**
+     * @return bucket holding duration
+     */
+    private static int bucketOf(long nanos){
+
+        if(nanos < 2 * SUB_BUCKETS)
+            return (int) nanos;
+
+        int shift = Integer.min(MAX_SHIFT, 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS);
+        long top = Long.min(2 * SUB_BUCKETS - 1, nanos >>> shift);
+        return shift * SUB_BUCKETS + (int) top;
+    }
+
+
+    /**
+     * @return largest duration in bucket
+     */
+    private static long upperBound(int bucket){
+
+        if(bucket < 2 * SUB_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
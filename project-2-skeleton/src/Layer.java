@@ -0,0 +1,13 @@
+/**
+ * Layers of the screen, drawn from back to front. Sprites of one layer are not expected to overlap,
+ * so a RenderQueue may draw them in any order to group draws of the same image.
+ */
+public enum Layer {
+    BACKGROUND,
+    FLAMES,
+    PIPES,
+    BIRD,
+    WEAPONS,
+    HUD,
+    TEXT
+}
@@ -1,21 +1,26 @@
-import bagel.*;
-import java.util.ArrayList;
+import bagel.Keys;
+
+import java.nio.ByteBuffer;
 
 /**
  * Abstract class used to make levels in Flappy Bird Game.
+ * Game logic is run by update and drawing is done by render, so a level can run without a window.
  */
 public class Level {
 
-    // Frames for levelling up changed for FPS Reasons
-    protected static final int FRAMES_LEVEL = 120;
     protected static final int FONT_SIZE = 48;
     protected static final int SCORE_X = 100, SCORE_Y = 100;
     protected static final int LOSS_GAP = 75;
-    protected static final Font FONT = new Font("project-2-skeleton/res/font/slkscr.ttf", FONT_SIZE);
+    protected static final String FONT_FILE = "project-2-skeleton/res/font/slkscr.ttf";
     protected static final String LEVEL_UP = "LEVEL-UP!";
+    protected static final String LOADING = "LOADING...";
     protected static final String START = "PRESS SPACE TO START";
     protected static final String SCORE = "SCORE: ";
     protected static final String GAME_OVER = "GAME OVER";
+    private static final Sprite BACKGROUND = new Sprite("level-0/background", Layer.BACKGROUND);
+
+    // Directories under res of sprites drawn in the Level, loaded together before it is shown
+    private static final String[] ASSET_GROUPS = new String[]{"level", "level-0"};
 
     protected boolean isGameOn;
     protected boolean isWin;
@@ -23,37 +28,41 @@ public class Level {
 
     protected int score;
     protected int frames;
-    protected int levelUpFrames;
     protected int max_score;
 
-    // 2 Queues of pipes for continuous spawning.
-    protected ArrayList<PipeSet> pipes;
-    protected ArrayList<PipeSet> scoredPipes;
-    protected Image background;
+    // Most pipes held at once, far more than fit on the Window at the highest timescale
+    protected static final int PIPE_CAPACITY = 32;
+
+    // Flags of a Level in a saved game
+    private static final int GAME_ON = 1, WIN = 2, LOSS = 4;
+
+    // Queue of pipes for continuous spawning, with pipes to the left of bird marked as scored.
+    protected PipeQueue pipes;
+    protected Sprite background;
     protected Timescale timescale;
     protected Bird bird;
+    protected World world;
+
+    // Widths of text measured once rather than every frame
+    protected final TextLayout text = new TextLayout();
 
 
     /**
      * Updates Level per frame
      * @param input for keys pressed
      */
-    public void update(Input input){
-
-        // Draws background
-        background.draw(Window.getWidth()/2.0, Window.getHeight()/2.0);
+    public void update(GameInput input){
 
-        // Defeat
+        // Nothing changes once Level is lost
         if(isLoss)
-            loss();
+            return;
 
         // Levels up if max score is reached
-        else if(Integer.compare(score, max_score) == 0)
+        if(Integer.compare(score, max_score) == 0)
             levelUp();
 
         // Game on Start Screen
         else if(!isGameOn) {
-            startScreen();
 
             // Game starts if user presses SPACE
             if (input.wasPressed(Keys.SPACE))
@@ -63,38 +72,117 @@ public class Level {
         // Game Started
         else {
 
-            // Timescale changes - L for increase, K for decrease
-            if(input.isDown(Keys.L) || input.isDown(Keys.K))
+            FrameProfiler profiler = world.getProfiler();
+            long start = profiler.start();
+
+            // Timescale changes once per press - L for increase, K for decrease
+            if(input.wasPressed(Keys.L) || input.wasPressed(Keys.K))
                 changeTimescale(input);
 
-            if(input.isDown(Keys.SPACE))
+            // Bird flies while SPACE is held, and for a tap released within one frame
+            if(input.isDown(Keys.SPACE) || input.wasPressed(Keys.SPACE))
                 bird.fly();
 
+            profiler.stop(Phase.INPUT, start);
+
             // Spawning spawnable Game Elements
+            start = profiler.start();
             spawn();
+            profiler.stop(Phase.SPAWN, start);
 
-            // All pipes to right of bird
-            for (PipeSet pipe : pipes)
-                pipe.render();
+            // All pipes and flames, scored or not, move at once
+            start = profiler.start();
+            world.getPipeStore().moveAll();
+            bird.move();
+            profiler.stop(Phase.MOVE, start);
 
-            // All pipes to left of bird but not outside Window
-            for (PipeSet pipe : scoredPipes)
-                pipe.render();
+            // Updates score, checks for collisions
+            start = profiler.start();
+            checkScoreIncrease();
+            profiler.stop(Phase.SCORE, start);
 
-            bird.render();
-
-            // Updates and displays score, checks for collisions
-            scoreUpdate();
+            start = profiler.start();
             collisionCheck();
+            profiler.stop(Phase.COLLISION, start);
         }
         frames++;
     }
 
 
+    /**
+     * Draws Level as it is after the last update
+     * @param renderer to draw with
+     * @param alpha fraction of a tick passed since the last update
+     */
+    public void render(Renderer renderer, double alpha){
+
+        FrameProfiler profiler = world.getProfiler();
+
+        // Draws background
+        long start = profiler.start();
+        renderer.draw(background, ShadowFlap.WINDOW_WIDTH/2.0, ShadowFlap.WINDOW_HEIGHT/2.0);
+        profiler.stop(Phase.BACKGROUND, start);
+
+        start = profiler.start();
+
+        if(isLoss)
+            loss(renderer);
+
+        else if(Integer.compare(score, max_score) == 0)
+            levelUpScreen(renderer);
+
+        else if(!isGameOn)
+            startScreen(renderer);
+
+        else {
+
+            for (int pipe = 0; pipe < pipes.size(); pipe++)
+                pipes.get(pipe).render(renderer, alpha);
+
+            profiler.stop(Phase.PIPES, start);
+
+            start = profiler.start();
+            bird.render(renderer, alpha);
+            profiler.stop(Phase.BIRD, start);
+
+            start = profiler.start();
+            scoreUpdate(renderer);
+        }
+
+        profiler.stop(Phase.TEXT, start);
+    }
+
+
+    /**
+     * @return text drawn by the window instead of the Level while its textures load, without any background
+     */
+    public String getLoadingText() { return LOADING; }
+
+
+    /**
+     * @return directories under res of all sprites drawn in the Level
+     */
+    public String[] getAssetGroups(){ return ASSET_GROUPS; }
+
+
     /**
      * Start Screen for Level
      */
-    void startScreen() { FONT.drawString(START, (Window.getWidth() - FONT.getWidth(START))/2.0, (Window.getHeight() + FONT_SIZE)/2.0); }
+    void startScreen(Renderer renderer) { drawCentred(renderer, START, 0); }
+
+
+    /**
+     * Draws text centred on the Window
+     * @param gap below centre of Window
+     */
+    void drawCentred(Renderer renderer, String line, int gap){ text.drawCentred(renderer, line, getCentredY(gap)); }
+
+
+    /**
+     * @return y-coordinate of baseline of text centred on the Window
+     * @param gap below centre of Window
+     */
+    double getCentredY(int gap){ return (ShadowFlap.WINDOW_HEIGHT + FONT_SIZE)/2.0 + gap; }
 
 
     /**
@@ -104,19 +192,39 @@ public class Level {
 
         // Checking for bird Out Of Bounds or colliding with any pipes: isLoss is if bird has any lives left
         bird.checkOOB();
-        isLoss = bird.collidePipes(pipes);
+
+        int steps = world.getCollisionSteps();
+
+        if(steps == 1)
+            isLoss = collidePipes();
+
+        // Pipes are checked along each slice of the moves in turn, as if the tick were taken in smaller steps
+        else {
+            world.beginSlices();
+
+            for(int step = 0; step < steps; step++) {
+                world.slice(step);
+                isLoss = collidePipes();
+            }
+
+            world.endSlices();
+        }
+
         isGameOn = !isLoss;
     }
 
 
     /**
-     * Updates and renders Score on Top left corner of Window
+     * Checks for collisions with pipes along the last moves of everything
+     * @return true if all lives are over
      */
-    void scoreUpdate(){
+    boolean collidePipes(){ return bird.collidePipes(pipes); }
 
-        checkScoreIncrease();
-        FONT.drawString(SCORE+score, SCORE_X, SCORE_Y);
-    }
+
+    /**
+     * Renders Score on Top left corner of Window
+     */
+    void scoreUpdate(Renderer renderer){ text.drawNumber(renderer, SCORE, score, SCORE_X, SCORE_Y); }
 
 
     /**
@@ -126,19 +234,58 @@ public class Level {
 
 
     /**
-     * Levelling up attributes to help switch to next level subclass
+     * @return isLoss is true if Level has been lost
      */
-    void levelUp(){
+    public boolean getIsLoss(){ return isLoss; }
 
-        // Level Up Screen displayed on Window as a sort of Loading Screen
-        background.draw(Window.getWidth()/2.0, Window.getHeight()/2.0);
-        FONT.drawString(LEVEL_UP, (Window.getWidth() - FONT.getWidth(LEVEL_UP))/2.0, (Window.getHeight() + FONT_SIZE)/2.0);
-        levelUpFrames++;
 
-        if(Integer.compare(levelUpFrames, FRAMES_LEVEL) == 0) {
-            levelUpChanges();
-        }
-    }
+    /**
+     * @return score of Level
+     */
+    public int getScore(){ return score; }
+
+
+    /**
+     * @return score needed to complete Level
+     */
+    public int getMaxScore(){ return max_score; }
+
+
+    /**
+     * @return bird of Level
+     */
+    public Bird getBird(){ return bird; }
+
+
+    /**
+     * @return first pipe to the right of bird, or null if there are none
+     */
+    public PipeSet getNextPipe(){ return pipes.getUnscoredCount() == 0 ? null : pipes.getUnscored(0); }
+
+
+    /**
+     * @return first weapon that can still be picked up and has not passed the bird, or null if there are none
+     */
+    public Weapon getNextWeapon(){ return null; }
+
+
+    /**
+     * @return true if game has started and is not over
+     */
+    public boolean getIsGameOn(){ return isGameOn; }
+
+
+    /**
+     * Levelling up attributes to help switch to next level subclass. The Level up screen is the loading screen
+     * of the next level, shown by the window for as long as its textures take to load.
+     */
+    void levelUp(){ levelUpChanges(); }
+
+
+    /**
+     * Level Up Screen, drawn for the tick between reaching max score and switching level
+     */
+    void levelUpScreen(Renderer renderer){ drawCentred(renderer, LEVEL_UP, 0); }
 
 
     /**
@@ -148,43 +295,48 @@ public class Level {
         isWin = true;
         isGameOn = false;
         bird.levelUp();
-        PipeSet.levelUp();
+        releasePipes();
+        world.levelUp();
     }
 
 
     /**
-     * Spawn spawnable GameElements of Level
+     * Gives all pipes of Level back to the pool
      */
-    void spawn(){
+    void releasePipes(){
+
+        for (int pipe = 0; pipe < pipes.size(); pipe++)
+            pipes.get(pipe).release();
 
-        if(frames % (PipeSet.getSpawnRate()) == 0)
-            pipes.add(new PipeSet());
+        pipes.clear();
     }
 
 
     /**
-     * Every pipe's status is checked for score
+     * Spawn spawnable GameElements of Level
      */
-    void checkScoreIncrease(){
+    void spawn(){
 
-        // Loops to fully access all pipes
-        for(int currentPipe = 0, removedPipes = 0; currentPipe < pipes.size() - removedPipes; currentPipe++)
+        if(frames % (world.getPipeSpawnRate()) == 0)
+            pipes.add(PipeSet.spawn(world));
+    }
 
-            // Pipes which move past the bird add score
-            if (pipes.get(currentPipe - removedPipes).getX() < bird.x){
-                scoreIncrease();
-                scoredPipes.add(pipes.get(currentPipe - removedPipes));
-                pipes.remove(pipes.get(currentPipe - removedPipes));
-            }
 
-        for(int currentPipe = 0, removedPipes = 0; currentPipe < scoredPipes.size() - removedPipes; currentPipe++) {
+    /**
+     * Pipe status is checked for score. All pipes move at the same speed so they stay in order of x,
+     * and only the pipes at the front of each part of the queue need checking.
+     */
+    void checkScoreIncrease(){
 
-            // Pipes which move past the left side of the screen get removed
-            if (scoredPipes.get(currentPipe - removedPipes).getX() < 0){
-                scoredPipes.remove(currentPipe - removedPipes);
-                removedPipes++;
-            }
+        // Pipes which move past the bird add score
+        while (pipes.getUnscoredCount() > 0 && pipes.getUnscored(0).getX() < bird.x){
+            scoreIncrease();
+            pipes.markScored();
         }
+
+        // Pipes which move past the left side of the screen get removed
+        while (pipes.getScoredCount() > 0 && pipes.getScored(0).getX() < 0)
+            pipes.retire().release();
     }
 
 
@@ -198,39 +350,80 @@ public class Level {
      * Changes timescale based on input
      * @param input for if L or K has been pressed
      */
-    void changeTimescale(Input input){
+    void changeTimescale(GameInput input){
 
-        timescale.changeTimescale(input.isDown(Keys.L));
-        PipeSet.setXVelocity(timescale);
+        timescale.changeTimescale(input.wasPressed(Keys.L));
+        world.setTimescale(timescale);
     }
 
 
     /**
      * Loss Screen
      */
-    void loss(){
-        FONT.drawString(GAME_OVER,(Window.getWidth() - FONT.getWidth(GAME_OVER))/2.0, (Window.getHeight() + FONT_SIZE)/2.0);
-        FONT.drawString(SCORE + score,(Window.getWidth() - FONT.getWidth(SCORE+score))/2.0, (Window.getHeight() + FONT_SIZE)/2.0 + LOSS_GAP);
+    void loss(Renderer renderer){
+        drawCentred(renderer, GAME_OVER, 0);
+        text.drawNumberCentred(renderer, SCORE, score, getCentredY(LOSS_GAP));
+    }
+
+    /**
+     * Writes Level into a saved game: whether it is on, won or lost, score, frames, timescale and every pipe in order
+     */
+    void write(ByteBuffer buffer){
+
+        buffer.put((byte) ((isGameOn ? GAME_ON : 0) | (isWin ? WIN : 0) | (isLoss ? LOSS : 0)));
+        buffer.putInt(score).putInt(frames);
+        timescale.write(buffer);
+        buffer.putInt(pipes.getScoredCount()).putInt(pipes.size());
+
+        for (int pipe = 0; pipe < pipes.size(); pipe++)
+            pipes.get(pipe).write(buffer);
     }
 
+
     /**
-     * Default constructor which initialises all attributes
+     * Reads Level written by write, giving the pipes it had back to the pool first
      */
-    Level(){
+    void read(ByteBuffer buffer){
+
+        int flags = buffer.get();
+        isGameOn = (flags & GAME_ON) != 0;
+        isWin = (flags & WIN) != 0;
+        isLoss = (flags & LOSS) != 0;
+        score = buffer.getInt();
+        frames = buffer.getInt();
+        timescale.read(buffer);
+
+        releasePipes();
+        int scored = buffer.getInt();
+        int size = buffer.getInt();
+
+        for (int pipe = 0; pipe < size; pipe++)
+            pipes.add(PipeSet.read(world, buffer));
+
+        for (int pipe = 0; pipe < scored; pipe++)
+            pipes.markScored();
+    }
+
+    /**
+     * Constructor which initialises all attributes
+     * @param world of the session, shared by all levels
+     */
+    Level(World world){
+
+        this.world = world;
 
         isGameOn = isWin = isLoss = false;
-        frames = levelUpFrames = score = 0;
-        background = new Image("project-2-skeleton/res/level-0/background.png");
+        frames = score = 0;
+        background = BACKGROUND;
 
         // Max Score changed to make it more playable
         max_score = 5;
 
-        bird = Bird.getInstance();
-        pipes = new ArrayList<>();
-        scoredPipes = new ArrayList<>();
+        bird = world.getBird();
+        pipes = new PipeQueue(PIPE_CAPACITY);
         timescale = new Timescale();
 
         // Resets Timescale for new levels
-        PipeSet.setXVelocity(timescale);
+        world.setTimescale(timescale);
     }
 }
@@ -1,10 +1,7 @@
-import bagel.Image;
-import bagel.Input;
 import bagel.Keys;
-import bagel.Window;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Random;
 
 /**
  * Level 1 of Flappy Bird Game
@@ -14,20 +11,26 @@ public class Level1 extends Level {
     protected final String START1 = "PRESS 'S' TO SHOOT";
     protected final String WIN = "CONGRATULATIONS!";
     protected final int START_GAP = 68;
-    protected static Random rand;
+    private final static Sprite BACKGROUND = new Sprite("level-1/background", Layer.BACKGROUND);
+    private final static String[] ASSET_GROUPS = new String[]{"level", "level-1"};
+
+    // Weapons held before the list has to grow, more than are ever alive at once
+    private final static int WEAPON_CAPACITY = 16;
 
     protected ArrayList<Weapon> weapons;
 
     /**
-     * Default Constructor which initialises attributes
+     * Constructor which initialises attributes
+     * @param world of the session, shared by all levels
      */
-    Level1(){
+    Level1(World world){
+
+        super(world);
 
         // Max Score changed to make it more playable
         max_score = 10;
-        background = new Image("project-2-skeleton/res/level-1/background.png");
-        weapons = new ArrayList<>();
-        rand = new Random();
+        background = BACKGROUND;
+        weapons = new ArrayList<>(WEAPON_CAPACITY);
     }
 
     /**
@@ -35,19 +38,46 @@ public class Level1 extends Level {
      * @param input for keys pressed
      */
     @Override
-    public void update(Input input) {
+    public void update(GameInput input) {
 
         super.update(input);
 
         if(isGameOn) {
 
-            // Shoot Weapon
-            if (input.isDown(Keys.S) && bird.getIsWeaponEquipped())
+            // Shoot Weapon once per press
+            if (input.wasPressed(Keys.S) && bird.getIsWeaponEquipped())
                 bird.shoot();
 
+            // Moving all Level 1 specific GameElements
+            long start = world.getProfiler().start();
+            world.getWeaponStore().moveAll();
+
+            for (int weapon = 0; weapon < weapons.size(); weapon++)
+                weapons.get(weapon).update();
+
+            world.getProfiler().stop(Phase.WEAPONS, start);
+        }
+    }
+
+    /**
+     * Draws Level 1 with its weapons
+     * @param renderer to draw with
+     * @param alpha fraction of a tick passed since the last update
+     */
+    @Override
+    public void render(Renderer renderer, double alpha) {
+
+        super.render(renderer, alpha);
+
+        if(isGameOn) {
+
             // Rendering all Level 1 specific GameElements
-            for (Weapon weapon : weapons)
-                weapon.render();
+            long start = world.getProfiler().start();
+
+            for (int weapon = 0; weapon < weapons.size(); weapon++)
+                weapons.get(weapon).render(renderer, alpha);
+
+            world.getProfiler().stop(Phase.WEAPON_SPRITES, start);
         }
     }
 
@@ -55,10 +85,10 @@ public class Level1 extends Level {
      * Start Screen of Level 1
      */
     @Override
-    void startScreen() {
+    void startScreen(Renderer renderer) {
 
-        super.startScreen();
-        FONT.drawString(START1, (Window.getWidth() - FONT.getWidth(START1))/2.0, (Window.getHeight() + FONT_SIZE)/2.0 + START_GAP);
+        super.startScreen(renderer);
+        drawCentred(renderer, START1, START_GAP);
     }
 
     /**
@@ -69,26 +99,88 @@ public class Level1 extends Level {
 
         super.collisionCheck();
 
+        // Weapons that collided with pipes, ran out of time or left the Window are removed
+        for(int currentWeapon = 0; currentWeapon < weapons.size(); currentWeapon++){
+
+            Weapon weapon = weapons.get(currentWeapon);
+
+            if(weapon.getIsDestroyed() || weapon.getIsOffScreen()) {
+
+                // A removed weapon the bird holds is dropped, as the pool hands it out again
+                if(weapon == bird.getEquippedWeapon())
+                    bird.drop();
+
+                weapons.remove(currentWeapon);
+                weapon.release();
+                break;
+            }
+        }
+
+        if(bird.getIsWeaponEquipped() && (bird.getEquippedWeapon().collidePipe(pipes) || bird.getEquippedWeapon().getIsDestroyed())) {
+
+            Weapon weapon = bird.getEquippedWeapon();
+            bird.drop();
+
+            if(weapons.remove(weapon))
+                weapon.release();
+        }
+
         // Checks for bird-weapon collisions if bird doesn't have a weapon equipped
         if(!bird.getIsWeaponEquipped())
             bird.collideWeapon(weapons);
+    }
+
+
+    /**
+     * Checking for collisions of the bird and of shot weapons with pipes in Level 1.
+     * The bird and weapons can reach the same pipe within one move, so collisions are taken in the order they happen,
+     * the bird first if it touches a pipe at the same time as a weapon. Each weapon that collides is destroyed.
+     * @return true if all lives are over
+     */
+    @Override
+    boolean collidePipes() {
 
-        // Checks for pipe-weapon collisions
-        for(Weapon weapon: weapons){
+        boolean isLivesOver = false;
+        boolean isBirdChecked = false;
+
+        while(true) {
+
+            Weapon weapon = findFirstWeapon();
+
+            if(!isBirdChecked && (weapon == null || bird.findPipeBox(pipes) < 0 || bird.getContact() >= weapon.getContact())) {
+                isLivesOver = super.collidePipes();
+                isBirdChecked = true;
+            }
 
             // If weapon destroys a pipe, score is increased
-            if(weapon.getIsShot() && weapon.collidePipe(pipes))
+            else if(weapon != null) {
+                if(weapon.collidePipe(pipes))
                     scoreIncrease();
-
-            // If weapon collides with pipes or runs out of time, it is removed
-            if(weapon.getIsDestroyed()) {
-                weapons.remove(weapon);
-                break;
             }
+
+            else
+                return isLivesOver;
+        }
+    }
+
+
+    /**
+     * @return shot weapon that touches a pipe soonest during the last move, or null if none does
+     */
+    private Weapon findFirstWeapon(){
+
+        Weapon first = null;
+
+        for(int currentWeapon = 0; currentWeapon < weapons.size(); currentWeapon++) {
+
+            Weapon weapon = weapons.get(currentWeapon);
+
+            if(weapon.getIsShot() && !weapon.getIsDestroyed() && weapon.findPipe(pipes) >= 0
+                    && (first == null || weapon.getContact() > first.getContact()))
+                first = weapon;
         }
 
-        if(bird.getIsWeaponEquipped() && (bird.getEquippedWeapon().collidePipe(pipes) || bird.getEquippedWeapon().getIsDestroyed()))
-            weapons.remove(bird.getEquippedWeapon());
+        return first;
     }
 
 
@@ -101,8 +193,8 @@ public class Level1 extends Level {
         super.spawn();
 
         // Weapons get spawned at halfway point between pipes for a specific timescale
-        if(rand.nextBoolean() && Integer.compare(frames % Weapon.getSpawnRate(), Weapon.getSpawnRate()/2) == 0)
-            weapons.add(new Weapon());
+        if(world.getRandom().nextBoolean() && Integer.compare(frames % world.getWeaponSpawnRate(), world.getWeaponSpawnRate()/2) == 0)
+            weapons.add(Weapon.spawn(world));
     }
 
 
@@ -111,13 +203,13 @@ public class Level1 extends Level {
      * @param input for if L or K has been pressed
      */
     @Override
-    void changeTimescale(Input input) {
+    void changeTimescale(GameInput input) {
 
         super.changeTimescale(input);
-        Weapon.setSpawnRate();
+        world.updateWeaponSpawnRate();
 
-        for(Weapon weapon: weapons)
-            weapon.setXVelocity();
+        for(int weapon = 0; weapon < weapons.size(); weapon++)
+            weapons.get(weapon).setXVelocity();
     }
 
     /**
@@ -128,12 +220,79 @@ public class Level1 extends Level {
 
 
     /**
-     * Levels up to next level - in this case displays win screen
+     * Level 1 is only reached by levelling up, so it loads behind the level up screen
      */
     @Override
-    void levelUp() {
+    public String getLoadingText() { return LEVEL_UP; }
+
+
+    /**
+     * @return directories under res of all sprites drawn in Level 1
+     */
+    @Override
+    public String[] getAssetGroups(){ return ASSET_GROUPS; }
+
 
-        FONT.drawString(WIN, (Window.getWidth() - FONT.getWidth(WIN))/2.0, (Window.getHeight() + FONT_SIZE)/2.0);
-        levelUpChanges();
+    /**
+     * @return first weapon that can still be picked up and has not passed the bird, or null if there are none
+     */
+    @Override
+    public Weapon getNextWeapon(){
+
+        // Weapons are spawned at the right of the Window and move left together, so they are in order of x
+        for(int weapon = 0; weapon < weapons.size(); weapon++) {
+
+            Weapon current = weapons.get(weapon);
+
+            if(!current.getIsShot() && current != bird.getEquippedWeapon() && current.getBox(0).right() >= bird.x)
+                return current;
+        }
+
+        return null;
     }
+
+
+    /**
+     * Writes Level 1 into a saved game, with its weapons in order and which of them the bird has equipped
+     */
+    @Override
+    void write(ByteBuffer buffer){
+
+        super.write(buffer);
+        buffer.putInt(weapons.size());
+
+        for (int weapon = 0; weapon < weapons.size(); weapon++)
+            weapons.get(weapon).write(buffer);
+
+        buffer.putInt(weapons.indexOf(bird.getEquippedWeapon()));
+    }
+
+
+    /**
+     * Reads Level 1 written by write, giving the weapons it had back to the pool first
+     */
+    @Override
+    void read(ByteBuffer buffer){
+
+        super.read(buffer);
+
+        for (int weapon = 0; weapon < weapons.size(); weapon++)
+            weapons.get(weapon).release();
+
+        weapons.clear();
+        int size = buffer.getInt();
+
+        for (int weapon = 0; weapon < size; weapon++)
+            weapons.add(Weapon.read(world, buffer));
+
+        int equipped = buffer.getInt();
+        bird.restoreWeapon(equipped < 0 ? null : weapons.get(equipped));
+    }
+
+
+    /**
+     * Displays win screen
+     */
+    @Override
+    void levelUpScreen(Renderer renderer) { drawCentred(renderer, WIN, 0); }
 }
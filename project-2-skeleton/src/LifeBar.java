@@ -1,11 +1,13 @@
-import bagel.Image;
+
+import java.nio.ByteBuffer;
 
 /**
  * Life Bar of Bird in Flappy Birds Game. Life Bar is a Game Element.
  */
 public class LifeBar extends GameElement{
 
-    private final static Image EMPTY_HEART = new Image("project-2-skeleton/res/level/noLife.png");
+    private final static Sprite FULL_HEART = new Sprite("level/fullLife", Layer.HUD);
+    private final static Sprite EMPTY_HEART = new Sprite("level/noLife", Layer.HUD);
     private final static int MAX_LEVEL0 = 3;
     private final static int GAP = 50;
     private final static int DEFAULT_X = 100;
@@ -20,15 +22,15 @@ public class LifeBar extends GameElement{
      * Rendering Life Bar every frame - Full and Empty hearts are rendered.
      */
     @Override
-    public void render(){
+    public void render(Renderer renderer, double alpha){
 
         int i=0;
 
         for( ; i < lives; i++)
-            elementImage.draw(x + (i * GAP), y);
+            renderer.draw(elementImage, x + (i * GAP), y);
 
         for( ; i < maxLives; i++)
-            EMPTY_HEART.draw(x + (i * GAP), y);
+            renderer.draw(EMPTY_HEART, x + (i * GAP), y);
     }
 
 
@@ -49,12 +51,35 @@ public class LifeBar extends GameElement{
     }
 
 
+    /**
+     * Gives back all lives lost
+     */
+    public void refill(){ lives = maxLives; }
+
+
+    /**
+     * Writes lives into a saved game
+     */
+    void write(ByteBuffer buffer){ buffer.putInt(lives).putInt(maxLives).putInt(level); }
+
+
+    /**
+     * Reads lives written by write
+     */
+    void read(ByteBuffer buffer){
+
+        lives = buffer.getInt();
+        maxLives = buffer.getInt();
+        level = buffer.getInt();
+    }
+
+
     /**
      * Default constructor initialises number of lives and default heart image
      */
     LifeBar(){
 
-        elementImage = new Image("project-2-skeleton/res/level/fullLife.png");
+        elementImage = FULL_HEART;
         x = DEFAULT_X + elementImage.getWidth()/2.0;
         y = DEFAULT_Y + elementImage.getHeight()/2.0;
         lives = maxLives = MAX_LEVEL0;
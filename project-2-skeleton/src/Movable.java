@@ -1,9 +1,11 @@
-import bagel.util.Rectangle;
-
 /**
- * Interface implemented by classes with objects movable on the screen which can thus collide
+ * Interface implemented by classes with objects that move themselves on the screen and can thus collide.
+ * Pipes and flames are only Collidable, as they are moved all at once by an EntityStore.
  */
-public interface Movable {
+public interface Movable extends Collidable {
+
+    /**
+     * Moves object by one tick and updates its boxes
+     */
     public void move();
-    Rectangle[] getBox();
 }
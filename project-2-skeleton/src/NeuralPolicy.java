@@ -0,0 +1,148 @@
+import bagel.Keys;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Policy that flies and shoots by a small neural network of fixed shape, reading what a VectorEnvironment observes.
+ * One hidden layer of tanh units feeds two outputs, which hold SPACE and S down while above 0.
+ * All weights, biases included, are one genome read from a flat array, which many policies can share
+ * at different offsets. Working values are kept in arrays made once, so choosing keys makes no objects.
+ * Start screens are skipped by pressing SPACE as the Autopilot does.
+ */
+public class NeuralPolicy implements Policy {
+
+    private final static int INPUTS = VectorEnvironment.OBSERVATION_SIZE;
+    private final static int HIDDEN = 8;
+    private final static int OUTPUTS = 2;
+    private final static int FLAP_OUTPUT = 0;
+    private final static int SHOOT_OUTPUT = 1;
+
+    // Each unit has a weight for every unit of the layer before it, then a bias
+    private final static int WEIGHT_COUNT = HIDDEN * (INPUTS + 1) + OUTPUTS * (HIDDEN + 1);
+
+    private final static int MAGIC = 0x53464e50;
+    private final static int VERSION = 1;
+
+    private final SyntheticInput input = new SyntheticInput();
+    private final double[] observation = new double[INPUTS];
+    private final double[] hidden = new double[HIDDEN];
+    private double[] weights;
+    private int offset;
+
+
+    @Override
+    public GameInput next(Level level, int tick){
+
+        input.releaseAll();
+
+        if(!level.getIsGameOn()) {
+
+            if(tick % 2 == 0)
+                input.press(Keys.SPACE);
+
+            return input;
+        }
+
+        VectorEnvironment.observe(level, observation, 0);
+        int weight = offset;
+
+        for(int unit = 0; unit < HIDDEN; unit++) {
+
+            double sum = 0;
+
+            for(int value = 0; value < INPUTS; value++)
+                sum += weights[weight++] * observation[value];
+
+            hidden[unit] = Math.tanh(sum + weights[weight++]);
+        }
+
+        if(getOutput(weight, FLAP_OUTPUT) > 0)
+            input.press(Keys.SPACE);
+
+        if(getOutput(weight, SHOOT_OUTPUT) > 0)
+            input.press(Keys.S);
+
+        return input;
+    }
+
+
+    /**
+     * @param first weight of output layer
+     * @return value of output before any squashing, which only matters by its sign
+     */
+    private double getOutput(int first, int output){
+
+        int weight = first + output * (HIDDEN + 1);
+        double sum = 0;
+
+        for(int unit = 0; unit < HIDDEN; unit++)
+            sum += weights[weight++] * hidden[unit];
+
+        return sum + weights[weight];
+    }
+
+
+    /**
+     * Points policy at another genome
+     * @param weights array holding genome
+     * @param offset of first weight of genome
+     */
+    public void setGenome(double[] weights, int offset){
+
+        this.weights = weights;
+        this.offset = offset;
+    }
+
+
+    /**
+     * @return number of weights in a genome
+     */
+    public static int getWeightCount(){ return WEIGHT_COUNT; }
+
+
+    /**
+     * Writes genome of policy to a file
+     */
+    public void save(Path path) throws IOException {
+
+        try(DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(WEIGHT_COUNT);
+
+            for(int weight = offset; weight < offset + WEIGHT_COUNT; weight++)
+                out.writeDouble(weights[weight]);
+        }
+    }
+
+
+    /**
+     * Reads genome written by save
+     */
+    public static NeuralPolicy load(Path path) throws IOException {
+
+        try(DataInputStream in = new DataInputStream(Files.newInputStream(path))){
+
+            if(in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != WEIGHT_COUNT)
+                throw new IOException(path + " is not a genome of this network");
+
+            double[] weights = new double[WEIGHT_COUNT];
+
+            for(int weight = 0; weight < WEIGHT_COUNT; weight++)
+                weights[weight] = in.readDouble();
+
+            return new NeuralPolicy(weights, 0);
+        }
+    }
+
+
+    /**
+     * @param weights array holding genome
+     * @param offset of first weight of genome
+     */
+    NeuralPolicy(double[] weights, int offset){ setGenome(weights, offset); }
+}
@@ -0,0 +1,17 @@
+/**
+ * Renderer that draws nothing. Used for headless simulation.
+ */
+public class NullRenderer implements Renderer {
+
+    @Override
+    public void draw(Sprite sprite, double x, double y){}
+
+    @Override
+    public void draw(Sprite sprite, double x, double y, double rotation){}
+
+    @Override
+    public void drawString(String text, double x, double y){}
+
+    @Override
+    public double getStringWidth(String text){ return 0; }
+}
@@ -0,0 +1,34 @@
+/**
+ * Parts of a tick of game logic and of a frame of drawing that FrameProfiler times separately
+ */
+public enum Phase {
+
+    // Game logic
+    TICK,
+    INPUT,
+    SPAWN,
+    MOVE,
+    WEAPONS,
+    SCORE,
+    COLLISION,
+
+    // Input, from a press of SPACE or S being seen to the end of the tick that flew or shot with it
+    INPUT_LATENCY,
+
+    // Drawing
+    FRAME,
+    BACKGROUND,
+    PIPES,
+    BIRD,
+    WEAPON_SPRITES,
+    TEXT,
+    SUBMIT,
+
+    // Rewinding: recording a tick into the RewindBuffer, and winding one back
+    REWIND_RECORD,
+    REWIND,
+
+    // Threads: recording and publishing a WorldSnapshot on the simulation thread, and a whole frame on the window thread
+    SNAPSHOT,
+    DRAW
+}
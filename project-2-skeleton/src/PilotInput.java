@@ -0,0 +1,50 @@
+import bagel.Keys;
+
+/**
+ * Input of a player with a Policy flying alongside, such as a trained NeuralPolicy.
+ * A key is down or pressed if it is for either of them, so the player can still steer, shoot or change timescale.
+ * The policy chooses its keys at the start of each tick, before game logic changes anything.
+ */
+public class PilotInput implements GameInput {
+
+    private final GameInput player;
+    private final Policy pilot;
+    private final Session session;
+    private GameInput chosen;
+    private int tick;
+
+
+    /**
+     * Lets the policy choose keys for the coming tick. Called at the start of every tick.
+     */
+    public void beginTick(){ chosen = pilot.next(session.getLevel(), tick++); }
+
+
+    @Override
+    public boolean isDown(Keys key){ return player.isDown(key) || chosen.isDown(key); }
+
+
+    @Override
+    public boolean wasPressed(Keys key){ return player.wasPressed(key) || chosen.wasPressed(key); }
+
+
+    @Override
+    public void endTick(){
+
+        player.endTick();
+        chosen.endTick();
+    }
+
+
+    /**
+     * @param player input of the player
+     * @param pilot policy that flies alongside
+     * @param session being played, whose level the policy looks at
+     */
+    PilotInput(GameInput player, Policy pilot, Session session){
+
+        this.player = player;
+        this.pilot = pilot;
+        this.session = session;
+    }
+}
@@ -0,0 +1,95 @@
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Endless stream of pipes, made one at a time as each is needed, for endless mode.
+ * Difficulty ramps with the number of pipes made, from that of level 1 to its hardest after RAMP_PIPES:
+ * gaps get shorter, pipes come closer together and faster, and more of them are steel.
+ * Each gap is a bounded step from the last rather than anywhere on the Window, so that every gap can be reached.
+ * Only the last gap and the count of pipes are kept, so a run of any length uses the same memory.
+ */
+public class PipeGenerator {
+
+    // Pipes made before difficulty stops ramping
+    private final static int RAMP_PIPES = 100;
+
+    // Difficulty at the start, then at the end of the ramp
+    private final static int START_GAP_HEIGHT = 200, END_GAP_HEIGHT = 130;
+    private final static int START_SPACING = 360, END_SPACING = 270;
+    private final static double START_STEEL_CHANCE = 0.1, END_STEEL_CHANCE = 0.6;
+    private final static double START_SPEED_UP = 1, END_SPEED_UP = 2;
+
+    private final static double WEAPON_CHANCE = 0.5;
+
+    // Gaps are kept this far from the top and bottom of the Window, and move at most MAX_STEP from the last
+    private final static int EDGE = 100;
+    private final static int MAX_STEP = 150;
+
+    private final Random random;
+    private final PipeSpawn spawn = new PipeSpawn();
+    private long count;
+    private int gapY;
+
+
+    /**
+     * Makes the description of the next pipe
+     * @return description, which is overwritten by the next call
+     */
+    public PipeSpawn next(){
+
+        double ramp = Math.min(1, count / (double) RAMP_PIPES);
+        int gapHeight = (int) lerp(START_GAP_HEIGHT, END_GAP_HEIGHT, ramp);
+
+        // Next gap is somewhere within a step of the last, kept inside the Window
+        int lowest = EDGE;
+        int highest = ShadowFlap.WINDOW_HEIGHT - EDGE - gapHeight;
+        gapY += random.nextInt(2 * MAX_STEP + 1) - MAX_STEP;
+        gapY = Integer.max(lowest, Integer.min(highest, gapY));
+
+        boolean isSteel = random.nextDouble() < lerp(START_STEEL_CHANCE, END_STEEL_CHANCE, ramp);
+        boolean hasWeapon = random.nextDouble() < WEAPON_CHANCE;
+        int spacing = (int) lerp(START_SPACING, END_SPACING, ramp);
+
+        spawn.set(gapY, gapHeight, isSteel, spacing, hasWeapon, lerp(START_SPEED_UP, END_SPEED_UP, ramp));
+        count++;
+        return spawn;
+    }
+
+
+    /**
+     * @return number of pipes made so far
+     */
+    public long getCount(){ return count; }
+
+
+    /**
+     * Writes where the generator is up to into a saved game. The random source is written with its World.
+     */
+    void write(ByteBuffer buffer){ buffer.putLong(count).putInt(gapY); }
+
+
+    /**
+     * Reads generator written by write
+     */
+    void read(ByteBuffer buffer){
+
+        count = buffer.getLong();
+        gapY = buffer.getInt();
+    }
+
+
+    /**
+     * @return value share of the way from start to end
+     */
+    private static double lerp(double start, double end, double share){ return start + (end - start) * share; }
+
+
+    /**
+     * @param random source of the World pipes are made for, so that the same seed makes the same pipes
+     */
+    PipeGenerator(Random random){
+
+        this.random = random;
+        gapY = (ShadowFlap.WINDOW_HEIGHT - START_GAP_HEIGHT) / 2;
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Queue of PipeSets in a Level, oldest on the left. Pipes are spawned on the right and retired from the left,
+ * so they are kept in a circular array of fixed capacity in order of x. Pipes the bird has passed are scored:
+ * instead of moving them to another list, a cursor marks how many pipes from the left have been scored.
+ * Being in order of x also makes the queue a sweep and prune broadphase for collisions along x.
+ */
+public class PipeQueue {
+
+    private final PipeSet[] pipes;
+    private final int mask;
+    private int head;
+    private int size;
+    private int scored;
+
+
+    /**
+     * Adds newly spawned pipe on the right
+     * @throws IllegalStateException if the queue is full, which means pipes are spawned faster than they are retired
+     */
+    public void add(PipeSet pipe){
+
+        if(size == pipes.length)
+            throw new IllegalStateException("Pipe queue is full at " + pipes.length + " pipes");
+
+        pipes[(head + size) & mask] = pipe;
+        size++;
+    }
+
+
+    /**
+     * @return pipe at index, counting all pipes from the left
+     */
+    public PipeSet get(int index){ return pipes[(head + index) & mask]; }
+
+
+    /**
+     * @return scored pipe at index, counting from the left
+     */
+    public PipeSet getScored(int index){ return get(index); }
+
+
+    /**
+     * @return unscored pipe at index, counting from the first pipe to the right of the bird
+     */
+    public PipeSet getUnscored(int index){ return get(scored + index); }
+
+
+    /**
+     * @return number of all pipes
+     */
+    public int size(){ return size; }
+
+
+    /**
+     * @return number of pipes the bird has passed
+     */
+    public int getScoredCount(){ return scored; }
+
+
+    /**
+     * @return number of pipes to the right of the bird
+     */
+    public int getUnscoredCount(){ return size - scored; }
+
+
+    /**
+     * Finds first pipe that can overlap a box starting at left, by binary search.
+     * All pipes have the same width, so their right edges are in the same order as x.
+     * @param left edge of box
+     * @return index of first unscored pipe whose right edge is past left, or the number of unscored pipes if none
+     */
+    public int findUnscored(double left){
+
+        int low = 0;
+        int high = getUnscoredCount();
+
+        while(low < high) {
+
+            int middle = (low + high) >>> 1;
+
+            if(getUnscored(middle).getRight() > left)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+
+        return low;
+    }
+
+
+    /**
+     * Marks first unscored pipe as scored
+     */
+    public void markScored(){ scored++; }
+
+
+    /**
+     * Removes leftmost pipe, which must be scored
+     * @return removed pipe
+     */
+    public PipeSet retire(){
+
+        PipeSet pipe = pipes[head];
+        pipes[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        scored--;
+        return pipe;
+    }
+
+
+    /**
+     * Removes an unscored pipe, such as one destroyed by a weapon or hit by the bird.
+     * Whichever side of it has fewer pipes is shifted over to close the gap. Scored pipes stay scored.
+     * @param index of pipe, counting from the first pipe to the right of the bird
+     * @return removed pipe
+     */
+    public PipeSet removeUnscored(int index){
+
+        int position = scored + index;
+        PipeSet pipe = get(position);
+
+        if(position < size - position - 1) {
+
+            for(int current = position; current > 0; current--)
+                pipes[(head + current) & mask] = get(current - 1);
+
+            pipes[head] = null;
+            head = (head + 1) & mask;
+        }
+
+        else {
+
+            for(int current = position; current < size - 1; current++)
+                pipes[(head + current) & mask] = get(current + 1);
+
+            pipes[(head + size - 1) & mask] = null;
+        }
+
+        size--;
+        return pipe;
+    }
+
+
+    /**
+     * Removes all pipes
+     */
+    public void clear(){
+
+        for(int index = 0; index < size; index++)
+            pipes[(head + index) & mask] = null;
+
+        head = size = scored = 0;
+    }
+
+
+    /**
+     * @param capacity most pipes held at once, rounded up to a power of 2
+     */
+    PipeQueue(int capacity){
+
+        pipes = new PipeSet[Integer.highestOneBit(Integer.max(1, capacity - 1)) << 1];
+        mask = pipes.length - 1;
+    }
+}
@@ -1,181 +1,355 @@
-import bagel.DrawOptions;
-import bagel.Image;
-import bagel.Window;
-import bagel.util.Rectangle;
-import bagel.util.Point;
-import java.util.Random;
+import java.nio.ByteBuffer;
 
 /**
  * Set of Pipes in Flappy Birds Game. PipeSet is a Game Element.
- * PipeSet can move and thus collide with other movable objects.
+ * PipeSets are moved all at once by the EntityStore of pipes and can collide with movable objects.
  */
-public class PipeSet extends GameElement implements Movable{
+public class PipeSet extends GameElement implements Collidable{
 
-    // Object to rotate pipe by 180 degrees i.e PI radians
-    private final static DrawOptions FLIP = new DrawOptions().setRotation(Math.PI);
+    // Rotation of pipe by 180 degrees i.e PI radians
+    private final static double FLIP = Math.PI;
 
-    // Constants applicable to all PipeSets - SpawnRate changed for FPS reasons
-    private final static int DEFAULT_SPAWN_RATE = 120;
-    private final static int VELOCITY = 3;
+    // Constants applicable to all PipeSets. Speed and spawn rate are kept by World.
     private final static int GAP_HEIGHT = 168;
     private final static int NUM_PIPE_BOX = 2;
+    private final static int NUM_FLAME_BOX = 2;
     private final static int[] GAPS_Y = new int[]{100, 300, 500};
-    private final static Image PLASTIC = new Image("project-2-skeleton/res/level/plasticPipe.png");
-    private final static Image STEEL = new Image("project-2-skeleton/res/level-1/steelPipe.png");
+    private final static Sprite PLASTIC = new Sprite("level/plasticPipe", Layer.PIPES, true);
+    private final static Sprite STEEL = new Sprite("level-1/steelPipe", Layer.PIPES, true);
+    private final static Sprite[] PIPE_IMAGES = new Sprite[]{PLASTIC, STEEL};
+
+    // Bytes taken in a saved game by kind of pipe, gap, all boxes and flames, which are left empty for plastic pipes
+    final static int BYTES = 1 + Double.BYTES + 3 * Integer.BYTES + (NUM_PIPE_BOX + NUM_FLAME_BOX) * Box.BYTES + Flame.BYTES;
+
+    // Bytes of flames and flame boxes, written empty for plastic pipes
+    private final static int FLAME_BYTES = NUM_FLAME_BOX * Box.BYTES + Flame.BYTES;
+
+    // Only change when PipeSet is spawned again from the pool
+    private int topY;
+    private int bottomY;
+    private int gapHeight;
+    private boolean isPlastic;
+
+    // Boundaries of pipes and then of flames, next to each other in the pipe store which moves them.
+    // Slots are only held while spawned. Plastic pipes have no flames, so their flame boxes are left dead.
+    private final EntityStore store;
+    private int firstSlot;
+    private final Box topBox;
+    private final Box bottomBox;
+    private final Box flameTopBox;
+    private final Box flameBottomBox;
 
-    // PipeSet attributes that may be changed during runtime
-    private static int spawnRate = DEFAULT_SPAWN_RATE;
-    private static int level = 0;
-    private static int xVelocity = VELOCITY;
+    private Flame flame;
+    private World world;
 
-    private final int TOP_Y;
-    private final int BOTTOM_Y;
-    private final boolean IS_PLASTIC;
 
-    // Boundaries of pipes
-    private Rectangle topBox;
-    private Rectangle bottomBox;
+    /**
+     * Renders Set of Pipes every frame if they are not destroyed
+     */
+    @Override
+    public void render(Renderer renderer, double alpha){
 
-    private Flame flame;
+        if(!isPlastic)
+            flame.render(renderer, alpha);
+
+        renderer.draw(elementImage, renderX(alpha), topY);
+        renderer.draw(elementImage, renderX(alpha), bottomY, FLIP);
+    }
 
 
     /**
-     * Renders Set of Pipes every frame if they are not destroyed
+     * @return x-coordinate to draw at, read from the store
      */
     @Override
-    public void render(){
+    protected double renderX(double alpha){ return topBox.renderX(alpha); }
 
-        this.move();
 
-        if(!IS_PLASTIC)
-            flame.render();
+    /**
+     * Changes to pipe on collision with a shot weapon
+     * @param isRock for if Weapon is a rock
+     * @return true if pipe is destroyed and false otherwise
+     */
+    public boolean collideWeapon(boolean isRock){ return isPlastic || !isRock; }
 
-        elementImage.draw(x, TOP_Y);
-        elementImage.draw(x, BOTTOM_Y, FLIP);
-    }
+
+    /**
+     * @return true if flame collides with bird or shot weapon
+     */
+    public boolean flameCollide(){ return flame.flameCollide(); }
 
 
     /**
-     * Moves pipes to the left
+     * @return Number of Boxes belonging to Pipe and not Flame
+     */
+    public static int getNumPipeBox() { return NUM_PIPE_BOX; }
+
+
+    /**
+     * @return number of boxes of pipes (and flames for steel pipes)
      */
     @Override
-    public void move(){ x -= xVelocity; }
+    public int getNumBoxes() { return isPlastic ? NUM_PIPE_BOX : NUM_PIPE_BOX + NUM_FLAME_BOX; }
 
 
     /**
-     * Sets xVelocity based on timescale
-     * @param timescale for change in xVelocity and spawnRate of pipes and flames
+     * @return box of top pipe, bottom pipe, then top and bottom flame for steel pipes
      */
-    public static void setXVelocity(Timescale timescale){
+    @Override
+    public Box getBox(int index) {
 
-        xVelocity = (int)(VELOCITY * timescale.getTimescaleEffect());
-        spawnRate = (int)(DEFAULT_SPAWN_RATE / timescale.getTimescaleEffect());
-        Flame.setXVelocity();
+        switch(index) {
+            case 0: return topBox;
+            case 1: return bottomBox;
+            case 2: return flameTopBox;
+            default: return flameBottomBox;
+        }
     }
 
 
     /**
-     * Changes to pipe on collision with a shot weapon
-     * @param isRock for if Weapon is a rock
-     * @return true if pipe is destroyed and false otherwise
+     * Finds which box of this PipeSet another box overlaps at any time during the last move, checking pipes before flames
+     * @return index of box as in getBox, or -1 if there is no overlap
      */
-    public boolean collideWeapon(boolean isRock){ return IS_PLASTIC || !isRock; }
+    public int findBox(Box other){ return findBox(other, getNumBoxes()); }
 
 
     /**
-     * @return true if flame collides with bird or shot weapon
+     * Finds which of the first count boxes of this PipeSet another box overlaps at any time during the last move
+     * @return index of box as in getBox, or -1 if there is no overlap
      */
-    public boolean flameCollide(){ return flame.flameCollide(); }
+    public int findBox(Box other, int count){ return store.findSweptOverlap(firstSlot, count, other); }
 
 
     /**
-     * Levels Up and Resets Timescale of PipeSet Class
+     * @return share of the last move still to come when the box last found by findBox was first touched,
+     * from 1 at the start of the move to 0 at its end, so higher is sooner
      */
-    public static void levelUp(){
-        level++;
-        PipeSet.setXVelocity(new Timescale());
-    }
+    public double getContact(){ return store.getContact(); }
 
 
     /**
-     * @return spawnRate
+     * @return left edge of all boxes of PipeSet
      */
-    public static int getSpawnRate(){ return spawnRate; }
+    public double getLeft(){ return isPlastic ? topBox.left() : Double.min(topBox.left(), flameTopBox.left()); }
 
 
     /**
-     * @return Number of Boxes belonging to Pipe and not Flame
+     * @return right edge of all boxes of PipeSet
      */
-    public static int getNumPipeBox() { return NUM_PIPE_BOX; }
+    public double getRight(){ return isPlastic ? topBox.right() : Double.max(topBox.right(), flameTopBox.right()); }
 
 
     /**
-     * @return box array containing boxes of pipes (and flames for steel pipes)
+     * Places PipeSet at x without it having moved there. Used by benchmarks to lay out many pipes at once.
      */
-    @Override
-    public Rectangle[] getBox() {
+    void placeAt(double x){
 
-        topBox = elementImage.getBoundingBoxAt(new Point(x, TOP_Y));
-        bottomBox = elementImage.getBoundingBoxAt(new Point(x, BOTTOM_Y));
+        placeBoxes(x);
 
-        if(!IS_PLASTIC)
-            return new Rectangle[]{topBox, bottomBox, flame.getBox()[0], flame.getBox()[1]};
+        if(!isPlastic)
+            flame.placeAt(x);
+    }
+
+
+    /**
+     * Places boxes of pipes at x without them having moved there
+     */
+    private void placeBoxes(double x){
 
-        return new Rectangle[]{topBox, bottomBox};
+        topBox.set(x, topY, elementImage.getMask());
+        bottomBox.set(x, bottomY, elementImage.getMask().getFlipped());
+        topBox.savePosition();
+        bottomBox.savePosition();
     }
 
 
     /**
      * @return x-coordinate of top of gap
      */
-    public double getX(){ return x;}
+    public double getX(){ return topBox.getX();}
 
 
     /**
      * Returns y-coordinate of top of gap
      */
-    public double getY(){
+    public double getY(){ return topBox.bottom(); }
 
-        topBox = elementImage.getBoundingBoxAt(new Point(x, TOP_Y));
-        return topBox.bottom();
-    }
+
+    /**
+     * @return height of gap between top and bottom pipes
+     */
+    public int getGapHeight(){ return gapHeight; }
 
 
     /**
-     * Returns xVelocity
+     * Spawns a PipeSet at the right of the Window, reusing a removed one if possible
+     * @param world the PipeSet belongs to, for its pool, level and random source
+     * @return new PipeSet
      */
-    public static int getXVelocity() { return xVelocity; }
+    public static PipeSet spawn(World world){
+
+        PipeSet pipe = world.getPipePool().acquire();
+        pipe.reset(world);
+        return pipe;
+    }
 
 
     /**
-     * Default constructor initialises all attributes
+     * Spawns a PipeSet of endless mode at the right of the Window, as described by a PipeGenerator
+     * @param world the PipeSet belongs to, for its pool and speed
+     * @param spawn description of the PipeSet
+     * @return new PipeSet
      */
-    PipeSet(){
+    public static PipeSet spawn(World world, PipeSpawn spawn){
 
-        // Level 0 pipes can only be plastic. Level 1 pipes can randomly be plastic or steel.
-        Image[] pipeImage = new Image[]{PLASTIC, STEEL};
-        Random r = new Random();
-        elementImage = pipeImage[r.nextInt(level + 1)];
-        IS_PLASTIC = (elementImage == PLASTIC);
+        PipeSet pipe = world.getPipePool().acquire();
+        pipe.reset(world, spawn.getIsSteel() ? STEEL : PLASTIC, spawn.getGapY(), spawn.getGapHeight());
+        return pipe;
+    }
 
-        // Only steel pipes spew flames.
-        if(!IS_PLASTIC)
-            flame = new Flame(this);
 
-        // x and y are co-ordinates of the top of the center of the gap where y is randomly chosen depending on level
-        x = Window.getWidth();
+    /**
+     * Gives PipeSet (and its flames) back to the pool once it is removed from the Level
+     */
+    public void release(){
 
-        if(Integer.compare(level, 0) == 0) {
-            y = GAPS_Y[r.nextInt(GAPS_Y.length)];
+        if(flame != null) {
+            flame.release();
+            flame = null;
         }
 
+        store.free(firstSlot, NUM_PIPE_BOX + NUM_FLAME_BOX);
+        firstSlot = EntityStore.NO_SLOT;
+        world.getPipePool().release(this);
+    }
+
+
+    /**
+     * Takes slots of the store for boxes of pipes and flames, once it is known whether the pipe is plastic
+     */
+    private void takeSlots(){
+
+        firstSlot = store.add(NUM_PIPE_BOX + NUM_FLAME_BOX);
+
+        for(int box = 0; box < NUM_PIPE_BOX + NUM_FLAME_BOX; box++)
+            getBox(box).setSlot(firstSlot + box);
+
+        if(isPlastic)
+            store.kill(firstSlot + NUM_PIPE_BOX, NUM_FLAME_BOX);
+    }
+
+
+    /**
+     * Initialises all attributes as for a new PipeSet
+     */
+    private void reset(World world){
+
+        int level = world.getLevel();
+
+        // Level 0 pipes can only be plastic. Level 1 pipes can randomly be plastic or steel.
+        Sprite image = PIPE_IMAGES[world.getRandom().nextInt(level + 1)];
+
+        // y is co-ordinate of the top of the center of the gap, randomly chosen depending on level
+        if(Integer.compare(level, 0) == 0)
+            reset(world, image, GAPS_Y[world.getRandom().nextInt(GAPS_Y.length)], GAP_HEIGHT);
+
         // y can range from 100 to 500
-        else{
-            y = r.nextInt(GAPS_Y[GAPS_Y.length - 1] - GAPS_Y[0]) + GAPS_Y[0];
-        }
+        else
+            reset(world, image, world.getRandom().nextInt(GAPS_Y[GAPS_Y.length - 1] - GAPS_Y[0]) + GAPS_Y[0], GAP_HEIGHT);
+    }
+
+
+    /**
+     * Initialises all attributes as for a new PipeSet with a chosen gap
+     * @param image of plastic or steel pipe
+     * @param gapY y-coordinate of top of gap
+     * @param gapHeight height of gap
+     */
+    private void reset(World world, Sprite image, int gapY, int gapHeight){
+
+        this.world = world;
+        this.gapHeight = gapHeight;
+        elementImage = image;
+        isPlastic = (elementImage == PLASTIC);
+        takeSlots();
+        y = gapY;
 
         // topY and bottomY are co-ordinates of the centre of respective pipes
-        TOP_Y = (int)(y - elementImage.getHeight()/2);
-        BOTTOM_Y = (int)(TOP_Y + GAP_HEIGHT + elementImage.getHeight());
+        topY = (int)(y - elementImage.getHeight()/2);
+        bottomY = (int)(topY + gapHeight + elementImage.getHeight());
+        placeBoxes(ShadowFlap.WINDOW_WIDTH);
+        topBox.setXVelocity(world.getPipeXVelocity());
+        bottomBox.setXVelocity(world.getPipeXVelocity());
+
+        // Only steel pipes spew flames. Spawned once the gap is known so that flames line up with it.
+        if(!isPlastic)
+            flame = Flame.spawn(world, this);
+    }
+
+
+    /**
+     * Writes PipeSet and its flames into a saved game, taking BYTES bytes
+     */
+    void write(ByteBuffer buffer){
+
+        buffer.put((byte) (isPlastic ? 0 : 1)).putDouble(y).putInt(topY).putInt(bottomY).putInt(gapHeight);
+
+        for(int box = 0; box < getNumBoxes(); box++)
+            getBox(box).write(buffer);
+
+        // Plastic pipes leave the place of flames and their boxes empty so that every PipeSet takes the same bytes.
+        // Their flame boxes are not written, as they are dead and hold whatever the slots last held.
+        if(isPlastic)
+            for(int zero = 0; zero < FLAME_BYTES; zero += Long.BYTES)
+                buffer.putLong(0);
+        else
+            flame.write(buffer);
+    }
+
+
+    /**
+     * Reads a PipeSet written by write, reusing a removed one if possible
+     * @param world the PipeSet belongs to
+     * @return restored PipeSet
+     */
+    static PipeSet read(World world, ByteBuffer buffer){
+
+        PipeSet pipe = world.getPipePool().acquire();
+        pipe.world = world;
+        pipe.elementImage = PIPE_IMAGES[buffer.get()];
+        pipe.isPlastic = (pipe.elementImage == PLASTIC);
+        pipe.takeSlots();
+        pipe.y = buffer.getDouble();
+        pipe.topY = buffer.getInt();
+        pipe.bottomY = buffer.getInt();
+        pipe.gapHeight = buffer.getInt();
+
+        pipe.topBox.read(buffer, pipe.elementImage.getMask());
+        pipe.bottomBox.read(buffer, pipe.elementImage.getMask().getFlipped());
+
+        if(pipe.isPlastic)
+            buffer.position(buffer.position() + FLAME_BYTES);
+        else {
+            pipe.flameTopBox.read(buffer, Flame.getMask());
+            pipe.flameBottomBox.read(buffer, Flame.getMask().getFlipped());
+            pipe.flame = Flame.read(world, pipe, buffer);
+        }
+
+        return pipe;
+    }
+
+
+    /**
+     * PipeSets are only made by the pool of a World
+     * @param store of pipes of the World, where boxes of pipes are kept
+     */
+    PipeSet(EntityStore store){
+
+        this.store = store;
+        firstSlot = EntityStore.NO_SLOT;
+        topBox = new Box(store, firstSlot);
+        bottomBox = new Box(store, firstSlot);
+        flameTopBox = new Box(store, firstSlot);
+        flameBottomBox = new Box(store, firstSlot);
     }
 }
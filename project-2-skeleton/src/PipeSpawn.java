@@ -0,0 +1,65 @@
+/**
+ * Description of the next PipeSet of endless mode and what comes with it: where its gap is and how tall,
+ * whether it is steel and spews flames, how far behind the last pipe it comes, whether a weapon comes halfway
+ * to the pipe after it, and how fast pipes move from then on.
+ * Made by a PipeGenerator, which overwrites the same description for every pipe.
+ */
+public class PipeSpawn {
+
+    private int gapY;
+    private int gapHeight;
+    private boolean isSteel;
+    private int spacing;
+    private boolean hasWeapon;
+    private double speedUp;
+
+
+    /**
+     * @return y-coordinate of top of gap
+     */
+    public int getGapY(){ return gapY; }
+
+
+    /**
+     * @return height of gap between top and bottom pipes
+     */
+    public int getGapHeight(){ return gapHeight; }
+
+
+    /**
+     * @return true for a steel pipe, which spews flames
+     */
+    public boolean getIsSteel(){ return isSteel; }
+
+
+    /**
+     * @return distance in pixels moved by pipes before the pipe after this one is spawned
+     */
+    public int getSpacing(){ return spacing; }
+
+
+    /**
+     * @return true if a weapon is spawned halfway between this pipe and the next
+     */
+    public boolean getHasWeapon(){ return hasWeapon; }
+
+
+    /**
+     * @return speed of pipes relative to the level, as given to World.setSpeedUp
+     */
+    public double getSpeedUp(){ return speedUp; }
+
+
+    /**
+     * Overwrites description with that of the next pipe
+     */
+    void set(int gapY, int gapHeight, boolean isSteel, int spacing, boolean hasWeapon, double speedUp){
+
+        this.gapY = gapY;
+        this.gapHeight = gapHeight;
+        this.isSteel = isSteel;
+        this.spacing = spacing;
+        this.hasWeapon = hasWeapon;
+        this.speedUp = speedUp;
+    }
+}
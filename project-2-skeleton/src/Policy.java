@@ -0,0 +1,13 @@
+/**
+ * Chooses the keys pressed each tick of a headless session, in place of a player.
+ * Each session gets its own policy, so a policy may keep state between ticks.
+ */
+public interface Policy {
+
+    /**
+     * @param level being played
+     * @param tick number of ticks run so far
+     * @return input for the next tick
+     */
+    GameInput next(Level level, int tick);
+}
@@ -0,0 +1,76 @@
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * Pool of reusable Game Elements. Elements removed from a Level are released to the pool and
+ * handed out again by acquire, so spawning does not make garbage in long sessions.
+ * Enough elements for everything a level keeps alive at once are made up front, so that once a session
+ * has started, spawning makes no objects at all unless more are alive than was reserved.
+ * @param <T> type of element kept in the pool
+ */
+public class Pool<T> {
+
+    private final ArrayDeque<T> free = new ArrayDeque<>();
+    private final Supplier<T> factory;
+
+    private long hits;
+    private long misses;
+
+
+    /**
+     * @return a released element if there is one, otherwise a newly made element
+     */
+    public T acquire(){
+
+        T element = free.pollLast();
+
+        if(element == null) {
+            misses++;
+            return factory.get();
+        }
+
+        hits++;
+        return element;
+    }
+
+
+    /**
+     * Keeps element to be handed out again. Element must not be used by the caller afterwards.
+     */
+    public void release(T element){ free.addLast(element); }
+
+
+    /**
+     * @return fraction of acquires that reused a released element
+     */
+    public double getHitRate(){
+
+        long acquires = hits + misses;
+        return acquires == 0 ? 0 : hits / (double) acquires;
+    }
+
+
+    /**
+     * @return number of elements waiting to be reused
+     */
+    public int getFree(){ return free.size(); }
+
+
+    @Override
+    public String toString(){
+        return String.format("%d/%d acquires reused (%.1f%%), %d free", hits, hits + misses, 100 * getHitRate(), free.size());
+    }
+
+
+    /**
+     * @param factory to make new elements when none are free
+     * @param reserved number of elements made up front, which do not count as misses
+     */
+    Pool(Supplier<T> factory, int reserved){
+
+        this.factory = factory;
+
+        for(int element = 0; element < reserved; element++)
+            free.addLast(factory.get());
+    }
+}
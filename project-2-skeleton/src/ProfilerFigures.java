@@ -0,0 +1,69 @@
+/**
+ * Count, p50, p99 and max of every Phase of a FrameProfiler at one moment, copied so that they can be drawn
+ * by another thread than the one timing. The simulation thread captures its profiler into each WorldSnapshot,
+ * and the window thread draws the copy, so the histograms themselves are only ever touched by their own thread.
+ * Capturing does not allocate.
+ */
+public class ProfilerFigures {
+
+    private final static Phase[] PHASES = Phase.values();
+    private final static double NANOS_PER_MICRO = 1e3;
+    private final static int LINE_GAP = 18;
+
+    private final long[] totals = new long[PHASES.length];
+    private final long[] p50s = new long[PHASES.length];
+    private final long[] p99s = new long[PHASES.length];
+    private final long[] maxes = new long[PHASES.length];
+    private boolean isEnabled;
+
+
+    /**
+     * Copies figures of every phase timed by profiler, or only that it is disabled
+     */
+    public void capture(FrameProfiler profiler){
+
+        isEnabled = profiler.getIsEnabled();
+
+        if(!isEnabled)
+            return;
+
+        for(int phase = 0; phase < PHASES.length; phase++) {
+
+            LatencyHistogram histogram = profiler.getHistogram(PHASES[phase]);
+            totals[phase] = histogram.getTotal();
+            p50s[phase] = histogram.getPercentile(0.5);
+            p99s[phase] = histogram.getPercentile(0.99);
+            maxes[phase] = histogram.getMax();
+        }
+    }
+
+
+    /**
+     * Draws one line per phase timed so far with its p50, p99 and max in microseconds. Only drawn if the profiler
+     * was enabled when captured.
+     * @param renderer to draw with, normally one with a small font
+     * @param x of left of lines
+     * @param y of first line
+     * @return y of the line after the last one drawn
+     */
+    public double render(Renderer renderer, double x, double y){
+
+        if(!isEnabled)
+            return y;
+
+        renderer.drawString(String.format("%-14s %7s %7s %7s", "PHASE us", "P50", "P99", "MAX"), x, y);
+
+        for(int phase = 0; phase < PHASES.length; phase++)
+            if(totals[phase] > 0)
+                renderer.drawString(String.format("%-14s %7.1f %7.1f %7.1f", PHASES[phase], p50s[phase] / NANOS_PER_MICRO,
+                        p99s[phase] / NANOS_PER_MICRO, maxes[phase] / NANOS_PER_MICRO), x, y += LINE_GAP);
+
+        return y + LINE_GAP;
+    }
+
+
+    /**
+     * @return true if the profiler was timing phases when captured
+     */
+    public boolean getIsEnabled(){ return isEnabled; }
+}
@@ -0,0 +1,104 @@
+import bagel.Keys;
+
+/**
+ * Keys read by game logic, built from events taken from an InputEventQueue at the start of each tick.
+ * A key is pressed in a tick if a press event was taken for it, so one press is seen by exactly one tick
+ * however long the key is held. The time from a press of SPACE or S being seen to the end of the tick that
+ * acted on it, by which Bird.fly or Bird.shoot has changed the bird, is recorded as input latency by the FrameProfiler.
+ */
+public class QueuedInput implements GameInput, InputEventQueue.Consumer {
+
+    private final static int KEY_COUNT = Keys.values().length;
+
+    // Keys whose presses reach Bird.fly and Bird.shoot, the only ones timed. Other keys change no bird.
+    private final static int FLY_KEY = Keys.SPACE.ordinal();
+    private final static int SHOOT_KEY = Keys.S.ordinal();
+
+    private final InputEventQueue queue;
+    private final FrameProfiler profiler;
+    private final boolean[] down = new boolean[KEY_COUNT];
+    private final boolean[] pressed = new boolean[KEY_COUNT];
+
+    // Keys pressed in this tick, in order, with the time each press was seen
+    private final int[] pressedKeys = new int[KEY_COUNT];
+    private final long[] pressTimes = new long[KEY_COUNT];
+    private int pressedCount;
+
+    // True while events are taken only to follow which keys are held
+    private boolean isDiscarding;
+
+
+    /**
+     * Takes all events waiting in the queue. Called at the start of every tick.
+     */
+    public void beginTick(){ queue.drain(this); }
+
+
+    /**
+     * Takes all events waiting in the queue without any of them counting as presses, so that presses made
+     * while no ticks run are not all acted on by the next tick. Keys held down are still followed.
+     */
+    public void discard(){
+
+        isDiscarding = true;
+        queue.drain(this);
+        isDiscarding = false;
+    }
+
+
+    @Override
+    public void accept(Keys key, boolean isPress, long time){
+
+        int index = key.ordinal();
+        down[index] = isPress;
+
+        if(isPress && !pressed[index] && !isDiscarding) {
+            pressed[index] = true;
+            pressedKeys[pressedCount] = index;
+            pressTimes[pressedCount] = time;
+            pressedCount++;
+        }
+    }
+
+
+    @Override
+    public boolean isDown(Keys key){ return down[key.ordinal()]; }
+
+
+    @Override
+    public boolean wasPressed(Keys key){ return pressed[key.ordinal()]; }
+
+
+    /**
+     * Records latency of presses of SPACE and S the tick has acted on, then forgets every press
+     */
+    @Override
+    public void endTick(){
+
+        if(pressedCount == 0)
+            return;
+
+        long now = profiler.getIsEnabled() ? System.nanoTime() : 0;
+
+        for(int press = 0; press < pressedCount; press++) {
+
+            if(now != 0 && (pressedKeys[press] == FLY_KEY || pressedKeys[press] == SHOOT_KEY))
+                profiler.record(Phase.INPUT_LATENCY, now - pressTimes[press]);
+
+            pressed[pressedKeys[press]] = false;
+        }
+
+        pressedCount = 0;
+    }
+
+
+    /**
+     * @param queue to take events from
+     * @param profiler to record input latency with
+     */
+    QueuedInput(InputEventQueue queue, FrameProfiler profiler){
+
+        this.queue = queue;
+        this.profiler = profiler;
+    }
+}
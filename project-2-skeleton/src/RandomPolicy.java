@@ -0,0 +1,58 @@
+import bagel.Keys;
+
+import java.util.Random;
+
+/**
+ * Policy that presses keys at random, including timescale keys, to explore the game without any strategy.
+ * Has its own random source so that its choices do not change what the game spawns.
+ */
+public class RandomPolicy implements Policy {
+
+    // Chance per tick of each key being held down
+    private final static double FLAP_CHANCE = 0.12;
+    private final static double SHOOT_CHANCE = 0.02;
+    private final static double TIMESCALE_CHANCE = 0.005;
+
+    // Mixed into the seed so that the policy does not draw the same numbers as the game
+    private final static long SEED_MIX = 0x9e3779b97f4a7c15L;
+
+    private final SyntheticInput input = new SyntheticInput();
+    private final Random random;
+
+
+    @Override
+    public GameInput next(Level level, int tick){
+
+        input.releaseAll();
+
+        if(!level.getIsGameOn()) {
+
+            if(tick % 2 == 0)
+                input.press(Keys.SPACE);
+
+            return input;
+        }
+
+        hold(Keys.SPACE, FLAP_CHANCE);
+        hold(Keys.S, SHOOT_CHANCE);
+        hold(Keys.L, TIMESCALE_CHANCE);
+        hold(Keys.K, TIMESCALE_CHANCE);
+        return input;
+    }
+
+
+    /**
+     * Holds key down for this tick with given chance
+     */
+    private void hold(Keys key, double chance){
+
+        if(random.nextDouble() < chance)
+            input.press(key);
+    }
+
+
+    /**
+     * @param seed of the session played
+     */
+    RandomPolicy(long seed){ random = new Random(seed ^ SEED_MIX); }
+}
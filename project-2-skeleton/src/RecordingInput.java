@@ -0,0 +1,46 @@
+import bagel.Keys;
+
+/**
+ * Input that passes keys through from another input and records each tick into an InputLog
+ */
+public class RecordingInput implements GameInput {
+
+    private final GameInput input;
+    private final InputLog log;
+
+
+    @Override
+    public boolean isDown(Keys key){ return input.isDown(key); }
+
+
+    @Override
+    public boolean wasPressed(Keys key){ return input.wasPressed(key); }
+
+
+    /**
+     * Records keys of the tick that has just run, then ends the tick
+     */
+    @Override
+    public void endTick(){
+
+        log.record(input);
+        input.endTick();
+    }
+
+
+    /**
+     * @return log recorded so far
+     */
+    public InputLog getLog(){ return log; }
+
+
+    /**
+     * @param input to pass keys through from
+     * @param log to record into
+     */
+    RecordingInput(GameInput input, InputLog log){
+
+        this.input = input;
+        this.log = log;
+    }
+}
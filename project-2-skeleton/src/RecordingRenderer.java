@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Renderer that draws nothing but remembers what it was asked to draw.
+ * Used to check what a headless Level would show on screen.
+ */
+public class RecordingRenderer implements Renderer {
+
+    // Approximate width of one character, as there is no font to measure with
+    private final static int CHAR_WIDTH = 30;
+
+    private final HashMap<Sprite, Integer> draws = new HashMap<>();
+    private final ArrayList<String> texts = new ArrayList<>();
+    private int drawCount;
+    private int textureChanges;
+    private int previous = -1;
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y){
+
+        draws.merge(sprite, 1, Integer::sum);
+        drawCount++;
+
+        if(sprite.getTexture() != previous)
+            textureChanges++;
+
+        previous = sprite.getTexture();
+    }
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y, double rotation){ draw(sprite, x, y); }
+
+
+    @Override
+    public void drawString(String text, double x, double y){ texts.add(text); }
+
+
+    @Override
+    public double getStringWidth(String text){ return text.length() * CHAR_WIDTH; }
+
+
+    /**
+     * @return number of sprites drawn since last clear
+     */
+    public int getDrawCount(){ return drawCount; }
+
+
+    /**
+     * @return number of times sprite was drawn since last clear
+     */
+    public int getDrawCount(Sprite sprite){ return draws.getOrDefault(sprite, 0); }
+
+
+    /**
+     * @return number of sprites drawn since last clear with a different texture to the sprite before
+     */
+    public int getTextureChanges(){ return textureChanges; }
+
+
+    /**
+     * @return all text drawn since last clear, in order
+     */
+    public ArrayList<String> getTexts(){ return texts; }
+
+
+    /**
+     * Forgets everything drawn so far, usually called once per frame
+     */
+    public void clear(){
+
+        draws.clear();
+        texts.clear();
+        drawCount = textureChanges = 0;
+        previous = -1;
+    }
+}
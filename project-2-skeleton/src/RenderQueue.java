@@ -0,0 +1,208 @@
+import java.util.Arrays;
+
+/**
+ * Renderer that records draws instead of making them, then submits them all at once to another renderer.
+ * On submit, sprites are sorted by layer and then by texture so that draws from the same texture follow each
+ * other, which cuts texture changes. Sprites entirely outside the Window are culled when recorded.
+ * Text is always drawn last, in the order it was recorded. Recording and submitting do not allocate
+ * once the queue has grown to the size of a frame.
+ */
+public class RenderQueue implements Renderer {
+
+    private final static int DEFAULT_CAPACITY = 64;
+
+    // Sort key is layer, then texture, then order of recording, packed into one long
+    private final static int TEXTURE_SHIFT = 32;
+    private final static int LAYER_SHIFT = 48;
+    private final static long INDEX_MASK = (1L << TEXTURE_SHIFT) - 1;
+    private final static long TEXTURE_MASK = (1L << (LAYER_SHIFT - TEXTURE_SHIFT)) - 1;
+
+    private final Renderer target;
+
+    private Sprite[] sprites = new Sprite[DEFAULT_CAPACITY];
+    private double[] xs = new double[DEFAULT_CAPACITY];
+    private double[] ys = new double[DEFAULT_CAPACITY];
+    private double[] rotations = new double[DEFAULT_CAPACITY];
+    private long[] keys = new long[DEFAULT_CAPACITY];
+    private int size;
+
+    private String[] texts = new String[DEFAULT_CAPACITY];
+    private double[] textXs = new double[DEFAULT_CAPACITY];
+    private double[] textYs = new double[DEFAULT_CAPACITY];
+    private int textSize;
+
+    // Counts since the queue was made
+    private long submits;
+    private long recorded;
+    private long culled;
+    private long batches;
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y){ draw(sprite, x, y, 0); }
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y, double rotation){
+
+        if(isOffScreen(sprite, x, y, rotation)) {
+            culled++;
+            return;
+        }
+
+        if(size == sprites.length)
+            grow();
+
+        sprites[size] = sprite;
+        xs[size] = x;
+        ys[size] = y;
+        rotations[size] = rotation;
+        keys[size] = (long) sprite.getLayer().ordinal() << LAYER_SHIFT | (sprite.getTexture() & TEXTURE_MASK) << TEXTURE_SHIFT | size;
+        size++;
+    }
+
+
+    @Override
+    public void drawString(String text, double x, double y){
+
+        if(textSize == texts.length)
+            growTexts();
+
+        texts[textSize] = text;
+        textXs[textSize] = x;
+        textYs[textSize] = y;
+        textSize++;
+    }
+
+
+    @Override
+    public double getStringWidth(String text){ return target.getStringWidth(text); }
+
+
+    /**
+     * Draws everything recorded since the last submit with the target renderer, then empties the queue
+     */
+    public void submit(){
+
+        sortKeys();
+        int previous = -1;
+
+        for(int command = 0; command < size; command++) {
+
+            int index = (int) (keys[command] & INDEX_MASK);
+            Sprite sprite = sprites[index];
+
+            if(sprite.getTexture() != previous)
+                batches++;
+
+            if(rotations[index] == 0)
+                target.draw(sprite, xs[index], ys[index]);
+            else
+                target.draw(sprite, xs[index], ys[index], rotations[index]);
+
+            previous = sprite.getTexture();
+            sprites[index] = null;
+        }
+
+        for(int text = 0; text < textSize; text++) {
+            target.drawString(texts[text], textXs[text], textYs[text]);
+            texts[text] = null;
+        }
+
+        recorded += size;
+        submits++;
+        size = textSize = 0;
+    }
+
+
+    /**
+     * @return number of times the queue has been submitted
+     */
+    public long getSubmits(){ return submits; }
+
+
+    /**
+     * @return number of sprites submitted to the target
+     */
+    public long getRecorded(){ return recorded; }
+
+
+    /**
+     * @return number of sprites culled for being outside the Window
+     */
+    public long getCulled(){ return culled; }
+
+
+    /**
+     * @return number of runs of draws from the same texture submitted, each needing one texture change
+     */
+    public long getBatches(){ return batches; }
+
+
+    /**
+     * @return true if no part of sprite drawn at (x, y) would be inside the Window
+     */
+    private static boolean isOffScreen(Sprite sprite, double x, double y, double rotation){
+
+        double halfWidth = sprite.getWidth()/2;
+        double halfHeight = sprite.getHeight()/2;
+
+        // Flipping by half a turn keeps the same bounds. Otherwise the sprite stays inside a circle around its centre.
+        if(rotation != 0 && rotation != Math.PI)
+            halfWidth = halfHeight = Math.hypot(halfWidth, halfHeight);
+
+        return x + halfWidth < 0 || x - halfWidth > ShadowFlap.WINDOW_WIDTH
+                || y + halfHeight < 0 || y - halfHeight > ShadowFlap.WINDOW_HEIGHT;
+    }
+
+
+    /**
+     * Sorts keys by insertion, which is quick for a frame's draws as they are mostly recorded in order.
+     * Arrays.sort is not used as it makes arrays to merge runs once there are a few dozen keys.
+     */
+    private void sortKeys(){
+
+        for(int command = 1; command < size; command++) {
+
+            long key = keys[command];
+            int slot = command;
+
+            for( ; slot > 0 && keys[slot - 1] > key; slot--)
+                keys[slot] = keys[slot - 1];
+
+            keys[slot] = key;
+        }
+    }
+
+
+    /**
+     * Doubles capacity for sprites
+     */
+    private void grow(){
+
+        int capacity = sprites.length * 2;
+        sprites = Arrays.copyOf(sprites, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        rotations = Arrays.copyOf(rotations, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+
+    /**
+     * Doubles capacity for text
+     */
+    private void growTexts(){
+
+        int capacity = texts.length * 2;
+        texts = Arrays.copyOf(texts, capacity);
+        textXs = Arrays.copyOf(textXs, capacity);
+        textYs = Arrays.copyOf(textYs, capacity);
+    }
+
+
+    /**
+     * @param target renderer to submit draws to, which also measures text
+     */
+    RenderQueue(Renderer target){ this.target = target; }
+}
@@ -0,0 +1,26 @@
+/**
+ * Draws the game. Game logic never draws directly, so the same Level can be shown in a Bagel
+ * window or run headless with a renderer that draws nothing.
+ */
+public interface Renderer {
+
+    /**
+     * Draws sprite centred at (x, y)
+     */
+    void draw(Sprite sprite, double x, double y);
+
+    /**
+     * Draws sprite centred at (x, y) rotated by rotation radians
+     */
+    void draw(Sprite sprite, double x, double y, double rotation);
+
+    /**
+     * Draws text with bottom left corner at (x, y)
+     */
+    void drawString(String text, double x, double y);
+
+    /**
+     * @return width of text in pixels when drawn
+     */
+    double getStringWidth(String text);
+}
@@ -0,0 +1,34 @@
+import bagel.Keys;
+
+/**
+ * Input that plays back the keys of a recorded session, one tick at a time
+ */
+public class ReplayInput implements GameInput {
+
+    private final InputLog log;
+    private int tick;
+
+
+    @Override
+    public boolean isDown(Keys key){ return !getIsFinished() && log.isDown(tick, key); }
+
+
+    @Override
+    public boolean wasPressed(Keys key){ return !getIsFinished() && log.wasPressed(tick, key); }
+
+
+    @Override
+    public void endTick(){ tick++; }
+
+
+    /**
+     * @return true once every recorded tick has been played
+     */
+    public boolean getIsFinished(){ return tick >= log.size(); }
+
+
+    /**
+     * @param log to play back
+     */
+    ReplayInput(InputLog log){ this.log = log; }
+}
@@ -0,0 +1,17 @@
+/**
+ * Policy that plays back the keys of a recorded session, whatever the level looks like
+ */
+public class ReplayPolicy implements Policy {
+
+    private final ReplayInput input;
+
+
+    @Override
+    public GameInput next(Level level, int tick){ return input; }
+
+
+    /**
+     * @param log to play back
+     */
+    ReplayPolicy(InputLog log){ input = new ReplayInput(log); }
+}
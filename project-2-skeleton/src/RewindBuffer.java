@@ -0,0 +1,493 @@
+import java.util.Arrays;
+
+/**
+ * The last few seconds of a Session, one captured SessionState per tick, for winding the game back a tick at a time.
+ * Every KEYFRAME_TICKS ticks a state is kept whole as a keyframe. States in between are kept as deltas against
+ * their keyframe: the bytes that differ from it, XORed with it, with runs of unchanged bytes skipped. Most of a state,
+ * such as the gaps and kinds of pipes, never changes once spawned, so deltas are a fraction of a whole state.
+ * Any state is one keyframe and at most two deltas away, so winding back a tick takes the same time however far back it is.
+ *
+ * States are kept one after another in an arena, and the oldest are dropped to make room for new ones.
+ * A keyframe with deltas against it is dropped by promoting the state after it to a keyframe: that state is kept whole,
+ * followed by a delta back to the dropped keyframe, which the deltas after it are still against. So states are dropped
+ * one at a time rather than a keyframe's worth at once.
+ * The budget covers the arena, its index, and the buffers states are captured, decoded and encoded in. Working buffers
+ * are sized on the first record to fit the largest state captured, and the arena takes the rest of the budget.
+ * Nothing is made while recording or rewinding after that unless a state outgrows the working buffers, so neither causes a hitch.
+ *
+ * RewindBufferTest checks every tick wound back to against the state played, with budgets large and small,
+ * and RewindBufferCheck under test times recording and rewinding.
+ */
+public class RewindBuffer {
+
+    // Ticks between keyframes, and share of a whole state above which a delta is kept as a keyframe instead
+    private final static int KEYFRAME_TICKS = 60;
+    private final static int MAX_DELTA_SHARE = 2;
+
+    // Offset, length, length of whole state, tick and keyframe of every state held
+    private final static int INDEX_BYTES = 5 * Integer.BYTES;
+
+    private final static int VARINT_BITS = 7;
+    private final static int VARINT_MORE = 0x80;
+    private final static int VARINT_BYTES = 5;
+
+    // Bytes captures start at, doubled until a state fits, so that working buffers are not much larger than states
+    private final static int FIRST_CAPACITY = 1 << 8;
+
+    private final int budget;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] ticks;
+
+    // Bytes at the start of a state kept whole, which is its length for keyframes, 0 for deltas,
+    // and less than its length for a promoted keyframe followed by the delta back to the keyframe it replaced
+    private final int[] wholes;
+
+    // Slot of the keyframe each state is a delta against, which is its own slot for keyframes
+    private final int[] keyframes;
+
+    private final SessionState captured = new SessionState(FIRST_CAPACITY);
+    private final SessionState restored = new SessionState(FIRST_CAPACITY);
+
+    // Keyframe the deltas of a promoted keyframe are against, rebuilt from it
+    private final SessionState original = new SessionState(FIRST_CAPACITY);
+
+    private byte[] arena;
+    private byte[] delta = new byte[0];
+    private byte[] reverse = new byte[0];
+
+    // Slot of the oldest state held, number held, and where in the arena the next state goes
+    private int oldest;
+    private int count;
+    private int writeAt;
+
+    // Position in the arena of the next byte of a delta being decoded
+    private int readAt;
+
+
+    /**
+     * Captures session as it is after a tick and keeps it as the newest state, dropping the oldest states if there is no room.
+     * Throws IllegalArgumentException if what is left of the budget after the working buffers can not hold one state whole.
+     * @param tick number of ticks played to reach this state, handed back when it is wound back to
+     */
+    public void record(Session session, int tick){
+
+        captured.capture(session);
+        fit();
+        int size = captured.size();
+        byte[] state = captured.array();
+
+        // Deltas are against the keyframe of the newest state, until that is KEYFRAME_TICKS old
+        int newest = getNewest();
+        int keyframe = count == 0 ? -1 : keyframes[newest];
+        boolean isKeyframe = keyframe < 0 || (newest - keyframe + offsets.length) % offsets.length + 1 >= KEYFRAME_TICKS;
+        int length = size;
+
+        if(!isKeyframe && wholes[keyframe] < lengths[keyframe]) {
+            rebuildKeyframe(keyframe);
+            length = encode(state, size, original.array(), 0, original.size(), delta, size / MAX_DELTA_SHARE);
+        }
+        else if(!isKeyframe)
+            length = encode(state, size, arena, offsets[keyframe], lengths[keyframe], delta, size / MAX_DELTA_SHARE);
+
+        // Deltas that save too little are not worth decoding, such as just after pipes are spawned and the layout shifts
+        if(length < 0) {
+            isKeyframe = true;
+            length = size;
+        }
+
+        makeRoom(length);
+
+        // Making room dropped the keyframe, and so every state against it, or went back to the start of the arena,
+        // where this state becomes the keyframe so that a keyframe and the deltas against it are in one piece of the arena
+        if(!isKeyframe && (count == 0 || writeAt == 0)) {
+            isKeyframe = true;
+            length = size;
+            makeRoom(length);
+        }
+
+        int slot = (oldest + count) % offsets.length;
+        System.arraycopy(isKeyframe ? state : delta, 0, arena, writeAt, length);
+        offsets[slot] = writeAt;
+        lengths[slot] = length;
+        wholes[slot] = isKeyframe ? length : 0;
+        ticks[slot] = tick;
+
+        // Making room may have promoted the state after the keyframe, which the delta is now kept with
+        keyframes[slot] = isKeyframe ? slot : keyframes[getNewest()];
+        writeAt += length;
+        count++;
+    }
+
+
+    /**
+     * Winds session back by one tick, to the state recorded before the newest. The newest state is dropped.
+     * @return tick of state wound back to, or -1 if there is no older state held, in which case session is left as it is
+     */
+    public int rewind(Session session){
+
+        if(count <= 1)
+            return -1;
+
+        count--;
+        int newest = getNewest();
+        writeAt = offsets[newest] + lengths[newest];
+
+        decode(newest);
+        restored.restore(session);
+        return ticks[newest];
+    }
+
+
+    /**
+     * @return number of states held
+     */
+    public int size(){ return count; }
+
+
+    /**
+     * @return bytes of the arena holding states
+     */
+    public int getBytesUsed(){
+
+        if(count == 0)
+            return 0;
+
+        int start = offsets[oldest];
+        return writeAt > start ? writeAt - start : arena.length - start + writeAt;
+    }
+
+
+    /**
+     * @return bytes of the arena, its index and the working buffers, which are within the budget
+     */
+    int getBytesAllocated(){
+
+        return (arena == null ? 0 : arena.length) + offsets.length * INDEX_BYTES + captured.getCapacity()
+                + restored.getCapacity() + original.getCapacity() + delta.length + reverse.length;
+    }
+
+
+    /**
+     * @return most states that can be held
+     */
+    int getCapacity(){ return offsets.length; }
+
+
+    /**
+     * @param index of state held, from 0 for the oldest
+     * @return true if state is kept whole rather than as a delta
+     */
+    boolean isKeyframe(int index){
+
+        int slot = (oldest + index) % offsets.length;
+        return keyframes[slot] == slot;
+    }
+
+
+    /**
+     * @param index of state held, from 0 for the oldest
+     * @return bytes of the arena taken by state
+     */
+    int getLength(int index){ return lengths[(oldest + index) % offsets.length]; }
+
+
+    /**
+     * @return slot of newest state held
+     */
+    private int getNewest(){ return (oldest + count - 1 + offsets.length) % offsets.length; }
+
+
+    /**
+     * Sizes working buffers to fit states as large as the capture buffer, and the arena to what is left of the budget.
+     * Only makes anything on the first record, and again when a state outgrows the buffers, which drops every state held.
+     */
+    private void fit(){
+
+        int capacity = captured.getCapacity();
+
+        if(arena != null && capacity <= restored.getCapacity())
+            return;
+
+        restored.setSize(capacity);
+        original.setSize(capacity);
+        delta = new byte[capacity / MAX_DELTA_SHARE + VARINT_BYTES];
+        reverse = new byte[delta.length];
+        arena = null;
+
+        int free = budget - getBytesAllocated();
+
+        // The arena must at least hold one state whole, as a keyframe
+        if(free < capacity)
+            throw new IllegalArgumentException("Budget of " + budget + " bytes can not hold states of " + capacity + " bytes");
+
+        arena = new byte[free];
+        count = 0;
+        writeAt = 0;
+    }
+
+
+    /**
+     * Drops the oldest states until length bytes fit after the newest, or at the start of the arena if they do not fit before its end
+     */
+    private void makeRoom(int length){
+
+        if(count == offsets.length)
+            dropOldest();
+
+        if(count == 0)
+            writeAt = 0;
+
+        if(writeAt + length > arena.length)
+            writeAt = 0;
+
+        // States are kept in the arena in the order they were recorded, so the oldest is the next one along from writeAt
+        while(count > 0 && offsets[oldest] < writeAt + length && offsets[oldest] + lengths[oldest] > writeAt)
+            dropOldest();
+
+        if(count == 0)
+            writeAt = 0;
+    }
+
+
+    /**
+     * Drops the oldest state, which is always a keyframe. If there are deltas against it, the next state is promoted
+     * in its place, or if that does not fit, every delta against it is dropped too.
+     */
+    private void dropOldest(){
+
+        int next = (oldest + 1) % offsets.length;
+
+        if(count == 1 || keyframes[next] != oldest || promote(next)) {
+            oldest = next;
+            count--;
+            return;
+        }
+
+        do {
+            oldest = (oldest + 1) % offsets.length;
+            count--;
+        }
+        while(count > 0 && keyframes[oldest] != oldest);
+    }
+
+
+    /**
+     * Makes the state after the oldest keyframe a keyframe, kept whole and followed by the delta back to the keyframe
+     * its deltas are against. It takes the place of the two, as far along the arena as they reached, so the room they
+     * no longer need is next to be written.
+     * @param next slot of state after the oldest, which is a delta against it
+     * @return false if there is no room for it, leaving the two states as they were
+     */
+    private boolean promote(int next){
+
+        int keyframe = oldest;
+        decode(next);
+        int whole = restored.size();
+
+        // Decoding a delta of a keyframe that was already promoted rebuilds the keyframe its deltas are against
+        if(wholes[keyframe] == lengths[keyframe]) {
+            original.setSize(lengths[keyframe]);
+            System.arraycopy(arena, offsets[keyframe], original.array(), 0, lengths[keyframe]);
+        }
+
+        int back = encode(original.array(), original.size(), restored.array(), 0, whole, reverse, reverse.length - VARINT_BYTES);
+
+        if(back < 0)
+            return false;
+
+        // Room before the keyframe is free back to where the next state goes, or to the start of the arena if that is after it
+        int end = offsets[next] + lengths[next];
+        int start = end - whole - back;
+        int free = writeAt <= offsets[keyframe] ? writeAt : 0;
+
+        if(start < free)
+            return false;
+
+        System.arraycopy(restored.array(), 0, arena, start, whole);
+        System.arraycopy(reverse, 0, arena, start + whole, back);
+        offsets[next] = start;
+        lengths[next] = whole + back;
+        wholes[next] = whole;
+
+        for(int index = 1; index < count && keyframes[(oldest + index) % offsets.length] == keyframe; index++)
+            keyframes[(oldest + index) % offsets.length] = next;
+
+        return true;
+    }
+
+
+    /**
+     * Writes a state as a delta against a key: its size, then pairs of a count of unchanged bytes to skip
+     * and a count of changed bytes followed by those bytes XORed with the key. Bytes past the end of the
+     * key are XORed with 0.
+     * @param into buffer to write delta to, with room for maxLength and a count more
+     * @return length of delta, or -1 if it would be longer than maxLength
+     */
+    private int encode(byte[] state, int size, byte[] key, int keyOffset, int keyLength, byte[] into, int maxLength){
+
+        int length = putVarint(size, into, 0);
+        int position = 0;
+
+        while(position < size) {
+
+            int start = position;
+
+            while(position < size && getChange(state, position, key, keyOffset, keyLength) == 0)
+                position++;
+
+            if(length + VARINT_BYTES > maxLength)
+                return -1;
+
+            length = putVarint(position - start, into, length);
+
+            if(position == size)
+                break;
+
+            start = position;
+
+            // Each run of changed bytes ends at two unchanged bytes
+            while(position < size && (getChange(state, position, key, keyOffset, keyLength) != 0
+                    || (position + 1 < size && getChange(state, position + 1, key, keyOffset, keyLength) != 0)))
+                position++;
+
+            if(length + VARINT_BYTES + position - start > maxLength)
+                return -1;
+
+            length = putVarint(position - start, into, length);
+
+            for(int changed = start; changed < position; changed++)
+                into[length++] = getChange(state, changed, key, keyOffset, keyLength);
+        }
+
+        return length;
+    }
+
+
+    /**
+     * @return byte of state XORed with the same byte of the key
+     */
+    private static byte getChange(byte[] state, int position, byte[] key, int keyOffset, int keyLength){
+        return (byte) (state[position] ^ (position < keyLength ? key[keyOffset + position] : 0));
+    }
+
+
+    /**
+     * Decodes the state in a slot into restored
+     */
+    private void decode(int slot){
+
+        int keyframe = keyframes[slot];
+        int keyOffset = offsets[keyframe];
+        int whole = wholes[keyframe];
+
+        if(keyframe == slot) {
+            restored.setSize(whole);
+            System.arraycopy(arena, keyOffset, restored.array(), 0, whole);
+        }
+
+        else if(whole < lengths[keyframe]) {
+            rebuildKeyframe(keyframe);
+            decode(offsets[slot], lengths[slot], original.array(), 0, original.size(), restored);
+        }
+
+        else
+            decode(offsets[slot], lengths[slot], arena, keyOffset, whole, restored);
+    }
+
+
+    /**
+     * Rebuilds the keyframe that the deltas of a promoted keyframe are against into original
+     */
+    private void rebuildKeyframe(int keyframe){
+
+        int whole = wholes[keyframe];
+        decode(offsets[keyframe] + whole, lengths[keyframe] - whole, arena, offsets[keyframe], whole, original);
+    }
+
+
+    /**
+     * Decodes a delta in the arena against a key into a state, whose buffer already fits it
+     * @param offset of delta in the arena
+     * @param length of delta
+     */
+    private void decode(int offset, int length, byte[] key, int keyOffset, int keyLength, SessionState into){
+
+        // Size of state, then runs to skip and to XOR, as written by encode
+        readAt = offset;
+        int end = offset + length;
+        int size = getVarint();
+
+        into.setSize(size);
+        byte[] state = into.array();
+        int copied = Integer.min(size, keyLength);
+        System.arraycopy(key, keyOffset, state, 0, copied);
+        Arrays.fill(state, copied, size, (byte) 0);
+
+        for(int position = 0; readAt < end; ) {
+
+            position += getVarint();
+
+            if(readAt == end)
+                break;
+
+            for(int changed = getVarint(); changed > 0; changed--)
+                state[position++] ^= arena[readAt++];
+        }
+    }
+
+
+    /**
+     * Reads a count written by putVarint from the arena at readAt, moving readAt past it
+     */
+    private int getVarint(){
+
+        int value = 0;
+
+        for(int shift = 0; ; shift += VARINT_BITS) {
+
+            int part = arena[readAt++] & 0xFF;
+            value |= (part & ~VARINT_MORE) << shift;
+
+            if((part & VARINT_MORE) == 0)
+                return value;
+        }
+    }
+
+
+    /**
+     * Writes a count 7 bits at a time, lowest first, with the top bit set on all but the last byte
+     * @return position after count
+     */
+    private static int putVarint(int value, byte[] into, int position){
+
+        while(value >= VARINT_MORE) {
+            into[position++] = (byte) (value | VARINT_MORE);
+            value >>>= VARINT_BITS;
+        }
+
+        into[position++] = (byte) value;
+        return position;
+    }
+
+
+    /**
+     * @param capacity states that can be wound back, such as the ticks of a few seconds, if they fit the budget
+     * @param budget bytes for states, their index and the buffers they are worked on in
+     */
+    RewindBuffer(int capacity, int budget){
+
+        if(capacity < 1)
+            throw new IllegalArgumentException("Rewind must hold at least one state");
+
+        if(budget <= capacity * INDEX_BYTES)
+            throw new IllegalArgumentException("Budget of " + budget + " bytes can not index " + capacity + " states");
+
+        this.budget = budget;
+        offsets = new int[capacity];
+        lengths = new int[capacity];
+        wholes = new int[capacity];
+        ticks = new int[capacity];
+        keyframes = new int[capacity];
+    }
+}
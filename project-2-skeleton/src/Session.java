@@ -0,0 +1,157 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * One play-through of Flappy Bird Game, from level 0 to the last level, or of endless mode, which is one level without end.
+ * Shared by the Bagel window and headless simulation so both run the same game logic.
+ * All randomness comes from one source seeded per session, so the same seed and keys always give the same game.
+ * A session keeps all of its state in its own World, so many sessions can run at once.
+ */
+public class Session {
+
+    private final ArrayList<Level> levels;
+    private final World world;
+    private final long seed;
+    private int level;
+
+
+    /**
+     * Performs a state update of the current level
+     * @param input for keys pressed
+     */
+    public void update(GameInput input){
+
+        // If level is won, switch to next level
+        if (levels.get(level).getIsWin())
+            level++;
+
+        // Runs current level
+        long start = world.getProfiler().start();
+        levels.get(level).update(input);
+        world.getProfiler().stop(Phase.TICK, start);
+    }
+
+
+    /**
+     * Draws current level
+     * @param renderer to draw with
+     * @param alpha fraction of a tick passed since the last update
+     */
+    public void render(Renderer renderer, double alpha){
+
+        long start = world.getProfiler().start();
+        levels.get(level).render(renderer, alpha);
+        world.getProfiler().stop(Phase.FRAME, start);
+    }
+
+
+    /**
+     * @return level being played
+     */
+    public Level getLevel(){ return levels.get(level); }
+
+
+    /**
+     * @return level with number, starting from 0
+     */
+    public Level getLevel(int number){ return levels.get(number); }
+
+
+    /**
+     * @return number of levels in the session
+     */
+    public int getLevelCount(){ return levels.size(); }
+
+
+    /**
+     * @return number of level being played, starting from 0
+     */
+    public int getLevelNumber(){ return level; }
+
+
+    /**
+     * @return world holding all state of session
+     */
+    public World getWorld(){ return world; }
+
+
+    /**
+     * @return seed of random source of session
+     */
+    public long getSeed(){ return seed; }
+
+
+    /**
+     * @return true if bird has no lives left
+     */
+    public boolean getIsOver(){ return getLevel().getIsLoss(); }
+
+
+    /**
+     * @return true if the last level has been completed
+     */
+    public boolean getIsWon(){ return level == levels.size() - 1 && getLevel().getScore() >= getLevel().getMaxScore(); }
+
+
+    /**
+     * @return true if session is of endless mode
+     */
+    public boolean getIsEndless(){ return levels.get(0) instanceof EndlessLevel; }
+
+
+    /**
+     * Writes everything that changes as the session is played: level being played, World, bird and every level
+     */
+    void write(ByteBuffer buffer){
+
+        buffer.putInt(level);
+        world.write(buffer);
+        world.getBird().write(buffer);
+
+        for(int number = 0; number < levels.size(); number++)
+            levels.get(number).write(buffer);
+    }
+
+
+    /**
+     * Reads session written by write into this one, which must be of the same mode
+     */
+    void read(ByteBuffer buffer){
+
+        level = buffer.getInt();
+        world.read(buffer);
+        world.getBird().read(buffer);
+
+        for(int number = 0; number < levels.size(); number++)
+            levels.get(number).read(buffer);
+    }
+
+
+    /**
+     * Initialises all levels
+     * @param seed for random source of session
+     */
+    Session(long seed){ this(seed, false); }
+
+
+    /**
+     * Initialises all levels, or the one level of endless mode
+     * @param seed for random source of session
+     * @param isEndless true for endless mode
+     */
+    Session(long seed, boolean isEndless){
+
+        this.seed = seed;
+        world = new World(seed);
+        level = 0;
+        levels = new ArrayList<>();
+
+        if(isEndless)
+            levels.add(new EndlessLevel(world));
+
+        else {
+            levels.add(new Level(world));
+            levels.add(new Level1(world));
+        }
+    }
+}
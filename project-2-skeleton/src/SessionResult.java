@@ -0,0 +1,95 @@
+/**
+ * How one headless session ended
+ */
+public class SessionResult {
+
+    private final long seed;
+    private final int level;
+    private final int score;
+    private final int ticks;
+    private final boolean isWon;
+    private final Hazard cause;
+
+
+    /**
+     * Plays a session until it is lost, won, its policy runs out or the tick limit is reached
+     * @param seed of the session
+     * @param policy to choose keys with
+     * @param maxTicks limit on ticks played
+     * @return result of the session
+     */
+    public static SessionResult play(long seed, Policy policy, int maxTicks){ return play(seed, false, policy, maxTicks); }
+
+
+    /**
+     * Plays a session of either mode until it is lost, won, its policy runs out or the tick limit is reached
+     * @param seed of the session
+     * @param isEndless true for endless mode, which is never won
+     * @param policy to choose keys with
+     * @param maxTicks limit on ticks played
+     * @return result of the session
+     */
+    public static SessionResult play(long seed, boolean isEndless, Policy policy, int maxTicks){
+
+        Session session = new Session(seed, isEndless);
+        int tick = 0;
+
+        for( ; tick < maxTicks && !session.getIsOver() && !session.getIsWon(); tick++){
+
+            GameInput input = policy.next(session.getLevel(), tick);
+            session.update(input);
+            input.endTick();
+        }
+
+        Bird bird = session.getLevel().getBird();
+        return new SessionResult(seed, session.getLevelNumber(), session.getLevel().getScore(), tick,
+                session.getIsWon(), session.getIsOver() ? bird.getLastHazard() : null);
+    }
+
+
+    /**
+     * @return seed of the session
+     */
+    public long getSeed(){ return seed; }
+
+
+    /**
+     * @return number of level reached, starting from 0
+     */
+    public int getLevel(){ return level; }
+
+
+    /**
+     * @return score in the level reached
+     */
+    public int getScore(){ return score; }
+
+
+    /**
+     * @return ticks survived
+     */
+    public int getTicks(){ return ticks; }
+
+
+    /**
+     * @return true if the last level was completed
+     */
+    public boolean getIsWon(){ return isWon; }
+
+
+    /**
+     * @return what took the last life, or null if the bird was still alive at the end
+     */
+    public Hazard getCause(){ return cause; }
+
+
+    SessionResult(long seed, int level, int score, int ticks, boolean isWon, Hazard cause){
+
+        this.seed = seed;
+        this.level = level;
+        this.score = score;
+        this.ticks = ticks;
+        this.isWon = isWon;
+        this.cause = cause;
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Everything that changes as a Session is played, written into a ByteBuffer so that the session can be put back
+ * exactly as it was: a save to resume later, or a fork for a bot to search from.
+ * The World, bird, and every pipe, flame and weapon of every level write their own fields, each kind taking
+ * the same bytes every time, so a saved game is a header followed by records of fixed layout.
+ * Restored elements are taken from the pools of the World, and the buffer is kept and overwritten
+ * by every capture, so neither capturing nor restoring makes objects once the buffer fits.
+ *
+ * SessionStateTest checks that restored and new sessions play on exactly as the one captured.
+ */
+public class SessionState {
+
+    private final static int MAGIC = 0x53465353;
+    private final static int VERSION = 1;
+    private final static int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES + 1;
+    private final static int DEFAULT_CAPACITY = 1 << 14;
+
+    private ByteBuffer buffer;
+
+
+    /**
+     * Writes session into the buffer in place of whatever it held, growing the buffer if it does not fit
+     * @return this state
+     */
+    public SessionState capture(Session session){
+
+        while(true) {
+
+            try {
+                buffer.clear();
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(session.getSeed()).put((byte) (session.getIsEndless() ? 1 : 0));
+                session.write(buffer);
+                buffer.flip();
+                return this;
+            }
+
+            // Only happens until the buffer fits the most pipes and weapons captured
+            catch(BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+
+    /**
+     * Puts session back as it was when captured
+     * @param session of the same mode as the one captured, such as the same session or a new one from newSession
+     */
+    public void restore(Session session){
+
+        buffer.rewind();
+
+        if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            throw new IllegalStateException("Buffer does not hold a saved game");
+
+        buffer.getLong();
+
+        if((buffer.get() != 0) != session.getIsEndless())
+            throw new IllegalArgumentException("Saved game is of another mode than the session");
+
+        session.read(buffer);
+    }
+
+
+    /**
+     * @return new session of the seed and mode captured, restored to where it was captured
+     */
+    public Session newSession(){
+
+        Session session = new Session(getSeed(), getIsEndless());
+        restore(session);
+        return session;
+    }
+
+
+    /**
+     * @return seed of the session captured
+     */
+    public long getSeed(){ return buffer.getLong(2 * Integer.BYTES); }
+
+
+    /**
+     * @return true if the session captured was of endless mode
+     */
+    public boolean getIsEndless(){ return buffer.get(HEADER_BYTES - 1) != 0; }
+
+
+    /**
+     * @return number of bytes captured
+     */
+    public int size(){ return buffer.limit(); }
+
+
+    /**
+     * @return bytes of the buffer, captured or not
+     */
+    int getCapacity(){ return buffer.capacity(); }
+
+
+    /**
+     * @return array backing the state, of which the first size() bytes are the session captured
+     */
+    byte[] array(){ return buffer.array(); }
+
+
+    /**
+     * Makes room for a captured session to be written straight into array(), such as one decoded by a RewindBuffer
+     * @param size number of bytes of session
+     */
+    void setSize(int size){
+
+        if(size > buffer.capacity())
+            buffer = ByteBuffer.allocate(Integer.max(size, buffer.capacity() * 2));
+
+        buffer.clear();
+        buffer.limit(size);
+    }
+
+
+    /**
+     * Writes captured session to a file
+     */
+    public void save(Path path) throws IOException {
+        Files.write(path, Arrays.copyOf(buffer.array(), buffer.limit()));
+    }
+
+
+    /**
+     * Reads a session written by save
+     */
+    public static SessionState load(Path path) throws IOException {
+
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        if(bytes.length < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            throw new IOException(path + " is not a saved game");
+
+        SessionState state = new SessionState();
+        state.buffer = buffer;
+        buffer.rewind();
+        return state;
+    }
+
+
+    /**
+     * Makes an empty state, to be filled by capture
+     */
+    SessionState(){ this(DEFAULT_CAPACITY); }
+
+
+    /**
+     * Makes an empty state with a buffer of capacity bytes, which doubles until a capture fits
+     */
+    SessionState(int capacity){
+
+        buffer = ByteBuffer.allocate(capacity);
+        buffer.limit(0);
+    }
+}
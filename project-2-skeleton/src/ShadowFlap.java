@@ -1,6 +1,12 @@
 import bagel.*;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 /**
  * Skeleton Code for SWEN20003 Project 2, Semester 2, 2021
@@ -18,52 +24,308 @@ import java.util.ArrayList;
  */
 public class ShadowFlap extends AbstractGame {
 
-    boolean isGameOn;
-    boolean isLoss;
-    boolean isWin;
+    public final static int WINDOW_WIDTH = 1024;
+    public final static int WINDOW_HEIGHT = 768;
 
-    int level;
+    // Profiler overlay is drawn in small text at the top right, next to the score
+    private final static Keys PROFILER_KEY = Keys.P;
+    private final static int PROFILER_FONT_SIZE = 14;
+    private final static int PROFILER_X = 620, PROFILER_Y = 30;
 
-    ArrayList<Level> levels;
+    // Textures made per frame while loading, and shortest time the level up screen is shown for
+    private final static int TEXTURES_PER_FRAME = 1;
+    private final static long LEVEL_UP_NANOS = 500_000_000L;
+
+    // Key events held between ticks, far more than can be pressed in one frame
+    private final static int INPUT_QUEUE_CAPACITY = 256;
+
+    // Seconds that R can wind back, and bytes kept for them
+    private final static int REWIND_SECONDS = 5;
+    private final static int REWIND_BUDGET = 1 << 20;
+    private final static String SIMULATION_THREAD = "simulation";
+
+    // Time the program started, to measure time to the first frame the player can play
+    private final static long START_NANOS = System.nanoTime();
+
+    private final Session session;
+    private final RecordingInput input;
+    private final RenderQueue renderer;
+    private final Renderer profilerRenderer;
+    private final FrameProfiler profiler;
+    private final AssetManager assets;
+    private final TextLayout text;
+
+    private final BagelInput keys;
+    private final SnapshotBuffer snapshots;
+    private final Simulation simulation;
+
+    // Frames drawn, and those during which the simulation thread was running ticks too
+    private long frames;
+    private long overlappingFrames;
+
+    // Textures held for the level being played and the one after it, which loads in the background
+    private List<String> heldTextures = new ArrayList<>();
+    private List<String> levelTextures = new ArrayList<>();
+    private int assetLevel = -1;
+    private long loadStart;
+
+    // Time from the start to the first frame the player can play, and textures made on first draw by then,
+    // written by --profile
+    private long interactiveNanos = -1;
+    private int interactiveMisses;
 
     /**
      * Initialises attributes of ShadowFlap
+     * @param session to play, new or resumed from a saved game
+     * @param autopilot policy flying alongside the player, or null to leave it all to the player
+     * @param rewind to wind back from while R is held, or null to play without rewinding
      */
-    ShadowFlap() {
+    ShadowFlap(Session session, Policy autopilot, RewindBuffer rewind) {
 
-        super(1024, 768, "Flappy Bird ++");
-        level = 0;
-        isLoss = isWin = isGameOn = false;
+        super(WINDOW_WIDTH, WINDOW_HEIGHT, "Flappy Bird ++");
+        this.session = session;
+        InputEventQueue queue = new InputEventQueue(INPUT_QUEUE_CAPACITY);
+        keys = new BagelInput(queue);
+        QueuedInput events = new QueuedInput(queue, session.getWorld().getProfiler());
+        PilotInput pilot = autopilot == null ? null : new PilotInput(events, autopilot, session);
+        input = new RecordingInput(pilot == null ? events : pilot, new InputLog(session.getSeed(), session.getIsEndless()));
+        assets = new AssetManager();
+        text = new TextLayout();
+        profiler = new FrameProfiler();
 
-        levels = new ArrayList<>();
-        levels.add(new Level());
-        levels.add(new Level1());
+        BagelRenderer window = new BagelRenderer(Level.FONT_FILE, Level.FONT_SIZE, assets);
+        renderer = new RenderQueue(window);
+        profilerRenderer = new BagelRenderer(Level.FONT_FILE, PROFILER_FONT_SIZE, assets);
+        snapshots = new SnapshotBuffer(window);
+        simulation = new Simulation(session, events, pilot, input, rewind, snapshots);
     }
 
     /**
      * The entry point for the program.
+     * Usage: ShadowFlap [--seed seed] [--endless] [--record file] [--profile file] [--autopilot file]
+     *                   [--save file] [--resume file] [--rewind seconds] [--rewind-budget bytes]
+     * With --endless, pipes keep coming and getting harder until every life is lost.
+     * With --save, the game is saved to file once the window closes, to be carried on from with --resume.
+     * A resumed game can not be recorded, as its input log would not start from the start of the session.
+     * Holding R winds the game back a tick at a time, up to --rewind seconds kept in --rewind-budget bytes,
+     * or not at all with --rewind 0.
+     * With --autopilot, a genome trained by EvolutionTrainer flies and shoots alongside the player.
+     * With --record, keys of every tick are saved to file once the window closes, to be replayed by HeadlessShadowFlap.
+     * With --profile, phases are timed from the start and their histograms are saved to file once the window closes,
+     * along with the time to the first frame the player could play.
+     * Either way, P shows or hides the profiler overlay.
+     * Game logic runs on a thread of its own while the window draws the latest snapshot of it.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        long seed = System.nanoTime();
+        Path record = null;
+        Path profile = null;
+        Policy autopilot = null;
+        boolean isEndless = false;
+        Path save = null;
+        Path resume = null;
+        int rewindSeconds = REWIND_SECONDS;
+        int rewindBudget = REWIND_BUDGET;
 
-        ShadowFlap game = new ShadowFlap();
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--endless"))
+                isEndless = true;
+            else if(args[arg].equals("--seed"))
+                seed = Long.parseLong(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--record"))
+                record = Paths.get(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--profile"))
+                profile = Paths.get(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--autopilot"))
+                autopilot = NeuralPolicy.load(Paths.get(Arguments.getValue(args, ++arg)));
+            else if(args[arg].equals("--save"))
+                save = Paths.get(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--resume"))
+                resume = Paths.get(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--rewind"))
+                rewindSeconds = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--rewind-budget"))
+                rewindBudget = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else
+                throw new IllegalArgumentException("Unknown argument " + args[arg]);
+        }
+
+        if(resume != null && record != null)
+            throw new IllegalArgumentException("A resumed game can not be recorded");
+
+        Session session = resume == null ? new Session(seed, isEndless) : SessionState.load(resume).newSession();
+        RewindBuffer rewind = rewindSeconds > 0 ? new RewindBuffer(rewindSeconds * SimClock.TICK_RATE, rewindBudget) : null;
+        ShadowFlap game = new ShadowFlap(session, autopilot, rewind);
+        FrameProfiler profiler = game.session.getWorld().getProfiler();
+        profiler.setIsEnabled(profile != null);
+        game.profiler.setIsEnabled(profile != null);
+
+        Thread simulation = new Thread(game.simulation, SIMULATION_THREAD);
+        simulation.setDaemon(true);
+        simulation.start();
         game.run();
+
+        game.simulation.stop();
+        simulation.join();
+        game.assets.close();
+
+        if(record != null)
+            game.input.getLog().save(record);
+
+        if(save != null)
+            new SessionState().capture(game.session).save(save);
+
+        if(profile != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add("# simulation thread");
+            lines.addAll(profiler.getLines());
+            lines.add("# window thread, " + game.getOverlap() + ", " + game.getInteractiveTime());
+            lines.addAll(game.profiler.getLines());
+            Files.write(profile, lines);
+        }
     }
 
     /**
-     * Performs a state update.
+     * Draws the latest snapshot published by the simulation thread, between the positions before and after
+     * its tick, by recording it into a RenderQueue and submitting it. Keys are passed on to the simulation.
+     * While textures of the level are loading, its loading text is drawn instead and the simulation waits.
      * allows the game to exit when the escape key is pressed.
      */
     @Override
     public void update(Input input) {
 
+        long frameStart = profiler.start();
+        long now = System.nanoTime();
+        long simulationBusy = simulation.getBusyCount();
+
         if(input.isDown(Keys.ESCAPE))
             Window.close();
 
-        // If level is won, switch to next level
-        if (levels.get(level).getIsWin())
-            level++;
+        if(input.wasPressed(PROFILER_KEY)) {
+            session.getWorld().getProfiler().toggle();
+            profiler.toggle();
+        }
+
+        keys.poll(input, now);
+        WorldSnapshot snapshot = snapshots.read();
+
+        if(snapshot.getLevel() >= 0 && snapshot.getLevel() != assetLevel)
+            holdTextures(snapshot.getLevel());
+
+        assets.update(TEXTURES_PER_FRAME);
+
+        if(!isLevelLoaded()) {
+
+            if(assetLevel >= 0)
+                text.drawCentred(renderer, snapshot.getLoadingText(), (WINDOW_HEIGHT + Level.FONT_SIZE)/2.0);
+        }
+
+        else {
+
+            simulation.setReadyLevel(assetLevel);
+
+            if(interactiveNanos < 0) {
+                interactiveNanos = now - START_NANOS;
+                interactiveMisses = assets.getMisses();
+            }
+
+            double alpha = (now - snapshot.getTickTime()) / (double) SimClock.TICK_NANOS;
+            snapshot.draw(renderer, Double.min(1, Double.max(0, alpha)));
+        }
+
+        long start = profiler.start();
+        renderer.submit();
+        profiler.stop(Phase.SUBMIT, start);
+
+        double y = snapshot.getProfile().render(profilerRenderer, PROFILER_X, PROFILER_Y);
+        y = profiler.render(profilerRenderer, PROFILER_X, y);
+
+        if(profiler.getIsEnabled())
+            profilerRenderer.drawString(getOverlap(), PROFILER_X, y);
+
+        profiler.stop(Phase.DRAW, frameStart);
+
+        // The simulation ran during this frame if it was busy at the start or has started a batch since
+        frames++;
+
+        if((simulationBusy & 1) != 0 || simulation.getBusyCount() != simulationBusy)
+            overlappingFrames++;
+    }
+
+
+    /**
+     * @return time to the first frame the player could play, and textures made on first draw by then
+     */
+    private String getInteractiveTime(){
+
+        if(interactiveNanos < 0)
+            return "no interactive frame";
+
+        return String.format("first interactive frame after %.1f ms, %d textures made on first draw",
+                interactiveNanos / 1e6, interactiveMisses);
+    }
+
+
+    /**
+     * @return share of frames during which the simulation thread was running ticks
+     */
+    private String getOverlap(){
+        return String.format("frames overlapping ticks: %.1f%%", frames == 0 ? 0 : 100.0 * overlappingFrames / frames);
+    }
+
+
+    /**
+     * Holds textures of a level and of the level after it, then lets go of those held for the level before
+     * @param level number of level now being played
+     */
+    private void holdTextures(int level){
+
+        levelTextures = getTextures(level);
+        List<String> held = new ArrayList<>(levelTextures);
+
+        if(level + 1 < session.getLevelCount())
+            held.addAll(getTextures(level + 1));
+
+        for(String path : held)
+            assets.acquire(path);
+
+        for(String path : heldTextures)
+            assets.release(path);
+
+        heldTextures = held;
+        assetLevel = level;
+        loadStart = System.nanoTime();
+    }
+
+
+    /**
+     * @return paths of textures of sprites drawn in level
+     */
+    private List<String> getTextures(int level){
+
+        LinkedHashSet<String> paths = new LinkedHashSet<>();
+
+        for(String group : session.getLevel(level).getAssetGroups())
+            paths.addAll(Sprite.getTexturePaths(group));
+
+        return new ArrayList<>(paths);
+    }
+
+
+    /**
+     * @return true once every texture of the level being played is made, and any level up screen has been shown
+     */
+    private boolean isLevelLoaded(){
+
+        if(assetLevel > 0 && System.nanoTime() - loadStart < LEVEL_UP_NANOS)
+            return false;
+
+        for(String path : levelTextures)
+            if(!assets.isLoaded(path))
+                return false;
 
-        // Runs current level
-        levels.get(level).update(input);
+        return true;
     }
 }
@@ -0,0 +1,63 @@
+/**
+ * Fixed timestep clock for game logic. Real time between rendered frames is collected and paid out
+ * as whole ticks of TICK_NANOS, so the game runs at the same speed whatever the frame rate.
+ * All counts of frames in game logic are counts of these ticks.
+ */
+public class SimClock {
+
+    public final static int TICK_RATE = 60;
+    public final static long TICK_NANOS = 1_000_000_000L / TICK_RATE;
+
+    // Ticks allowed to catch up in one rendered frame. Any more time than this is dropped so a long stall
+    // can not make every following frame slower too.
+    private final static int MAX_TICKS_PER_FRAME = 30;
+
+    private long lastTime;
+    private long accumulator;
+    private boolean isStarted;
+
+
+    /**
+     * Collects time passed since the last frame
+     * @param now in nanoseconds, from System.nanoTime()
+     * @return number of ticks game logic has to run before this frame is drawn
+     */
+    public int advance(long now){
+
+        if(!isStarted) {
+            isStarted = true;
+            lastTime = now;
+            return 0;
+        }
+
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        long ticks = accumulator / TICK_NANOS;
+
+        if(ticks > MAX_TICKS_PER_FRAME) {
+            ticks = MAX_TICKS_PER_FRAME;
+            accumulator %= TICK_NANOS;
+        }
+        else
+            accumulator -= ticks * TICK_NANOS;
+
+        return (int) ticks;
+    }
+
+
+    /**
+     * Forgets time collected so far, so that time spent paused, such as while loading, is not caught up
+     */
+    public void reset(){
+
+        isStarted = false;
+        accumulator = 0;
+    }
+
+
+    /**
+     * @return fraction of a tick that has passed since the last tick, for drawing between ticks
+     */
+    public double getAlpha(){ return accumulator / (double) TICK_NANOS; }
+}
@@ -0,0 +1,164 @@
+import bagel.Keys;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the game logic of a Session on its own thread, at the fixed tick rate of a SimClock, taking keys from a
+ * QueuedInput, and from a PilotInput if a bot flies alongside. After each batch of ticks it records a WorldSnapshot and publishes it for the window to draw,
+ * so a slow frame never delays a tick and a slow tick never delays a frame.
+ * Ticks of a level only start once the window says its textures are loaded, and keys pressed until then are dropped.
+ * With a RewindBuffer, every tick is recorded into it, and ticks while REWIND_KEY is held wind the session back
+ * one tick each instead of playing it, cutting the input log back to match so that it still replays.
+ */
+public class Simulation implements Runnable {
+
+    // Time slept while waiting for the window to load a level
+    private final static long WAIT_NANOS = 1_000_000L;
+    private final static Keys REWIND_KEY = Keys.R;
+
+    private final Session session;
+    private final QueuedInput events;
+    private final PilotInput pilot;
+    private final RecordingInput input;
+    private final RewindBuffer rewind;
+    private final SnapshotBuffer snapshots;
+    private final SimClock clock = new SimClock();
+    private long ticks;
+
+    // Written by the window thread
+    private volatile boolean isRunning = true;
+    private volatile int readyLevel = -1;
+
+    // Incremented when a batch of ticks starts and again when its snapshot is published, so odd while busy.
+    // Only written by the simulation thread.
+    private volatile long busyCount;
+
+
+    @Override
+    public void run(){
+
+        FrameProfiler profiler = session.getWorld().getProfiler();
+
+        if(rewind != null)
+            rewind.record(session, input.getLog().size());
+
+        while(isRunning) {
+
+            long now = System.nanoTime();
+
+            // Holds the level still, but keeps showing it to the window, until its textures are loaded.
+            // Presses on the loading screen are dropped rather than all reaching the first tick.
+            if(session.getLevelNumber() > readyLevel) {
+                events.discard();
+                clock.reset();
+                publish(now);
+                LockSupport.parkNanos(WAIT_NANOS);
+                continue;
+            }
+
+            int due = clock.advance(now);
+
+            if(due > 0) {
+
+                busyCount++;
+
+                for( ; due > 0; due--) {
+                    events.beginTick();
+
+                    if(rewind != null && events.isDown(REWIND_KEY))
+                        rewindTick();
+
+                    else {
+
+                        if(pilot != null)
+                            pilot.beginTick();
+
+                        session.update(input);
+                        input.endTick();
+
+                        if(rewind != null) {
+                            long start = profiler.start();
+                            rewind.record(session, input.getLog().size());
+                            profiler.stop(Phase.REWIND_RECORD, start);
+                        }
+                    }
+
+                    ticks++;
+                }
+
+                long start = profiler.start();
+                publish(now);
+                profiler.stop(Phase.SNAPSHOT, start);
+                busyCount++;
+            }
+
+            // Sleeps until the next tick is due
+            LockSupport.parkNanos((long) ((1 - clock.getAlpha()) * SimClock.TICK_NANOS));
+        }
+    }
+
+
+    /**
+     * Winds the Session back by one tick, if any are held, in place of playing a tick
+     */
+    private void rewindTick(){
+
+        long start = session.getWorld().getProfiler().start();
+        int tick = rewind.rewind(session);
+
+        if(tick >= 0)
+            input.getLog().truncate(tick);
+
+        events.endTick();
+        session.getWorld().getProfiler().stop(Phase.REWIND, start);
+    }
+
+
+    /**
+     * Records the Session into the back snapshot and publishes it
+     */
+    private void publish(long now){
+
+        long tickTime = now - (long) (clock.getAlpha() * SimClock.TICK_NANOS);
+        snapshots.getBack().record(session, ticks, tickTime);
+        snapshots.publish();
+    }
+
+
+    /**
+     * Lets ticks of level run, once the window has loaded it. Called by the window thread.
+     */
+    public void setReadyLevel(int level){ readyLevel = level; }
+
+
+    /**
+     * Stops the thread after its current batch of ticks. Called by the window thread.
+     */
+    public void stop(){ isRunning = false; }
+
+
+    /**
+     * @return count that is odd while a batch of ticks is running and changes with every batch
+     */
+    public long getBusyCount(){ return busyCount; }
+
+
+    /**
+     * @param session to run
+     * @param events keys from the window, taken at the start of each tick
+     * @param pilot policy flying alongside the player, which chooses keys at the start of each tick, or null
+     * @param input read by game logic, events or pilot recorded into an InputLog
+     * @param rewind to record every tick into and wind back from, or null to play without rewinding
+     * @param snapshots to publish into
+     */
+    Simulation(Session session, QueuedInput events, PilotInput pilot, RecordingInput input, RewindBuffer rewind,
+               SnapshotBuffer snapshots){
+
+        this.session = session;
+        this.events = events;
+        this.pilot = pilot;
+        this.input = input;
+        this.rewind = rewind;
+        this.snapshots = snapshots;
+    }
+}
@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Three WorldSnapshots passed between the simulation thread, which writes one, and the window thread,
+ * which draws another. The third is the latest one published. Both sides swap with it atomically,
+ * so neither waits for the other and the window always draws the newest whole snapshot.
+ */
+public class SnapshotBuffer {
+
+    private final AtomicReference<WorldSnapshot> latest;
+
+    // Only touched by the writer
+    private WorldSnapshot back;
+
+    // Only touched by the reader
+    private WorldSnapshot front;
+
+
+    /**
+     * @return snapshot to record into. Only called by the writer.
+     */
+    public WorldSnapshot getBack(){ return back; }
+
+
+    /**
+     * Makes the recorded snapshot the latest one, taking back whichever the reader is not using
+     */
+    public void publish(){
+
+        back.setIsFresh(true);
+        back = latest.getAndSet(back);
+    }
+
+
+    /**
+     * Takes the latest snapshot if one has been published since the last read. Only called by the reader.
+     * @return newest snapshot, which stays valid until the next read
+     */
+    public WorldSnapshot read(){
+
+        if(latest.get().getIsFresh()) {
+            front = latest.getAndSet(front);
+            front.setIsFresh(false);
+        }
+
+        return front;
+    }
+
+
+    /**
+     * @param measure renderer with the font text is drawn in, to measure text with
+     */
+    SnapshotBuffer(Renderer measure){
+
+        back = new WorldSnapshot(measure);
+        front = new WorldSnapshot(measure);
+        latest = new AtomicReference<>(new WorldSnapshot(measure));
+    }
+}
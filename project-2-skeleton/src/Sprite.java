@@ -0,0 +1,210 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Image used by Game Elements, found by name such as "level-1/flame". Only the width and height are read on
+ * creation so that game logic can run without a window. Textures are loaded by the AssetManager of the window.
+ * Once AtlasPacker has been run by the build, sprites are regions of shared atlas pages, read from its index.
+ * Otherwise each sprite is its own png file under res.
+ * Each sprite is drawn on one Layer and from one texture, so a RenderQueue can group draws of the same texture.
+ * Sprites that are collided with also read a CollisionMask of their pixels when made, from the same pixels
+ * they are drawn with, so from their region of the atlas page when there is an atlas.
+ * Sprites are made once per class and shared by every game.
+ */
+public class Sprite {
+
+    // PNG files store width and height as the first fields of the IHDR chunk, right after the signature
+    private final static int PNG_DIMENSIONS_OFFSET = 16;
+    private final static AtomicInteger NEXT_ID = new AtomicInteger();
+    private final static String RES = "project-2-skeleton/res/";
+    private final static String ATLAS = RES + "atlas/";
+    private final static String EXTENSION = ".png";
+    private final static AtlasIndex INDEX = AtlasIndex.loadIfPresent(Paths.get(ATLAS, AtlasIndex.FILE_NAME));
+    private final static int PAGE_COUNT = INDEX == null ? 0 : INDEX.getPageCount();
+
+    // Atlas page last decoded for masks. Sprites of a class are mostly on one page, so it is seldom decoded twice.
+    private static BufferedImage maskPage;
+    private static int maskPageNumber = -1;
+
+    private final String name;
+    private final String path;
+    private final AtlasRegion region;
+    private final Layer layer;
+    private final int id;
+    private final double width;
+    private final double height;
+    private final String texturePath;
+    private final CollisionMask mask;
+
+
+    /**
+     * @return path of file of the texture the sprite is drawn from, which is its atlas page if it has a region
+     */
+    public String getTexturePath(){ return texturePath; }
+
+
+    /**
+     * Finds texture files holding sprites of a group, so they can be loaded before any of them is drawn
+     * @param group directory under res, such as "level-1"
+     * @return paths of atlas pages of group, or of png files in the directory if there is no atlas
+     */
+    public static List<String> getTexturePaths(String group){
+
+        List<String> paths = new ArrayList<>();
+
+        if(INDEX != null) {
+
+            for(int page = 0; page < PAGE_COUNT; page++)
+                if(INDEX.getGroup(page).equals(group))
+                    paths.add(ATLAS + INDEX.getPage(page));
+
+            return paths;
+        }
+
+        try(Stream<Path> files = Files.list(Paths.get(RES, group))){
+            files.map(file -> RES + group + "/" + file.getFileName())
+                 .filter(file -> file.endsWith(EXTENSION))
+                 .sorted()
+                 .forEach(paths::add);
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("Could not list sprites of " + group, e);
+        }
+
+        return paths;
+    }
+
+
+    /**
+     * @return region of atlas page holding sprite, or null if sprite is its own image file
+     */
+    public AtlasRegion getRegion(){ return region; }
+
+
+    /**
+     * @return number of texture the sprite is drawn from, shared by all sprites on the same atlas page
+     */
+    public int getTexture(){ return region == null ? PAGE_COUNT + id : region.getPage(); }
+
+
+    /**
+     * @return name of sprite, which is its path under res without ".png"
+     */
+    public String getName(){ return name; }
+
+
+    /**
+     * @return width of sprite in pixels
+     */
+    public double getWidth(){ return width; }
+
+
+    /**
+     * @return height of sprite in pixels
+     */
+    public double getHeight(){ return height; }
+
+
+    /**
+     * @return path of image file of sprite on its own, used when there is no atlas
+     */
+    public String getPath(){ return path; }
+
+
+    /**
+     * @return pixels of sprite that can be collided with, or null if sprite is never collided with
+     */
+    public CollisionMask getMask(){ return mask; }
+
+
+    /**
+     * @return layer sprite is drawn on
+     */
+    public Layer getLayer(){ return layer; }
+
+
+    /**
+     * @return number of sprite, counting from 0 in order of creation
+     */
+    public int getId(){ return id; }
+
+
+    /**
+     * Makes a sprite that is never collided with
+     * @param name of sprite, which is its path under res without ".png"
+     * @param layer to draw sprite on
+     */
+    Sprite(String name, Layer layer){ this(name, layer, false); }
+
+
+    /**
+     * Finds sprite in the atlas, or else reads dimensions of its image file without decoding it.
+     * Atlas page or image file is only decoded for sprites that are collided with, to read their mask.
+     * @param name of sprite, which is its path under res without ".png"
+     * @param layer to draw sprite on
+     * @param isCollided true to read a mask of the pixels of sprite
+     */
+    Sprite(String name, Layer layer, boolean isCollided){
+
+        this.name = name;
+        this.layer = layer;
+        path = RES + name + EXTENSION;
+        region = INDEX == null ? null : INDEX.get(name);
+        texturePath = region == null ? path : ATLAS + INDEX.getPage(region.getPage());
+        id = NEXT_ID.getAndIncrement();
+        mask = !isCollided ? null : region == null ? CollisionMask.read(path) : readMask(region);
+
+        if(region != null) {
+            width = region.getWidth();
+            height = region.getHeight();
+            return;
+        }
+
+        try(DataInputStream in = new DataInputStream(new FileInputStream(path))){
+            in.skipBytes(PNG_DIMENSIONS_OFFSET);
+            width = in.readInt();
+            height = in.readInt();
+        }
+        catch(IOException e){
+            throw new UncheckedIOException("Could not read sprite " + path, e);
+        }
+    }
+
+
+    /**
+     * Reads mask of a sprite from its region of its atlas page, decoding the page unless it was the last one read.
+     * Sprites are made by whichever thread first uses their class, so pages are read one at a time.
+     */
+    private static synchronized CollisionMask readMask(AtlasRegion region){
+
+        if(region.getPage() != maskPageNumber) {
+
+            String page = ATLAS + INDEX.getPage(region.getPage());
+
+            try {
+                maskPage = ImageIO.read(Paths.get(page).toFile());
+            }
+            catch(IOException e){
+                throw new UncheckedIOException("Could not read mask page " + page, e);
+            }
+
+            if(maskPage == null)
+                throw new UncheckedIOException(new IOException(page + " is not an image"));
+
+            maskPageNumber = region.getPage();
+        }
+
+        return CollisionMask.read(maskPage, region.getX(), region.getY(), region.getWidth(), region.getHeight());
+    }
+}
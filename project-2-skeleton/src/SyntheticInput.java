@@ -0,0 +1,46 @@
+import bagel.Keys;
+
+import java.util.EnumSet;
+
+/**
+ * Input made up by a program instead of a keyboard. Used for headless simulation.
+ */
+public class SyntheticInput implements GameInput {
+
+    private final EnumSet<Keys> down = EnumSet.noneOf(Keys.class);
+    private final EnumSet<Keys> pressed = EnumSet.noneOf(Keys.class);
+
+
+    @Override
+    public boolean isDown(Keys key){ return down.contains(key); }
+
+
+    @Override
+    public boolean wasPressed(Keys key){ return pressed.contains(key); }
+
+
+    /**
+     * Presses key and holds it down until released
+     */
+    public void press(Keys key){
+
+        if(down.add(key))
+            pressed.add(key);
+    }
+
+
+    /**
+     * Releases key
+     */
+    public void release(Keys key){ down.remove(key); }
+
+
+    /**
+     * Releases all keys
+     */
+    public void releaseAll(){ down.clear(); }
+
+
+    @Override
+    public void endTick(){ pressed.clear(); }
+}
@@ -0,0 +1,147 @@
+import java.util.HashMap;
+
+/**
+ * Widths of strings drawn by a Level, measured once per font and kept, so that constant text is not measured
+ * every frame. Numbers such as the score are drawn one digit at a time from constant digit strings,
+ * so drawing them never builds a new string.
+ */
+public class TextLayout {
+
+    private final static String[] DIGITS = new String[]{"0", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+    private final static String MINUS = "-";
+    private final static int MAX_DIGITS = 10;
+
+    // Widths are only valid for the font of the renderer they were measured with
+    private final HashMap<String, Double> widths = new HashMap<>();
+    private final int[] digits = new int[MAX_DIGITS];
+    private Renderer measured;
+
+
+    /**
+     * @return width of text in the font of renderer, measured on first use.
+     * Digits are all measured along with the first text, so that a score reaching a new digit makes no objects.
+     */
+    public double getWidth(Renderer renderer, String text){
+
+        if(renderer != measured) {
+            widths.clear();
+            measured = renderer;
+
+            for(int digit = 0; digit < DIGITS.length; digit++)
+                measure(renderer, DIGITS[digit]);
+
+            measure(renderer, MINUS);
+        }
+
+        Double width = widths.get(text);
+        return width == null ? measure(renderer, text) : width;
+    }
+
+
+    /**
+     * @return number of texts measured for the current renderer, each of which made objects once
+     */
+    public int getMeasuredCount(){ return widths.size(); }
+
+
+    /**
+     * Measures text and keeps its width
+     * @return width of text
+     */
+    private double measure(Renderer renderer, String text){
+
+        double width = renderer.getStringWidth(text);
+        widths.put(text, width);
+        return width;
+    }
+
+
+    /**
+     * Draws text centred across the Window
+     * @param y of baseline of text
+     */
+    public void drawCentred(Renderer renderer, String text, double y){
+        renderer.drawString(text, getCentredX(getWidth(renderer, text)), y);
+    }
+
+
+    /**
+     * Draws prefix followed by value, such as "SCORE: 12", without building a string
+     * @param x of left of prefix
+     * @param y of baseline of text
+     */
+    public void drawNumber(Renderer renderer, String prefix, int value, double x, double y){
+
+        renderer.drawString(prefix, x, y);
+        x += getWidth(renderer, prefix);
+
+        if(value < 0)
+            x = drawPart(renderer, MINUS, x, y);
+
+        for(int digit = splitDigits(value) - 1; digit >= 0; digit--)
+            x = drawPart(renderer, DIGITS[digits[digit]], x, y);
+    }
+
+
+    /**
+     * Draws prefix followed by value centred across the Window, without building a string
+     * @param y of baseline of text
+     */
+    public void drawNumberCentred(Renderer renderer, String prefix, int value, double y){
+        drawNumber(renderer, prefix, value, getCentredX(getNumberWidth(renderer, prefix, value)), y);
+    }
+
+
+    /**
+     * @return width of prefix followed by value, adding up widths of its digits
+     */
+    public double getNumberWidth(Renderer renderer, String prefix, int value){
+
+        double width = getWidth(renderer, prefix);
+
+        if(value < 0)
+            width += getWidth(renderer, MINUS);
+
+        for(int digit = splitDigits(value) - 1; digit >= 0; digit--)
+            width += getWidth(renderer, DIGITS[digits[digit]]);
+
+        return width;
+    }
+
+
+    /**
+     * Draws one part of a line of text
+     * @return x-coordinate of the end of the part
+     */
+    private double drawPart(Renderer renderer, String part, double x, double y){
+
+        renderer.drawString(part, x, y);
+        return x + getWidth(renderer, part);
+    }
+
+
+    /**
+     * Puts decimal digits of value into digits, least significant first
+     * @return number of digits
+     */
+    private int splitDigits(int value){
+
+        int count = 0;
+
+        // Digits of a negative value are taken from it as a negative number, which also works for Integer.MIN_VALUE
+        int rest = value < 0 ? value : -value;
+
+        do {
+            digits[count++] = -(rest % 10);
+            rest /= 10;
+        } while(rest != 0);
+
+        return count;
+    }
+
+
+    /**
+     * @return x-coordinate of left of text of width centred across the Window
+     */
+    private static double getCentredX(double width){ return (ShadowFlap.WINDOW_WIDTH - width)/2.0; }
+}
@@ -1,3 +1,5 @@
+import java.nio.ByteBuffer;
+
 import static java.lang.Math.pow;
 
 /**
@@ -38,6 +40,22 @@ public class Timescale {
     public double getTimescaleEffect(){ return timescaleEffect; }
 
 
+    /**
+     * Writes timescale into a saved game
+     */
+    void write(ByteBuffer buffer){ buffer.putInt(timescale).putDouble(timescaleEffect); }
+
+
+    /**
+     * Reads timescale written by write
+     */
+    void read(ByteBuffer buffer){
+
+        timescale = buffer.getInt();
+        timescaleEffect = buffer.getDouble();
+    }
+
+
     /**
      * Default constructor for timescale. Initialises timescale and its effects
      */
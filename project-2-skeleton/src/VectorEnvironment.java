@@ -0,0 +1,227 @@
+import bagel.Keys;
+
+/**
+ * Many headless sessions stepped in lockstep for training bots, in the style of a reinforcement learning
+ * environment: reset once, then step every session by one tick with one action each.
+ * Observations, rewards and whether each episode ended are written into arrays made once, which are
+ * returned by the getters and overwritten by every step, so stepping makes no objects.
+ * An episode that ends is replaced by a new session straight away, whose first observation is written
+ * in place of the last one of the episode.
+ * Start screens are skipped by pressing SPACE for the bot, so every step an action is taken for is one of play.
+ *
+ * VectorEnvironmentCheck under test steps sessions with random actions and prints steps per second.
+ */
+public class VectorEnvironment {
+
+    /**
+     * Action bits: FLAP holds SPACE and SHOOT holds S for the step
+     */
+    public final static int FLAP = 1;
+    public final static int SHOOT = 2;
+
+    /**
+     * Values observed of each session, one after another for each session:
+     * bird y, bird velocity, whether there is a next pipe, distance to it along x, top and bottom of its gap
+     * from the bird, whether it is steel, whether its flame is on, whether a weapon is equipped,
+     * and whether there is a weapon to pick up and its distance along x and y
+     */
+    public final static int OBSERVATION_SIZE = 12;
+
+    private final static double LOSS_REWARD = -1;
+
+    private final Session[] sessions;
+    private final SyntheticInput[] inputs;
+    private final int[] levels;
+    private final int[] scores;
+    private final int[] ticks;
+    private final int maxTicks;
+    private long nextSeed;
+    private long episodes;
+
+    private final double[] observations;
+    private final double[] rewards;
+    private final boolean[] dones;
+
+
+    /**
+     * Starts a new session in every slot
+     * @return observations of all sessions, OBSERVATION_SIZE for each
+     */
+    public double[] reset(){
+
+        for(int session = 0; session < sessions.length; session++) {
+            start(session);
+            observe(session);
+            rewards[session] = 0;
+            dones[session] = false;
+        }
+
+        return observations;
+    }
+
+
+    /**
+     * Runs one tick of every session, replacing sessions whose episode ended
+     * @param actions for each session, made of FLAP and SHOOT bits
+     */
+    public void step(int[] actions){
+
+        for(int session = 0; session < sessions.length; session++) {
+
+            Session current = sessions[session];
+            SyntheticInput input = inputs[session];
+
+            input.releaseAll();
+
+            if(!getPlayed(current).getIsGameOn())
+                input.press(Keys.SPACE);
+
+            if((actions[session] & FLAP) != 0)
+                input.press(Keys.SPACE);
+
+            if((actions[session] & SHOOT) != 0)
+                input.press(Keys.S);
+
+            current.update(input);
+            input.endTick();
+            ticks[session]++;
+
+            // Score goes back to 0 in a new level, having been rewarded as it was made in the last one
+            int score = current.getLevel().getScore();
+            double reward = current.getLevelNumber() == levels[session] ? score - scores[session] : score;
+            levels[session] = current.getLevelNumber();
+            scores[session] = score;
+
+            if(current.getIsOver())
+                reward += LOSS_REWARD;
+
+            rewards[session] = reward;
+            dones[session] = current.getIsOver() || current.getIsWon() || ticks[session] >= maxTicks;
+
+            if(dones[session]) {
+                episodes++;
+                start(session);
+            }
+
+            observe(session);
+        }
+    }
+
+
+    /**
+     * @return observations of all sessions after the last step, OBSERVATION_SIZE for each
+     */
+    public double[] getObservations(){ return observations; }
+
+
+    /**
+     * @return reward of each session for the last step: score made, less 1 for losing
+     */
+    public double[] getRewards(){ return rewards; }
+
+
+    /**
+     * @return true for each session whose episode ended in the last step, by losing, winning or running out of ticks
+     */
+    public boolean[] getDones(){ return dones; }
+
+
+    /**
+     * @return number of sessions stepped at once
+     */
+    public int size(){ return sessions.length; }
+
+
+    /**
+     * @return number of episodes ended since the environment was made
+     */
+    public long getEpisodes(){ return episodes; }
+
+
+    /**
+     * Replaces the session in a slot with a new one, started past its start screen
+     */
+    private void start(int session){
+
+        Session current = new Session(nextSeed++);
+        SyntheticInput input = inputs[session];
+
+        input.releaseAll();
+        input.press(Keys.SPACE);
+        current.update(input);
+        input.endTick();
+
+        sessions[session] = current;
+        levels[session] = current.getLevelNumber();
+        scores[session] = 0;
+        ticks[session] = 0;
+    }
+
+
+    /**
+     * Writes observations of a session into its part of the array
+     */
+    private void observe(int session){ observe(sessions[session].getLevel(), observations, session * OBSERVATION_SIZE); }
+
+
+    /**
+     * Writes OBSERVATION_SIZE values observed of a level into an array, scaled to about -1 to 1 by the Window size.
+     * Shared with bots that play outside of an environment, so they see the game as they were trained on it.
+     * @param offset of first value in array
+     */
+    static void observe(Level level, double[] into, int offset){
+
+        Bird bird = level.getBird();
+        PipeSet pipe = level.getNextPipe();
+        Weapon weapon = level.getNextWeapon();
+
+        into[offset] = bird.getY() / ShadowFlap.WINDOW_HEIGHT;
+        into[offset + 1] = bird.getYVelocity() / Bird.getMaxVelocity();
+        into[offset + 2] = pipe == null ? 0 : 1;
+        into[offset + 3] = pipe == null ? 0 : (pipe.getX() - bird.x) / ShadowFlap.WINDOW_WIDTH;
+        into[offset + 4] = pipe == null ? 0 : (pipe.getY() - bird.getY()) / ShadowFlap.WINDOW_HEIGHT;
+        into[offset + 5] = pipe == null ? 0 : (pipe.getBox(1).top() - bird.getY()) / ShadowFlap.WINDOW_HEIGHT;
+
+        // Only steel pipes have flames
+        boolean isSteel = pipe != null && pipe.getNumBoxes() > PipeSet.getNumPipeBox();
+        into[offset + 6] = isSteel ? 1 : 0;
+        into[offset + 7] = isSteel && pipe.flameCollide() ? 1 : 0;
+        into[offset + 8] = bird.getIsWeaponEquipped() ? 1 : 0;
+        into[offset + 9] = weapon == null ? 0 : 1;
+        into[offset + 10] = weapon == null ? 0 : (weapon.getBox(0).getX() - bird.x) / ShadowFlap.WINDOW_WIDTH;
+        into[offset + 11] = weapon == null ? 0 : (weapon.getBox(0).getY() - bird.getY()) / ShadowFlap.WINDOW_HEIGHT;
+    }
+
+
+    /**
+     * @return level the next update of session plays, which is the next level once one is won
+     */
+    private static Level getPlayed(Session session){
+
+        Level level = session.getLevel();
+        return level.getIsWin() ? session.getLevel(session.getLevelNumber() + 1) : level;
+    }
+
+
+    /**
+     * @param count of sessions stepped at once
+     * @param seed of the first session, with each new session taking the next seed
+     * @param maxTicks after which an episode ends even if the bird is alive
+     */
+    VectorEnvironment(int count, long seed, int maxTicks){
+
+        this.maxTicks = maxTicks;
+        nextSeed = seed;
+        sessions = new Session[count];
+        inputs = new SyntheticInput[count];
+        levels = new int[count];
+        scores = new int[count];
+        ticks = new int[count];
+        observations = new double[count * OBSERVATION_SIZE];
+        rewards = new double[count];
+        dones = new boolean[count];
+
+        for(int session = 0; session < count; session++)
+            inputs[session] = new SyntheticInput();
+    }
+}
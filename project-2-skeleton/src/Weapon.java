@@ -1,20 +1,14 @@
-import bagel.Image;
-import bagel.Window;
-import bagel.util.Point;
-import bagel.util.Rectangle;
-
-import java.util.ArrayList;
-import java.util.Random;
+import java.nio.ByteBuffer;
 
 /**
  * Weapon in Level 1 of Flappy Birds Game. Weapon is a Game Element.
- *  Weapon can move and thus collide with other movable objects.
+ *  Weapons are moved all at once by the EntityStore of weapons and can collide with other objects.
  */
-public class Weapon extends GameElement implements Movable{
+public class Weapon extends GameElement implements Collidable{
 
     // All provided images
-    private final static Image ROCK = new Image("project-2-skeleton/res/level-1/rock.png");
-    private final static Image BOMB = new Image("project-2-skeleton/res/level-1/bomb.png");
+    private final static Sprite ROCK = new Sprite("level-1/rock", Layer.WEAPONS, true);
+    private final static Sprite BOMB = new Sprite("level-1/bomb", Layer.WEAPONS, true);
 
     // Constants applicable to entire class
     private final static int MAX_SPAWN = 500;
@@ -23,23 +17,29 @@ public class Weapon extends GameElement implements Movable{
     private final static int BIRD_VELOCITY = 0;
     private final static int SHOOT_FRAMES = 25;
 
-    private static int spawnRate = PipeSet.getSpawnRate();
+    // Flags of a weapon in a saved game, followed by frames left and its box
+    private final static int ROCK_FLAG = 1, EQUIPPED = 2, SHOT = 4, DESTROYED = 8, JOINING = 16;
+    final static int BYTES = 1 + Integer.BYTES + Box.BYTES;
 
-    // Weapon is a rock or not a rock (a bomb)
-    private final boolean IS_ROCK;
+    // Weapon is a rock or not a rock (a bomb). Only changes when Weapon is spawned again from the pool
+    private boolean isRock;
 
-    private int xVelocity;
     private boolean isEquipped;
     private boolean isShot;
     private boolean isDestroyed;
+    private boolean isJoining;
     private int frames;
-    private Rectangle box;
+    private final Box box;
+    private World world;
+
+    // Share of the last move still to come when the pipe last found by findPipe was touched, higher being sooner
+    private double contact;
 
     /**
-     * Renders Weapon on Screen
+     * Updates weapon once the weapon store has moved it, to the left if unequipped and to the right if shot.
+     * Only an equipped weapon, which follows the bird, or a shot one, which burns out, changes here.
      */
-    @Override
-    public void render() {
+    public void update() {
 
         // Weapon only lasts for SHOOT_FRAMES after being shot
         if(isShot)
@@ -48,26 +48,32 @@ public class Weapon extends GameElement implements Movable{
         if(Integer.compare(frames, 0) == 0)
             isDestroyed = true;
 
-        super.render();
-        this.move();
+        // Weapon is rendered on centre of right border of bird
+        if(isEquipped) {
+            Bird bird = world.getBird();
+            box.set(bird.x + bird.elementImage.getWidth()/2.0, bird.y, elementImage.getMask());
+
+            // Weapon jumps onto the bird when picked up rather than sweeping across to it
+            if(isJoining) {
+                box.savePosition();
+                isJoining = false;
+            }
+        }
     }
 
 
     /**
-     * Moves weapon to left if unequipped and to right if shot
+     * @return x-coordinate to draw at, read from the store
      */
     @Override
-    public void move() {
+    protected double renderX(double alpha){ return box.renderX(alpha); }
 
-        // Weapon is rendered on centre of right border of bird
-        if(isEquipped) {
-            x = Bird.getInstance().x + Bird.getInstance().elementImage.getWidth()/2.0;
-            y = Bird.getInstance().y;
-        }
 
-        else
-            x -= xVelocity;
-    }
+    /**
+     * @return y-coordinate to draw at, read from the store
+     */
+    @Override
+    protected double renderY(double alpha){ return box.renderY(alpha); }
 
 
     /**
@@ -75,48 +81,83 @@ public class Weapon extends GameElement implements Movable{
      */
     public void collideBird() {
 
-        isEquipped = true;
-        xVelocity = BIRD_VELOCITY;
+        isEquipped = isJoining = true;
+        box.setXVelocity(BIRD_VELOCITY);
     }
 
 
     /**
      * Checking and Effects of collisions with pipes and flames
-     * @param pipes arraylist
+     * @param pipes queue of Level, of which only pipes to the right of the bird are checked
      * @return true for destroying a pipe
      */
-    public boolean collidePipe(ArrayList<PipeSet> pipes){
+    public boolean collidePipe(PipeQueue pipes){
 
         // A weapon that is not shot can not collide or be destroyed
         if(!isShot)
             return false;
 
-        for(PipeSet pipe: pipes)
-
-            // Checking all boxes of pipe
-            for(int pipeBox = 0; pipeBox < pipe.getBox().length; pipeBox++)
+        int currentPipe = findPipe(pipes);
 
-                // Weapon destroyed for successful collision with pipe or flame
-                if(box.intersects(pipe.getBox()[pipeBox])){
-                    isDestroyed = true;
+        if(currentPipe < 0)
+            return false;
 
-                    // Check for destruction of pipe (unless Weapon collided with flame)
-                    if(pipe.collideWeapon(IS_ROCK) && pipeBox < PipeSet.getNumPipeBox()) {
-                        pipes.remove(pipe);
-                        return true;
-                    }
+        // Weapon destroyed for successful collision with pipe or flame
+        PipeSet pipe = pipes.getUnscored(currentPipe);
+        isDestroyed = true;
 
-                    return false;
-                }
+        // Check for destruction of pipe (unless Weapon collided with flame)
+        if(pipe.collideWeapon(isRock) && pipe.findBox(box) < PipeSet.getNumPipeBox()) {
+            pipes.removeUnscored(currentPipe).release();
+            return true;
+        }
 
         return false;
     }
 
 
     /**
-     * Sets spawnRate of Weapon class according to timescale
+     * Finds first pipe to the right of the bird that weapon overlaps at any time during the last move,
+     * without any effects of the collision. When it was touched is kept for getContact.
+     * @param pipes queue of Level
+     * @return index of pipe among unscored pipes, or -1 if weapon overlaps none
+     */
+    public int findPipe(PipeQueue pipes){
+
+        if(pipes.getUnscoredCount() == 0)
+            return -1;
+
+        // All pipes move together, so the weapon sweeps across the span between where it was and is as seen from them
+        double move = box.getMoveX() - pipes.getUnscored(0).getBox(0).getMoveX();
+        double left = box.left() - Double.max(move, 0);
+        double right = box.right() - Double.min(move, 0);
+
+        // Broadphase: only pipes whose extent along x overlaps the span swept by the weapon are candidates
+        for(int currentPipe = pipes.findUnscored(left); currentPipe < pipes.getUnscoredCount(); currentPipe++) {
+
+            PipeSet pipe = pipes.getUnscored(currentPipe);
+
+            // Pipes are in order of x, so no pipe after this one can reach the weapon either
+            if(pipe.getLeft() >= right)
+                break;
+
+            // Narrowphase: checking all boxes of pipe along the whole move
+            if(pipe.findBox(box) >= 0) {
+                contact = pipe.getContact();
+                return currentPipe;
+            }
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * @return share of the last move still to come when the pipe found by findPipe was first touched,
+     * from 1 at the start of the move to 0 at its end, so higher is sooner
      */
-    public static void setSpawnRate(){ spawnRate = PipeSet.getSpawnRate(); }
+    public double getContact(){ return contact; }
+
 
     /**
      * @return isShot
@@ -129,7 +170,7 @@ public class Weapon extends GameElement implements Movable{
      */
     public void shoot(){
 
-        xVelocity = -SHOT_VELOCITY;
+        box.setXVelocity(-SHOT_VELOCITY);
         isShot = true;
         isEquipped = false;
     }
@@ -142,20 +183,33 @@ public class Weapon extends GameElement implements Movable{
 
 
     /**
-     * @return box around weapon for collision detection
+     * Places weapon at (x, y) without it having moved there. Used by benchmarks to lay out many weapons at once.
      */
-    @Override
-    public Rectangle[] getBox() {
+    void placeAt(double x, double y){
 
-        box = elementImage.getBoundingBoxAt(new Point(x, y));
-        return new Rectangle[]{box};
+        box.set(x, y, elementImage.getMask());
+        box.savePosition();
     }
 
 
     /**
-     * @return spawnRate
+     * @return true if weapon was never picked up and has moved past the left side of the Window
      */
-    public static int getSpawnRate(){ return spawnRate; }
+    public boolean getIsOffScreen(){ return !isEquipped && !isShot && box.getX() < 0; }
+
+
+    /**
+     * @return number of boxes around weapon
+     */
+    @Override
+    public int getNumBoxes() { return 1; }
+
+
+    /**
+     * @return box around weapon for collision detection
+     */
+    @Override
+    public Box getBox(int index) { return box; }
 
 
     /**
@@ -165,26 +219,92 @@ public class Weapon extends GameElement implements Movable{
 
         // If Weapon is equipped, speed doesn't change. If never equipped
         if(!isEquipped && !isShot)
-            xVelocity = PipeSet.getXVelocity();
+            box.setXVelocity(world.getPipeXVelocity());
+    }
+
+
+    /**
+     * Spawns a Weapon at the right of the Window, reusing a removed one if possible
+     * @param world the Weapon belongs to, for its pool, bird, speed and random source
+     * @return new Weapon
+     */
+    public static Weapon spawn(World world){
+
+        Weapon weapon = world.getWeaponPool().acquire();
+        weapon.reset(world);
+        return weapon;
     }
 
 
     /**
-     * Default constructor for Weapon class that initialises all attributes
+     * Gives Weapon back to the pool once it is removed from the Level
      */
-    Weapon(){
+    public void release(){
+
+        box.free();
+        world.getWeaponPool().release(this);
+    }
+
+
+    /**
+     * Initialises all attributes as for a new Weapon
+     */
+    private void reset(World world){
+
+        this.world = world;
+        box.take();
 
         // Weapon is either a rock or not a rock (bomb)
-        Random r = new Random();
-        IS_ROCK = r.nextBoolean();
-        elementImage = IS_ROCK ? ROCK : BOMB;
+        isRock = world.getRandom().nextBoolean();
+        elementImage = isRock ? ROCK : BOMB;
 
         // Spawn Position of weapon
-        x = Window.getWidth();
-        y = r.nextInt(MAX_SPAWN - MIN_SPAWN) + MIN_SPAWN;
+        placeAt(ShadowFlap.WINDOW_WIDTH, world.getRandom().nextInt(MAX_SPAWN - MIN_SPAWN) + MIN_SPAWN);
 
-        xVelocity = PipeSet.getXVelocity();
-        isEquipped = isShot = isDestroyed = false;
-        frames = (IS_ROCK ? SHOOT_FRAMES : SHOOT_FRAMES * 2);
+        box.setXVelocity(world.getPipeXVelocity());
+        isEquipped = isJoining = isShot = isDestroyed = false;
+        frames = (isRock ? SHOOT_FRAMES : SHOOT_FRAMES * 2);
     }
+
+
+    /**
+     * Reads a Weapon written by write, reusing a removed one if possible
+     * @param world the Weapon belongs to
+     * @return restored Weapon
+     */
+    static Weapon read(World world, ByteBuffer buffer){
+
+        Weapon weapon = world.getWeaponPool().acquire();
+        weapon.world = world;
+        weapon.box.take();
+        int flags = buffer.get();
+        weapon.isRock = (flags & ROCK_FLAG) != 0;
+        weapon.isEquipped = (flags & EQUIPPED) != 0;
+        weapon.isShot = (flags & SHOT) != 0;
+        weapon.isDestroyed = (flags & DESTROYED) != 0;
+        weapon.isJoining = (flags & JOINING) != 0;
+        weapon.elementImage = weapon.isRock ? ROCK : BOMB;
+        weapon.frames = buffer.getInt();
+        weapon.box.read(buffer, weapon.elementImage.getMask());
+        return weapon;
+    }
+
+
+    /**
+     * Writes Weapon into a saved game, taking BYTES bytes
+     */
+    void write(ByteBuffer buffer){
+
+        buffer.put((byte) ((isRock ? ROCK_FLAG : 0) | (isEquipped ? EQUIPPED : 0) | (isShot ? SHOT : 0)
+                | (isDestroyed ? DESTROYED : 0) | (isJoining ? JOINING : 0)));
+        buffer.putInt(frames);
+        box.write(buffer);
+    }
+
+
+    /**
+     * Weapons are only made by the pool of a World
+     * @param store of weapons of the World, where the box of the weapon is kept
+     */
+    Weapon(EntityStore store){ box = new Box(store, EntityStore.NO_SLOT); }
 }
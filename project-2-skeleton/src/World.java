@@ -0,0 +1,251 @@
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Everything shared by the Game Elements of one game: the bird, the random source, stores of boxes,
+ * pools of removed elements, and the speed and spawn rates set by the level and timescale. Each Session has its own World and its Levels
+ * hand it to the elements they spawn, so any number of games can run side by side in one program.
+ */
+public class World {
+
+    // Speed of pipes and flames, and ticks between pipe spawns, at the default timescale
+    private final static int PIPE_VELOCITY = 3;
+    private final static int PIPE_SPAWN_RATE = 120;
+
+    // Elements made up front for each pool. At most 5 pipes, 4 flames and 6 weapons were ever alive at once
+    // over 300 seeds of both modes with scripted and random input, so these leave some room
+    private final static int RESERVED_PIPES = 8;
+    private final static int RESERVED_FLAMES = 8;
+    private final static int RESERVED_WEAPONS = 8;
+
+    private final Bird bird;
+    private final GameRandom random;
+    private final FrameProfiler profiler;
+
+    // Timescale every level starts at, kept so that levelling up makes no objects
+    private final Timescale defaultTimescale;
+
+    // Boxes of pipes and flames, which all move together, and of weapons, which move after collisions are checked
+    private final EntityStore pipeStore;
+    private final EntityStore weaponStore;
+
+    // Removed elements are kept and reused for later spawns
+    private final Pool<PipeSet> pipePool;
+    private final Pool<Flame> flamePool;
+    private final Pool<Weapon> weaponPool;
+
+    // Attributes that may be changed during runtime
+    private int level;
+    private int pipeXVelocity;
+    private int pipeSpawnRate;
+    private int weaponSpawnRate;
+
+    // Speed of pipes and flames relative to the level, raised over time by endless mode
+    private double speedUp = 1;
+    private double timescaleEffect = 1;
+
+    // Slices each move is split into for collision checks, 1 to check each whole move at once
+    private int collisionSteps = 1;
+
+
+    /**
+     * Sets speed and spawn rate of pipes and flames based on timescale
+     * @param timescale for change in xVelocity and spawnRate of pipes and flames
+     */
+    public void setTimescale(Timescale timescale){
+
+        timescaleEffect = timescale.getTimescaleEffect();
+        pipeXVelocity = (int)(PIPE_VELOCITY * timescaleEffect * speedUp);
+        pipeSpawnRate = (int)(PIPE_SPAWN_RATE / timescaleEffect);
+        pipeStore.setAllXVelocity(pipeXVelocity);
+    }
+
+
+    /**
+     * Speeds up pipes and flames on top of the timescale, keeping the timescale
+     * @param speedUp multiplier of speed, 1 for the speed of the level
+     */
+    public void setSpeedUp(double speedUp){
+
+        this.speedUp = speedUp;
+        pipeXVelocity = (int)(PIPE_VELOCITY * timescaleEffect * speedUp);
+        pipeStore.setAllXVelocity(pipeXVelocity);
+    }
+
+
+    /**
+     * Sets spawn rate of weapons to spawn rate of pipes
+     */
+    public void updateWeaponSpawnRate(){ weaponSpawnRate = pipeSpawnRate; }
+
+
+    /**
+     * Levels up pipes and resets timescale
+     */
+    public void levelUp(){
+
+        level++;
+        setTimescale(defaultTimescale);
+    }
+
+
+    /**
+     * @return level of pipes, 0 for only plastic pipes
+     */
+    public int getLevel(){ return level; }
+
+
+    /**
+     * @return speed of pipes and flames to the left
+     */
+    public int getPipeXVelocity(){ return pipeXVelocity; }
+
+
+    /**
+     * @return ticks between pipe spawns
+     */
+    public int getPipeSpawnRate(){ return pipeSpawnRate; }
+
+
+    /**
+     * @return ticks between weapon spawns
+     */
+    public int getWeaponSpawnRate(){ return weaponSpawnRate; }
+
+
+    /**
+     * Splits each move into slices that collisions are checked along one after another, as if the game took
+     * that many smaller steps per tick. Swept checks find every collision along a whole move, so this should
+     * not change any outcome, and is there to show that it does not.
+     * @param collisionSteps slices per move, 1 to check each whole move at once
+     */
+    public void setCollisionSteps(int collisionSteps){
+
+        if(collisionSteps < 1)
+            throw new IllegalArgumentException("Collision steps must be at least 1, not " + collisionSteps);
+
+        this.collisionSteps = collisionSteps;
+    }
+
+
+    /**
+     * @return slices each move is split into for collision checks
+     */
+    public int getCollisionSteps(){ return collisionSteps; }
+
+
+    /**
+     * Keeps boxes of both stores as the last moves left them, to check collisions along slices of the moves
+     */
+    void beginSlices(){
+
+        pipeStore.beginSlices();
+        weaponStore.beginSlices();
+    }
+
+
+    /**
+     * Places boxes of both stores as if the last moves had only run from step to the next of collisionSteps
+     */
+    void slice(int step){
+
+        pipeStore.slice(step / (double) collisionSteps, (step + 1) / (double) collisionSteps);
+        weaponStore.slice(step / (double) collisionSteps, (step + 1) / (double) collisionSteps);
+    }
+
+
+    /**
+     * Puts boxes of both stores back where the whole last moves left them
+     */
+    void endSlices(){
+
+        pipeStore.endSlices();
+        weaponStore.endSlices();
+    }
+
+
+    /**
+     * @return bird of the game
+     */
+    public Bird getBird(){ return bird; }
+
+
+    /**
+     * @return random source of the game
+     */
+    public Random getRandom(){ return random; }
+
+
+    /**
+     * @return timer of phases of ticks and frames of the game, disabled until turned on
+     */
+    public FrameProfiler getProfiler(){ return profiler; }
+
+
+    /**
+     * @return store of boxes of pipes and flames
+     */
+    public EntityStore getPipeStore(){ return pipeStore; }
+
+
+    /**
+     * @return store of boxes of weapons, and of the bird which equipped weapons follow
+     */
+    public EntityStore getWeaponStore(){ return weaponStore; }
+
+
+    public Pool<PipeSet> getPipePool(){ return pipePool; }
+
+    public Pool<Flame> getFlamePool(){ return flamePool; }
+
+    public Pool<Weapon> getWeaponPool(){ return weaponPool; }
+
+
+    /**
+     * Writes level, speeds, spawn rates, random source and moves of stores into a saved game
+     */
+    void write(ByteBuffer buffer){
+
+        buffer.putInt(level).putInt(pipeXVelocity).putInt(pipeSpawnRate).putInt(weaponSpawnRate)
+                .putDouble(speedUp).putDouble(timescaleEffect).putLong(random.getState())
+                .putLong(pipeStore.getMoves()).putLong(weaponStore.getMoves());
+    }
+
+
+    /**
+     * Reads what write wrote. Elements in the stores are read by their owners.
+     */
+    void read(ByteBuffer buffer){
+
+        level = buffer.getInt();
+        pipeXVelocity = buffer.getInt();
+        pipeSpawnRate = buffer.getInt();
+        weaponSpawnRate = buffer.getInt();
+        speedUp = buffer.getDouble();
+        timescaleEffect = buffer.getDouble();
+        random.setState(buffer.getLong());
+        pipeStore.setMoves(buffer.getLong());
+        weaponStore.setMoves(buffer.getLong());
+    }
+
+
+    /**
+     * Initialises a new game at level 0 and default timescale
+     * @param seed for random source of the game
+     */
+    World(long seed){
+
+        random = new GameRandom(seed);
+        profiler = new FrameProfiler();
+        pipeStore = new EntityStore();
+        weaponStore = new EntityStore();
+        bird = new Bird(weaponStore);
+        pipePool = new Pool<>(() -> new PipeSet(pipeStore), RESERVED_PIPES);
+        flamePool = new Pool<>(Flame::new, RESERVED_FLAMES);
+        weaponPool = new Pool<>(() -> new Weapon(weaponStore), RESERVED_WEAPONS);
+        defaultTimescale = new Timescale();
+        level = 0;
+        setTimescale(defaultTimescale);
+        updateWeaponSpawnRate();
+    }
+}
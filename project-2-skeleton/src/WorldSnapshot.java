@@ -0,0 +1,223 @@
+import java.util.Arrays;
+
+/**
+ * Everything the window draws for one tick of a Session, recorded by the simulation thread and drawn by the
+ * window thread. The Level is rendered into it twice, at the start and at the end of the tick, so that the
+ * window can draw sprites anywhere between the two without reading the Level. Text is kept from the end of the tick,
+ * along with the loading text of the level and figures of the profiler timing the simulation thread.
+ * Snapshots are reused through a SnapshotBuffer, so recording does not allocate once the arrays have grown.
+ */
+public class WorldSnapshot implements Renderer {
+
+    private final static int DEFAULT_CAPACITY = 64;
+
+    // Renderer with the font text is drawn in, only used to measure text
+    private final Renderer measure;
+
+    private Sprite[] sprites = new Sprite[DEFAULT_CAPACITY];
+    private double[] fromXs = new double[DEFAULT_CAPACITY];
+    private double[] fromYs = new double[DEFAULT_CAPACITY];
+    private double[] toXs = new double[DEFAULT_CAPACITY];
+    private double[] toYs = new double[DEFAULT_CAPACITY];
+    private double[] rotations = new double[DEFAULT_CAPACITY];
+    private int size;
+    private int cursor;
+    private boolean isEnd;
+
+    private String[] texts = new String[DEFAULT_CAPACITY];
+    private double[] textXs = new double[DEFAULT_CAPACITY];
+    private double[] textYs = new double[DEFAULT_CAPACITY];
+    private int textSize;
+
+    // State of the Session after the tick
+    private long tick = -1;
+    private long tickTime;
+    private int level = -1;
+    private int score;
+    private boolean isOver;
+    private String loadingText;
+    private final ProfilerFigures profile = new ProfilerFigures();
+
+    // Set when published and cleared when taken, so the window only swaps in snapshots it has not drawn
+    private boolean isFresh;
+
+
+    /**
+     * Records a Session as it is after a tick
+     * @param tick number of ticks run so far
+     * @param tickTime when the tick was due, from System.nanoTime()
+     */
+    public void record(Session session, long tick, long tickTime){
+
+        this.tick = tick;
+        this.tickTime = tickTime;
+        level = session.getLevelNumber();
+        score = session.getLevel().getScore();
+        isOver = session.getIsOver();
+        loadingText = session.getLevel().getLoadingText();
+        profile.capture(session.getWorld().getProfiler());
+
+        for(int text = 0; text < textSize; text++)
+            texts[text] = null;
+
+        size = textSize = 0;
+        isEnd = false;
+        session.render(this, 0);
+
+        cursor = 0;
+        isEnd = true;
+        session.render(this, 1);
+
+        if(cursor != size)
+            throw new IllegalStateException("Level drew " + cursor + " sprites at end of tick but " + size + " at start");
+    }
+
+
+    /**
+     * Draws recorded sprites between their positions at the start and end of the tick, then the text
+     * @param alpha fraction of a tick passed since the tick
+     */
+    public void draw(Renderer renderer, double alpha){
+
+        for(int index = 0; index < size; index++) {
+
+            double x = fromXs[index] + (toXs[index] - fromXs[index]) * alpha;
+            double y = fromYs[index] + (toYs[index] - fromYs[index]) * alpha;
+
+            if(rotations[index] == 0)
+                renderer.draw(sprites[index], x, y);
+            else
+                renderer.draw(sprites[index], x, y, rotations[index]);
+        }
+
+        for(int text = 0; text < textSize; text++)
+            renderer.drawString(texts[text], textXs[text], textYs[text]);
+    }
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y){ draw(sprite, x, y, 0); }
+
+
+    @Override
+    public void draw(Sprite sprite, double x, double y, double rotation){
+
+        if(isEnd) {
+
+            if(cursor == size || sprites[cursor] != sprite)
+                throw new IllegalStateException("Level drew " + sprite.getName() + " only at end of tick");
+
+            toXs[cursor] = x;
+            toYs[cursor] = y;
+            cursor++;
+            return;
+        }
+
+        if(size == sprites.length)
+            grow();
+
+        sprites[size] = sprite;
+        fromXs[size] = x;
+        fromYs[size] = y;
+        rotations[size] = rotation;
+        size++;
+    }
+
+
+    @Override
+    public void drawString(String text, double x, double y){
+
+        if(!isEnd)
+            return;
+
+        if(textSize == texts.length) {
+            texts = Arrays.copyOf(texts, textSize * 2);
+            textXs = Arrays.copyOf(textXs, textSize * 2);
+            textYs = Arrays.copyOf(textYs, textSize * 2);
+        }
+
+        texts[textSize] = text;
+        textXs[textSize] = x;
+        textYs[textSize] = y;
+        textSize++;
+    }
+
+
+    @Override
+    public double getStringWidth(String text){ return measure.getStringWidth(text); }
+
+
+    /**
+     * @return number of ticks run before the snapshot, or -1 if nothing has been recorded
+     */
+    public long getTick(){ return tick; }
+
+
+    /**
+     * @return time the tick was due, from System.nanoTime()
+     */
+    public long getTickTime(){ return tickTime; }
+
+
+    /**
+     * @return number of level being played, or -1 if nothing has been recorded
+     */
+    public int getLevel(){ return level; }
+
+
+    /**
+     * @return score of level being played
+     */
+    public int getScore(){ return score; }
+
+
+    /**
+     * @return true if bird has no lives left
+     */
+    public boolean getIsOver(){ return isOver; }
+
+
+    /**
+     * @return text shown while textures of the level being played are loading
+     */
+    public String getLoadingText(){ return loadingText; }
+
+
+    /**
+     * @return figures of the profiler timing the simulation thread, as they were after the tick
+     */
+    public ProfilerFigures getProfile(){ return profile; }
+
+
+    /**
+     * @return true if published and not yet taken by the window
+     */
+    boolean getIsFresh(){ return isFresh; }
+
+
+    /**
+     * @param isFresh true when published, false when taken
+     */
+    void setIsFresh(boolean isFresh){ this.isFresh = isFresh; }
+
+
+    /**
+     * Doubles capacity for sprites
+     */
+    private void grow(){
+
+        int capacity = sprites.length * 2;
+        sprites = Arrays.copyOf(sprites, capacity);
+        fromXs = Arrays.copyOf(fromXs, capacity);
+        fromYs = Arrays.copyOf(fromYs, capacity);
+        toXs = Arrays.copyOf(toXs, capacity);
+        toYs = Arrays.copyOf(toYs, capacity);
+        rotations = Arrays.copyOf(rotations, capacity);
+    }
+
+
+    /**
+     * @param measure renderer with the font text is drawn in, to measure text with
+     */
+    WorldSnapshot(Renderer measure){ this.measure = measure; }
+}
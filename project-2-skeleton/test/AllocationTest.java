@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a running session makes no objects. Every tick of game logic must allocate nothing,
+ * from the first tick to the last, once the JIT has warmed up on other sessions. Elements come from pools
+ * filled when the session is made, so spawning, scoring, levelling up and losing lives are all covered.
+ * Frames recorded into a RenderQueue must allocate nothing either, except when a level measures the width
+ * of a line of text for the first time, which TextLayout then keeps.
+ * Sessions are played with both scripted and random input, the latter changing timescale and shooting.
+ */
+public class AllocationTest {
+
+    private final static int WARMUP_SESSIONS = 20;
+    private final static int CHECKED_SESSIONS = 10;
+    private final static int MAX_TICKS = 20000;
+
+    // Seeds checked come after those used to warm up, so that no session is played twice
+    private final static long FIRST_CHECKED_SEED = 1000;
+
+    private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final long threadId = Thread.currentThread().getId();
+    private final RenderQueue renderer = new RenderQueue(new NullRenderer());
+
+
+    @Test
+    public void levelsAllocateNothingPerTick(){ check(false); }
+
+
+    @Test
+    public void endlessModeAllocatesNothingPerTick(){ check(true); }
+
+
+    /**
+     * Warms up on some sessions of a mode, then plays more and fails on the first tick or frame that allocates
+     */
+    private void check(boolean isEndless){
+
+        for(long seed = 0; seed < WARMUP_SESSIONS; seed++) {
+            play(seed, isEndless, new Autopilot(), false);
+            play(seed, isEndless, new RandomPolicy(seed), false);
+        }
+
+        for(long seed = FIRST_CHECKED_SEED; seed < FIRST_CHECKED_SEED + CHECKED_SESSIONS; seed++) {
+            play(seed, isEndless, new Autopilot(), true);
+            play(seed, isEndless, new RandomPolicy(seed), true);
+        }
+    }
+
+
+    /**
+     * Plays a session to its end or the tick limit, rendering every tick
+     * @param isChecked true to fail if a tick or frame allocates
+     */
+    private void play(long seed, boolean isEndless, Policy policy, boolean isChecked){
+
+        Session session = new Session(seed, isEndless);
+
+        for(int tick = 0; tick < MAX_TICKS && !session.getIsOver(); tick++) {
+
+            GameInput input = policy.next(session.getLevel(), tick);
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            session.update(input);
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            if(isChecked)
+                assertEquals(0, allocated, "Bytes allocated by tick " + tick + " of seed " + seed);
+
+            TextLayout text = session.getLevel().text;
+            int measured = text.getMeasuredCount();
+
+            before = threads.getThreadAllocatedBytes(threadId);
+            session.render(renderer, 1);
+            renderer.submit();
+            allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            if(isChecked && text.getMeasuredCount() == measured)
+                assertEquals(0, allocated, "Bytes allocated by frame " + tick + " of seed " + seed);
+
+            input.endTick();
+        }
+    }
+}
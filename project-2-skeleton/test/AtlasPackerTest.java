@@ -0,0 +1,219 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Packs a small directory of made-up sprites headlessly and checks the index and pages written.
+ * Pages are kept small so that sprites of one group need more than one shelf and more than one page.
+ */
+public class AtlasPackerTest {
+
+    private final static int PAGE_SIZE = 64;
+
+    // Sprites by name with their width and height. Group a fits on one page in two shelves, group b needs two pages.
+    private final static Object[][] SPRITES = new Object[][]{
+            {"a/wide", 30, 20},
+            {"a/wider", 30, 20},
+            {"a/tall", 20, 40},
+            {"b/big", 50, 50},
+            {"b/bigger", 50, 50},
+    };
+
+    @TempDir
+    Path directory;
+
+
+    @Test
+    public void packsEverySpriteInsideItsPageWithoutOverlap() throws IOException {
+
+        Path res = directory.resolve("res");
+        Path out = res.resolve("atlas");
+        Map<String, BufferedImage> images = writeSprites(res);
+
+        AtlasPacker.main(new String[]{res.toString(), out.toString(), "--page-size", String.valueOf(PAGE_SIZE)});
+        AtlasIndex index = AtlasIndex.load(out.resolve(AtlasIndex.FILE_NAME));
+
+        assertEquals(SPRITES.length, index.size());
+        assertEquals(3, index.getPageCount());
+
+        BufferedImage[] pages = new BufferedImage[index.getPageCount()];
+
+        for(int page = 0; page < pages.length; page++) {
+            pages[page] = ImageIO.read(out.resolve(index.getPage(page)).toFile());
+            assertNotNull(pages[page], "Page " + index.getPage(page) + " was not written");
+            assertTrue(pages[page].getWidth() <= PAGE_SIZE && pages[page].getHeight() <= PAGE_SIZE);
+        }
+
+        ArrayList<String> names = new ArrayList<>();
+
+        for(String name : index.getNames()) {
+
+            AtlasRegion region = index.get(name);
+            BufferedImage image = images.get(name);
+            BufferedImage page = pages[region.getPage()];
+            names.add(name);
+
+            // Region is the size of the sprite, inside its page, on a page of its own group
+            assertEquals(image.getWidth(), region.getWidth(), name);
+            assertEquals(image.getHeight(), region.getHeight(), name);
+            assertTrue(region.getX() >= 0 && region.getX() + region.getWidth() <= page.getWidth(), name);
+            assertTrue(region.getY() >= 0 && region.getY() + region.getHeight() <= page.getHeight(), name);
+            assertEquals(AtlasPacker.getGroup(name), index.getGroup(region.getPage()), name);
+
+            for(int y = 0; y < image.getHeight(); y++)
+                for(int x = 0; x < image.getWidth(); x++)
+                    assertEquals(image.getRGB(x, y), page.getRGB(region.getX() + x, region.getY() + y), name + " at " + x + ", " + y);
+        }
+
+        for(int first = 0; first < names.size(); first++)
+            for(int second = first + 1; second < names.size(); second++)
+                assertFalse(overlap(index.get(names.get(first)), index.get(names.get(second))),
+                        names.get(first) + " overlaps " + names.get(second));
+    }
+
+
+    @Test
+    public void indexReadsBackAsWritten() throws IOException {
+
+        Path res = directory.resolve("res");
+        AtlasIndex index = AtlasPacker.pack(writeSprites(res), PAGE_SIZE, new ArrayList<>());
+        Path file = directory.resolve(AtlasIndex.FILE_NAME);
+        index.save(file);
+        AtlasIndex loaded = AtlasIndex.load(file);
+
+        assertEquals(index.getPageCount(), loaded.getPageCount());
+
+        for(int page = 0; page < index.getPageCount(); page++) {
+            assertEquals(index.getPage(page), loaded.getPage(page));
+            assertEquals(index.getGroup(page), loaded.getGroup(page));
+        }
+
+        assertEquals(index.size(), loaded.size());
+
+        for(String name : index.getNames()) {
+
+            AtlasRegion region = index.get(name);
+            AtlasRegion read = loaded.get(name);
+            assertNotNull(read, name);
+            assertEquals(region.getPage(), read.getPage(), name);
+            assertEquals(region.getX(), read.getX(), name);
+            assertEquals(region.getY(), read.getY(), name);
+            assertEquals(region.getWidth(), read.getWidth(), name);
+            assertEquals(region.getHeight(), read.getHeight(), name);
+        }
+    }
+
+
+    @Test
+    public void packingAgainSkipsPagesAlreadyWritten() throws IOException {
+
+        Path res = directory.resolve("res");
+        Path out = res.resolve("atlas");
+        writeSprites(res);
+
+        AtlasPacker.main(new String[]{res.toString(), out.toString(), "--page-size", String.valueOf(PAGE_SIZE)});
+        AtlasPacker.main(new String[]{res.toString(), out.toString(), "--page-size", String.valueOf(PAGE_SIZE)});
+
+        assertEquals(SPRITES.length, AtlasPacker.read(res, out).size());
+        assertEquals(SPRITES.length, AtlasIndex.load(out.resolve(AtlasIndex.FILE_NAME)).size());
+    }
+
+
+    @Test
+    public void masksReadFromPagesMatchTheirFiles() throws IOException {
+
+        Path res = directory.resolve("res");
+        Path out = res.resolve("atlas");
+        Map<String, BufferedImage> images = writeSprites(res);
+
+        // Alpha running across the threshold so that a mask read from the wrong pixels is found
+        for(Map.Entry<String, BufferedImage> sprite : images.entrySet()) {
+
+            BufferedImage image = sprite.getValue();
+
+            for(int y = 0; y < image.getHeight(); y++)
+                for(int x = 0; x < image.getWidth(); x++)
+                    image.setRGB(x, y, (x * 37 + y * 11) % 256 << 24 | image.getRGB(x, y) & 0xffffff);
+
+            ImageIO.write(image, "png", res.resolve(sprite.getKey() + ".png").toFile());
+        }
+
+        AtlasPacker.main(new String[]{res.toString(), out.toString(), "--page-size", String.valueOf(PAGE_SIZE)});
+        AtlasIndex index = AtlasIndex.load(out.resolve(AtlasIndex.FILE_NAME));
+
+        for(String name : index.getNames()) {
+
+            AtlasRegion region = index.get(name);
+            BufferedImage page = ImageIO.read(out.resolve(index.getPage(region.getPage())).toFile());
+            CollisionMask fromPage = CollisionMask.read(page, region.getX(), region.getY(), region.getWidth(), region.getHeight());
+            CollisionMask fromFile = CollisionMask.read(res.resolve(name + ".png").toString());
+
+            assertEquals(fromFile.getWidth(), fromPage.getWidth(), name);
+            assertEquals(fromFile.getHeight(), fromPage.getHeight(), name);
+
+            for(int y = 0; y < region.getHeight(); y++)
+                for(int x = 0; x < region.getWidth(); x++)
+                    assertEquals(fromFile.isSet(x, y), fromPage.isSet(x, y), name + " at " + x + ", " + y);
+        }
+    }
+
+
+    @Test
+    public void spriteLargerThanPageIsRejected() throws IOException {
+
+        Map<String, BufferedImage> images = writeSprites(directory.resolve("res"));
+        assertThrows(IllegalArgumentException.class, () -> AtlasPacker.pack(images, 40, new ArrayList<>()));
+    }
+
+
+    /**
+     * Writes every sprite as a png under res, each pixel a colour of its own so that misplaced pixels are found
+     * @return images by name
+     */
+    private static Map<String, BufferedImage> writeSprites(Path res) throws IOException {
+
+        Map<String, BufferedImage> images = new TreeMap<>();
+
+        for(int sprite = 0; sprite < SPRITES.length; sprite++) {
+
+            String name = (String) SPRITES[sprite][0];
+            BufferedImage image = new BufferedImage((Integer) SPRITES[sprite][1], (Integer) SPRITES[sprite][2], BufferedImage.TYPE_INT_ARGB);
+
+            for(int y = 0; y < image.getHeight(); y++)
+                for(int x = 0; x < image.getWidth(); x++)
+                    image.setRGB(x, y, 0xff000000 | sprite << 16 | x << 8 | y);
+
+            Path file = res.resolve(name + ".png");
+            Files.createDirectories(file.getParent());
+            ImageIO.write(image, "png", file.toFile());
+            images.put(name, image);
+        }
+
+        return images;
+    }
+
+
+    /**
+     * @return true if regions are on the same page and share a pixel
+     */
+    private static boolean overlap(AtlasRegion first, AtlasRegion second){
+
+        return first.getPage() == second.getPage()
+                && first.getX() < second.getX() + second.getWidth() && second.getX() < first.getX() + first.getWidth()
+                && first.getY() < second.getY() + second.getHeight() && second.getY() < first.getY() + first.getHeight();
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that swept collision checks find the same collisions along a whole move as along the same move split
+ * into smaller steps. Each session is played twice from one seed with the same input, once checking each tick's
+ * moves whole and once in slices, and the two must lose the same lives to the same hazards and score the same
+ * at every tick, through Bird.collidePipes and Weapon.collidePipe as the game calls them.
+ * Random input changes timescale up to 5, where pipes move 15 px a tick, and shoots.
+ */
+public class CollisionStepsTest {
+
+    private final static int MAX_TICKS = 20000;
+    private final static int[] STEPS = new int[]{3, 8};
+
+    // Seeds of each mode and policy, including ones where pixels of the bird and a flame only touched for
+    // part of a pixel step, and where a shot weapon and the bird reached one pipe in the same tick
+    private final static long[] LEVEL_SEEDS = new long[]{2, 11, 12, 46};
+    private final static long[] ENDLESS_SEEDS = new long[]{40, 48, 107, 185};
+
+
+    @Test
+    public void levelsScriptedPlayIsTheSameInSmallerSteps(){
+
+        for(long seed : LEVEL_SEEDS)
+            for(int steps : STEPS)
+                compare(seed, false, false, steps);
+    }
+
+
+    @Test
+    public void levelsRandomPlayIsTheSameInSmallerSteps(){
+
+        for(long seed : LEVEL_SEEDS)
+            for(int steps : STEPS)
+                compare(seed, false, true, steps);
+    }
+
+
+    @Test
+    public void endlessScriptedPlayIsTheSameInSmallerSteps(){
+
+        for(long seed : ENDLESS_SEEDS)
+            for(int steps : STEPS)
+                compare(seed, true, false, steps);
+    }
+
+
+    @Test
+    public void endlessRandomPlayIsTheSameInSmallerSteps(){
+
+        for(long seed : ENDLESS_SEEDS)
+            for(int steps : STEPS)
+                compare(seed, true, true, steps);
+    }
+
+
+    /**
+     * Plays a session whole and in slices side by side until it ends, failing on the first tick they differ
+     * @param isRandom true for RandomPolicy input, false for the Autopilot
+     * @param steps slices each move is checked in
+     */
+    private static void compare(long seed, boolean isEndless, boolean isRandom, int steps){
+
+        Session whole = new Session(seed, isEndless);
+        Session sliced = new Session(seed, isEndless);
+        sliced.getWorld().setCollisionSteps(steps);
+
+        Policy wholePolicy = isRandom ? new RandomPolicy(seed) : new Autopilot();
+        Policy slicedPolicy = isRandom ? new RandomPolicy(seed) : new Autopilot();
+        SessionState wholeState = new SessionState();
+        SessionState slicedState = new SessionState();
+
+        for(int tick = 0; tick < MAX_TICKS && !whole.getIsOver(); tick++) {
+
+            play(whole, wholePolicy, tick);
+            play(sliced, slicedPolicy, tick);
+
+            String at = (isEndless ? "endless" : "levels") + (isRandom ? " random" : " scripted") + " seed " + seed
+                    + " in " + steps + " steps at tick " + tick;
+            Bird bird = whole.getLevel().getBird();
+
+            assertEquals(whole.getLevelNumber(), sliced.getLevelNumber(), "Level of " + at);
+            assertEquals(whole.getLevel().getScore(), sliced.getLevel().getScore(), "Score of " + at);
+            assertEquals(whole.getIsOver(), sliced.getIsOver(), "Loss of " + at);
+            assertEquals(bird.getLastHazard(), sliced.getLevel().getBird().getLastHazard(), "Hazard of " + at);
+
+            // Everything else must match as well, lives left, weapons and pipes included
+            wholeState.capture(whole);
+            slicedState.capture(sliced);
+            assertTrue(Arrays.equals(wholeState.array(), 0, wholeState.size(), slicedState.array(), 0, slicedState.size()),
+                    "State of " + at);
+        }
+
+        // A session that never collided with anything would show nothing
+        assertTrue(whole.getLevel().getBird().getLastHazard() != null, "No lives lost in seed " + seed);
+    }
+
+
+    /**
+     * Plays one tick of session with input from policy
+     */
+    private static void play(Session session, Policy policy, int tick){
+
+        GameInput input = policy.next(session.getLevel(), tick);
+        session.update(input);
+        input.endTick();
+    }
+}
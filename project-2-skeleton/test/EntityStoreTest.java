@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that slots given back to an EntityStore are not moved or collided with, and are reserved again
+ * before the store grows.
+ */
+public class EntityStoreTest {
+
+    private final static int RUN = 4;
+    private final static double VELOCITY = 3;
+    private final static long SEED = 5;
+    private final static int PIPES = 50;
+
+
+    @Test
+    public void freedSlotsStayStillAndAreReusedFirst(){
+
+        EntityStore store = new EntityStore();
+        int first = store.add(RUN);
+        int second = store.add(RUN);
+        Box freed = new Box(store, first);
+        Box kept = new Box(store, second);
+
+        freed.set(100, 100, 10, 10);
+        kept.set(100, 100, 10, 10);
+        store.setAllXVelocity(VELOCITY);
+        store.free(first, RUN);
+        store.moveAll();
+
+        assertEquals(100, freed.getX());
+        assertEquals(100 - VELOCITY, kept.getX());
+
+        // A run of another length can not take the freed slots
+        assertEquals(2 * RUN, store.add(1));
+        assertEquals(first, store.add(RUN));
+        assertEquals(2 * RUN + 1, store.size());
+    }
+
+
+    @Test
+    public void deadSlotsAreNotCollidedWith(){
+
+        EntityStore store = new EntityStore();
+        int first = store.add(2);
+        new Box(store, first).set(100, 100, 10, 10);
+        new Box(store, first + 1).set(100, 100, 10, 10);
+
+        Box other = new Box(new EntityStore());
+        other.set(100, 100, 10, 10);
+
+        assertEquals(0, store.findSweptOverlap(first, 2, other));
+
+        store.kill(first, 1);
+        assertEquals(1, store.findSweptOverlap(first, 2, other));
+
+        store.kill(first + 1, 1);
+        assertEquals(-1, store.findSweptOverlap(first, 2, other));
+    }
+
+
+    @Test
+    public void pipesSpawnedAgainTakeTheSlotsOfThoseReleased(){
+
+        World world = new World(SEED);
+        PipeSet[] pipes = new PipeSet[PIPES];
+
+        for(int pipe = 0; pipe < PIPES; pipe++)
+            pipes[pipe] = PipeSet.spawn(world);
+
+        int size = world.getPipeStore().size();
+
+        for(int round = 0; round < 3; round++)
+            for(int pipe = 0; pipe < PIPES; pipe++) {
+                pipes[pipe].release();
+                pipes[pipe] = PipeSet.spawn(world);
+            }
+
+        assertEquals(size, world.getPipeStore().size());
+    }
+}
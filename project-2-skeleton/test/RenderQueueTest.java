@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks headlessly, with a RecordingRenderer, how many draws and texture changes a frame makes
+ * with and without a RenderQueue in between.
+ * Sprites of different groups under res are always different textures, whether or not there is an atlas,
+ * so the counts below do not depend on the atlas having been packed.
+ */
+public class RenderQueueTest {
+
+    private final static Sprite HEART = new Sprite("level/fullLife", Layer.HUD);
+    private final static Sprite BIRD = new Sprite("level-0/birdWingUp", Layer.HUD);
+    private final static Sprite BACKGROUND = new Sprite("level-1/background", Layer.BACKGROUND);
+
+    // Ticks of seed 3 played by the Autopilot before two plastic pipes are on the Window, neither scored
+    private final static long SEED = 3;
+    private final static int TICKS = 300;
+
+
+    @Test
+    public void queueMergesDrawsOfTheSameTextureAndCullsOffScreen(){
+
+        RecordingRenderer direct = new RecordingRenderer();
+        drawFrame(direct);
+
+        // Every draw is made in the order it came, changing texture each time
+        assertEquals(7, direct.getDrawCount());
+        assertEquals(7, direct.getTextureChanges());
+
+        RecordingRenderer target = new RecordingRenderer();
+        RenderQueue queue = new RenderQueue(target);
+        drawFrame(queue);
+        queue.submit();
+
+        // The background comes first, then hearts and birds each in one run, and the heart off the Window is dropped
+        assertEquals(6, target.getDrawCount());
+        assertEquals(3, target.getTextureChanges());
+        assertEquals(3, queue.getBatches());
+        assertEquals(1, queue.getCulled());
+        assertEquals(1, target.getDrawCount(BACKGROUND));
+        assertEquals(3, target.getDrawCount(HEART));
+        assertEquals(2, target.getDrawCount(BIRD));
+        assertEquals(Arrays.asList("first", "second"), target.getTexts());
+    }
+
+
+    @Test
+    public void queueSubmitsEachFrameOnce(){
+
+        RecordingRenderer target = new RecordingRenderer();
+        RenderQueue queue = new RenderQueue(target);
+
+        drawFrame(queue);
+        queue.submit();
+        target.clear();
+        queue.submit();
+
+        // Nothing recorded since the last submit, so nothing is drawn again
+        assertEquals(0, target.getDrawCount());
+        assertEquals(0, target.getTexts().size());
+        assertEquals(2, queue.getSubmits());
+        assertEquals(6, queue.getRecorded());
+    }
+
+
+    @Test
+    public void levelFrameDrawsOneRunPerLayer(){
+
+        Session session = new Session(SEED, false);
+        Autopilot autopilot = new Autopilot();
+
+        for(int tick = 0; tick < TICKS; tick++) {
+            GameInput input = autopilot.next(session.getLevel(), tick);
+            session.update(input);
+            input.endTick();
+        }
+
+        Level level = session.getLevel();
+        assertEquals(2, level.pipes.size());
+
+        RecordingRenderer target = new RecordingRenderer();
+        RenderQueue queue = new RenderQueue(target);
+        session.render(queue, 1);
+        queue.submit();
+
+        // Background, two pipes drawn top and bottom, the bird with its wings down, and three full hearts
+        assertEquals(9, target.getDrawCount());
+        assertEquals(1, target.getDrawCount(level.background));
+        assertEquals(4, target.getDrawCount(level.pipes.get(0).elementImage));
+        assertEquals(1, target.getDrawCount(level.getBird().elementImage));
+        assertEquals(0, queue.getCulled());
+
+        // Background, pipes, bird and hearts are each one texture on their own layer
+        assertEquals(4, target.getTextureChanges());
+        assertEquals(Arrays.asList(Level.SCORE, "0"), target.getTexts());
+    }
+
+
+    /**
+     * Draws hearts and birds taking turns along the top of the Window, one heart off it, then the background and two lines of text
+     */
+    private static void drawFrame(Renderer renderer){
+
+        renderer.draw(HEART, 100, 100);
+        renderer.draw(BIRD, 200, 100);
+        renderer.draw(HEART, 300, 100);
+        renderer.draw(BIRD, 400, 100);
+        renderer.draw(HEART, 500, 100);
+        renderer.draw(BACKGROUND, ShadowFlap.WINDOW_WIDTH/2.0, ShadowFlap.WINDOW_HEIGHT/2.0);
+        renderer.draw(HEART, -1000, 100);
+        renderer.drawString("first", 100, 200);
+        renderer.drawString("second", 100, 300);
+    }
+}
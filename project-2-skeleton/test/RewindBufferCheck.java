@@ -0,0 +1,132 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Plays a session recording every tick into a RewindBuffer, then winds it all the way back, checking every tick
+ * wound back to against a copy of the state kept when it was played, and prints sizes and times.
+ *
+ * Usage: RewindBufferCheck [--seed seed] [--endless] [--ticks ticks] [--seconds seconds] [--budget bytes]
+ */
+public class RewindBufferCheck {
+
+    private final static int DEFAULT_TICKS = 20000;
+    private final static int DEFAULT_SECONDS = 5;
+    private final static int DEFAULT_BUDGET = 1 << 20;
+    private final static int REPEATS = 100000;
+
+    /**
+     * The entry point for checking and timing rewinding.
+     */
+    public static void main(String[] args){
+
+        long seed = 0;
+        boolean isEndless = false;
+        int ticks = DEFAULT_TICKS;
+        int seconds = DEFAULT_SECONDS;
+        int budget = DEFAULT_BUDGET;
+
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--seed"))
+                seed = Long.parseLong(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--endless"))
+                isEndless = true;
+            else if(args[arg].equals("--ticks"))
+                ticks = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--seconds"))
+                seconds = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--budget"))
+                budget = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else
+                throw new IllegalArgumentException("Unknown argument " + args[arg]);
+        }
+
+        Session session = new Session(seed, isEndless);
+        RewindBuffer rewind = new RewindBuffer(seconds * SimClock.TICK_RATE, budget);
+        Policy policy = new Autopilot();
+
+        // Whole copies of the states of the last ticks played, to check rewinding against
+        int capacity = rewind.getCapacity();
+        byte[][] expected = new byte[capacity][];
+        SessionState check = new SessionState();
+        int tick = 0;
+
+        for(rewind.record(session, tick); tick < ticks && !session.getIsOver() && !session.getIsWon(); ) {
+
+            GameInput input = policy.next(session.getLevel(), tick);
+            session.update(input);
+            input.endTick();
+            rewind.record(session, ++tick);
+
+            check.capture(session);
+            expected[tick % capacity] = Arrays.copyOf(check.array(), check.size());
+        }
+
+        int held = rewind.size();
+        int keyframes = 0, keyframeBytes = 0, deltaBytes = 0;
+
+        for(int index = 0; index < held; index++) {
+
+            if(rewind.isKeyframe(index)) {
+                keyframes++;
+                keyframeBytes += rewind.getLength(index);
+            }
+            else
+                deltaBytes += rewind.getLength(index);
+        }
+
+        System.out.printf("%d ticks played, %d held (%.1f s) in %d bytes, %d of %d bytes allocated%n", tick, held,
+                held / (double) SimClock.TICK_RATE, rewind.getBytesUsed(), rewind.getBytesAllocated(), budget);
+        System.out.printf("%d keyframes of %.0f bytes, %d deltas of %.0f bytes%n", keyframes,
+                keyframeBytes / (double) Integer.max(1, keyframes), held - keyframes, deltaBytes / (double) Integer.max(1, held - keyframes));
+
+        // Winds back one tick and records it again, over and over, leaving the same states held.
+        // The first half warms up the JIT and only the second is timed.
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        LatencyHistogram recordTimes = new LatencyHistogram();
+        LatencyHistogram rewindTimes = new LatencyHistogram();
+        long allocated = 0;
+
+        for(int repeat = -REPEATS; repeat < REPEATS && held > 1; repeat++) {
+
+            long before = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            int at = rewind.rewind(session);
+            long middle = System.nanoTime();
+            rewind.record(session, at);
+            long stop = System.nanoTime();
+
+            if(repeat >= 0) {
+                allocated += threads.getThreadAllocatedBytes(threadId) - before;
+                rewindTimes.record(middle - start);
+                recordTimes.record(stop - middle);
+            }
+        }
+
+        System.out.println("record " + describe(recordTimes));
+        System.out.println("rewind " + describe(rewindTimes));
+        System.out.printf("%.2f bytes allocated per record and rewind%n", allocated / (double) REPEATS);
+
+        int rewound = 0, mismatches = 0;
+
+        for(int at; (at = rewind.rewind(session)) >= 0; rewound++) {
+
+            check.capture(session);
+
+            if(!Arrays.equals(expected[at % capacity], Arrays.copyOf(check.array(), check.size())))
+                mismatches++;
+        }
+
+        System.out.printf("%d ticks wound back, %d did not match the state played%n", rewound, mismatches);
+    }
+
+
+    /**
+     * @return median, 99th and 99.9th percentiles and longest of times, in microseconds
+     */
+    private static String describe(LatencyHistogram times){
+        return String.format("p50 %.2f us, p99 %.2f us, p99.9 %.2f us, max %.2f us", times.getPercentile(0.5) / 1e3,
+                times.getPercentile(0.99) / 1e3, times.getPercentile(0.999) / 1e3, times.getMax() / 1e3);
+    }
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a RewindBuffer winds a session back to exactly the states it was played through.
+ * Sessions are played by the Autopilot, recording every tick, and every so often wound back a random number
+ * of ticks and played on from there, then wound all the way back at the end. Every tick wound back to must
+ * capture the same bytes as when it was played. A tight budget holds far fewer states than asked for,
+ * so the oldest keyframes are promoted and dropped all the time, and the buffer must stay within its budget.
+ */
+public class RewindBufferTest {
+
+    private final static int MAX_TICKS = 6000;
+    private final static int SECONDS = 5;
+    private final static int[] BUDGETS = new int[]{1 << 20, 60000};
+    private final static int TIGHT_BUDGET = 60000;
+    private final static long[] SEEDS = new long[]{0, 7};
+
+    // Enough to index a second of states, but not for the working buffers and a keyframe as well
+    private final static int SMALL_BUDGET = 2000;
+
+    // Chance per tick of winding back, and most ticks wound back at once
+    private final static int REWIND_ONE_IN = 50;
+    private final static int MAX_REWIND = 40;
+
+
+    @Test
+    public void levelsWindBackToEveryTickPlayed(){
+
+        for(long seed : SEEDS)
+            for(int budget : BUDGETS)
+                check(seed, false, budget);
+    }
+
+
+    @Test
+    public void endlessModeWindsBackToEveryTickPlayed(){
+
+        for(long seed : SEEDS)
+            for(int budget : BUDGETS)
+                check(seed, true, budget);
+    }
+
+
+    @Test
+    public void budgetTooSmallForOneStateThrows(){
+
+        Session session = new Session(0, false);
+        RewindBuffer rewind = new RewindBuffer(SimClock.TICK_RATE, SMALL_BUDGET);
+        assertThrows(IllegalArgumentException.class, () -> rewind.record(session, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(SimClock.TICK_RATE, SimClock.TICK_RATE));
+        assertThrows(IllegalArgumentException.class, () -> new RewindBuffer(0, TIGHT_BUDGET));
+    }
+
+
+    /**
+     * Plays a session into a buffer, winding back now and then, failing on the first tick wound back to
+     * that differs from the state played
+     */
+    private static void check(long seed, boolean isEndless, int budget){
+
+        Session session = new Session(seed, isEndless);
+        RewindBuffer rewind = new RewindBuffer(SECONDS * SimClock.TICK_RATE, budget);
+        Policy policy = new Autopilot();
+        Random random = new Random(seed);
+        String at = (isEndless ? "endless" : "levels") + " seed " + seed + " with budget " + budget;
+
+        // Whole copies of the states of the last ticks played, by tick
+        int capacity = rewind.getCapacity();
+        byte[][] expected = new byte[capacity][];
+        SessionState state = new SessionState();
+        int tick = 0;
+        record(session, rewind, tick, state, expected);
+
+        for(int played = 0; played < MAX_TICKS && !session.getIsOver() && !session.getIsWon(); played++) {
+
+            if(random.nextInt(REWIND_ONE_IN) == 0)
+                for(int rewound = random.nextInt(MAX_REWIND) + 1; rewound > 0 && rewind.size() > 1; rewound--) {
+                    tick = rewind.rewind(session);
+                    check(session, state, expected[tick % capacity], at + " wound back to tick " + tick);
+                }
+
+            GameInput input = policy.next(session.getLevel(), tick);
+            session.update(input);
+            input.endTick();
+            record(session, rewind, ++tick, state, expected);
+
+            assertTrue(rewind.getBytesAllocated() <= budget, "Over budget " + at + " at tick " + tick);
+        }
+
+        int held = rewind.size();
+
+        for(int rewound = 1; rewound < held; rewound++) {
+            tick = rewind.rewind(session);
+            check(session, state, expected[tick % capacity], at + " wound back to tick " + tick);
+        }
+
+        assertEquals(-1, rewind.rewind(session), "Rewound past oldest state " + at);
+
+        // A tight budget must have dropped states to fit, and yet kept more than a second of them
+        if(budget == TIGHT_BUDGET)
+            assertTrue(held < capacity && held > SimClock.TICK_RATE, "Held " + held + " states " + at);
+    }
+
+
+    /**
+     * Records session into rewind and keeps a whole copy of its state
+     */
+    private static void record(Session session, RewindBuffer rewind, int tick, SessionState state, byte[][] expected){
+
+        rewind.record(session, tick);
+        state.capture(session);
+        expected[tick % expected.length] = Arrays.copyOf(state.array(), state.size());
+    }
+
+
+    /**
+     * Fails unless session captures the same bytes as expected
+     */
+    private static void check(Session session, SessionState state, byte[] expected, String message){
+
+        state.capture(session);
+        assertTrue(Arrays.equals(expected, 0, expected.length, state.array(), 0, state.size()), message);
+    }
+}
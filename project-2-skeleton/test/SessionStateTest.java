@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a session restored from a SessionState plays on exactly as the one it was taken from.
+ * Each session is played by the Autopilot to a capture point, then played on from there three ways: as it is,
+ * restored into itself after that, and restored into a new session, and every tick of the last two must capture
+ * the same bytes as the first. Capture points are in the first level and the second, with its weapons and flames,
+ * and play goes on with both scripted and random input, the latter changing timescale and shooting.
+ */
+public class SessionStateTest {
+
+    private final static int MAX_TICKS = 4000;
+    private final static int[] CAPTURE_TICKS = new int[]{100, 600, 1200, 1800};
+    private final static long[] SEEDS = new long[]{0, 1, 2};
+
+
+    @Test
+    public void levelsPlayOnTheSameAfterRestoring(){
+
+        for(long seed : SEEDS)
+            for(int tick : CAPTURE_TICKS) {
+                compare(seed, false, false, tick);
+                compare(seed, false, true, tick);
+            }
+    }
+
+
+    @Test
+    public void endlessModePlaysOnTheSameAfterRestoring(){
+
+        for(long seed : SEEDS)
+            for(int tick : CAPTURE_TICKS) {
+                compare(seed, true, false, tick);
+                compare(seed, true, true, tick);
+            }
+    }
+
+
+    /**
+     * Plays a session to a capture point and on from there as it is, restored and forked, failing on the first tick
+     * the restored or forked session differs from the one played
+     * @param isRandom true for RandomPolicy input after the capture point, false for the Autopilot
+     * @param captureTick tick to capture at, if the session is still going by then
+     */
+    private static void compare(long seed, boolean isEndless, boolean isRandom, int captureTick){
+
+        Session session = new Session(seed, isEndless);
+        int captured = play(session, new Autopilot(), 0, captureTick, null);
+        SessionState state = new SessionState().capture(session);
+        byte[] start = Arrays.copyOf(state.array(), state.size());
+
+        ArrayList<byte[]> played = new ArrayList<>();
+        int end = play(session, newPolicy(seed, isRandom), captured, MAX_TICKS, played);
+        String at = (isEndless ? "endless" : "levels") + (isRandom ? " random" : " scripted") + " seed " + seed
+                + " captured at tick " + captured;
+
+        state.restore(session);
+        check(session, start, "Restored " + at);
+        ArrayList<byte[]> restored = new ArrayList<>();
+        assertEquals(end, play(session, newPolicy(seed, isRandom), captured, MAX_TICKS, restored), "End of restored " + at);
+
+        Session fork = state.newSession();
+        check(fork, start, "Forked " + at);
+        ArrayList<byte[]> forked = new ArrayList<>();
+        assertEquals(end, play(fork, newPolicy(seed, isRandom), captured, MAX_TICKS, forked), "End of forked " + at);
+
+        for(int index = 0; index < played.size(); index++) {
+            assertTrue(Arrays.equals(played.get(index), restored.get(index)), "Restored " + at + " at tick " + (captured + index + 1));
+            assertTrue(Arrays.equals(played.get(index), forked.get(index)), "Forked " + at + " at tick " + (captured + index + 1));
+        }
+    }
+
+
+    /**
+     * Fails unless session captures the same bytes as expected
+     */
+    private static void check(Session session, byte[] expected, String message){
+
+        SessionState state = new SessionState().capture(session);
+        assertTrue(Arrays.equals(expected, 0, expected.length, state.array(), 0, state.size()), message);
+    }
+
+
+    /**
+     * @return policy played on with from a capture point, new for each way of playing on so that all get the same input
+     */
+    private static Policy newPolicy(long seed, boolean isRandom){ return isRandom ? new RandomPolicy(seed) : new Autopilot(); }
+
+
+    /**
+     * Plays session with policy from one tick to another, or until it is over or won
+     * @param states to add the state captured after every tick to, or null to keep none
+     * @return tick reached
+     */
+    private static int play(Session session, Policy policy, int tick, int ticks, ArrayList<byte[]> states){
+
+        SessionState state = new SessionState();
+
+        for( ; tick < ticks && !session.getIsOver() && !session.getIsWon(); tick++){
+
+            GameInput input = policy.next(session.getLevel(), tick);
+            session.update(input);
+            input.endTick();
+
+            if(states != null) {
+                state.capture(session);
+                states.add(Arrays.copyOf(state.array(), state.size()));
+            }
+        }
+
+        return tick;
+    }
+}
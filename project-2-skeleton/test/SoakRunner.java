@@ -0,0 +1,102 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Plays one session of endless mode headless for a very long time, to check that memory stays bounded however long it runs.
+ * The Autopilot plays in practice, so losing every life does not end the run, and every tick is also drawn
+ * into a renderer that draws nothing. Heap used after a full collection is sampled at even intervals
+ * once warmed up, and the run fails if it grew by more than the allowed drift from the first sample to the last.
+ *
+ * Usage: SoakRunner [ticks] [--seed seed] [--samples n] [--drift bytes]
+ */
+public class SoakRunner {
+
+    private final static long DEFAULT_TICKS = 10_000_000L;
+    private final static int DEFAULT_SAMPLES = 10;
+    private final static long DEFAULT_DRIFT = 1 << 20;
+    private final static int WARMUP_TICKS = 100000;
+
+    /**
+     * The entry point for soak testing.
+     */
+    public static void main(String[] args){
+
+        long ticks = DEFAULT_TICKS;
+        long seed = 0;
+        int samples = DEFAULT_SAMPLES;
+        long drift = DEFAULT_DRIFT;
+
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--seed"))
+                seed = Long.parseLong(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--samples"))
+                samples = Integer.parseInt(Arguments.getValue(args, ++arg));
+            else if(args[arg].equals("--drift"))
+                drift = Long.parseLong(Arguments.getValue(args, ++arg));
+            else
+                ticks = parseTicks(args[arg]);
+        }
+
+        Session session = new Session(seed, true);
+        EndlessLevel level = (EndlessLevel) session.getLevel();
+        level.setIsPractice(true);
+
+        Policy policy = new Autopilot();
+        RenderQueue renderer = new RenderQueue(new NullRenderer());
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long interval = Long.max(1, (ticks - WARMUP_TICKS) / samples);
+        long first = -1;
+        long last = 0;
+        long highest = 0;
+        long start = System.nanoTime();
+
+        for(long tick = 0; tick < ticks; tick++){
+
+            // Policies are given ticks as ints, which only matter to them by parity and for replays
+            GameInput input = policy.next(level, (int) tick);
+            session.update(input);
+            session.render(renderer, 1);
+            renderer.submit();
+            input.endTick();
+
+            if(tick + 1 >= WARMUP_TICKS && (tick + 1 - WARMUP_TICKS) % interval == 0) {
+
+                System.gc();
+                last = memory.getHeapMemoryUsage().getUsed();
+                highest = Long.max(highest, last);
+
+                if(first < 0)
+                    first = last;
+
+                System.out.printf("tick %d: %d KB heap used, %d pipes made, %d losses, score %d%n",
+                        tick + 1, last / 1024, level.getGenerator().getCount(), level.getLosses(), level.getScore());
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ticks in %.1f s (%.0f ticks/s)%n", ticks, seconds, ticks / seconds);
+        System.out.println("PipeSet pool: " + session.getWorld().getPipePool());
+        System.out.println("Flame pool: " + session.getWorld().getFlamePool());
+        System.out.println("Weapon pool: " + session.getWorld().getWeaponPool());
+        System.out.printf("Heap after warm-up %d KB, at end %d KB, highest %d KB: %s%n", first / 1024, last / 1024,
+                highest / 1024, last - first <= drift ? "flat" : "GREW");
+
+        if(last - first > drift)
+            System.exit(1);
+    }
+
+
+    /**
+     * @return ticks given as the one argument that is not a flag
+     */
+    private static long parseTicks(String arg){
+
+        try {
+            return Long.parseLong(arg);
+        }
+        catch(NumberFormatException e){
+            throw new IllegalArgumentException("Unknown argument " + arg, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Random;
+
+/**
+ * Steps a VectorEnvironment with random actions and prints how many steps it made per second.
+ *
+ * Usage: VectorEnvironmentCheck [sessions] [steps] [--seed seed]
+ */
+public class VectorEnvironmentCheck {
+
+    private final static int DEFAULT_SESSIONS = 64;
+    private final static int DEFAULT_STEPS = 1000000;
+    private final static double FLAP_CHANCE = 0.12;
+    private final static double SHOOT_CHANCE = 0.02;
+
+    /**
+     * The entry point for measuring steps per second.
+     */
+    public static void main(String[] args){
+
+        int count = DEFAULT_SESSIONS;
+        int steps = DEFAULT_STEPS;
+        long seed = 0;
+        int number = 0;
+
+        for(int arg = 0; arg < args.length; arg++) {
+
+            if(args[arg].equals("--seed"))
+                seed = Long.parseLong(Arguments.getValue(args, ++arg));
+            else if(number++ == 0)
+                count = parseCount(args[arg]);
+            else if(number == 2)
+                steps = parseCount(args[arg]);
+            else
+                throw new IllegalArgumentException("Unknown argument " + args[arg]);
+        }
+
+        VectorEnvironment environment = new VectorEnvironment(count, seed, Integer.MAX_VALUE);
+        Random random = new Random(seed);
+        int[] actions = new int[count];
+        double reward = 0;
+
+        environment.reset();
+        long start = System.nanoTime();
+
+        for(int step = 0; step < steps; step += count) {
+
+            for(int session = 0; session < count; session++)
+                actions[session] = (random.nextDouble() < FLAP_CHANCE ? VectorEnvironment.FLAP : 0) | (random.nextDouble() < SHOOT_CHANCE ? VectorEnvironment.SHOOT : 0);
+
+            environment.step(actions);
+
+            for(int session = 0; session < count; session++)
+                reward += environment.getRewards()[session];
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long made = (long) Math.ceil(steps / (double) count) * count;
+
+        System.out.printf("%d steps of %d sessions in %.3f s (%.0f steps/s)%n", made, count, seconds, made / seconds);
+        System.out.printf("%d episodes ended, mean reward %.3f per episode%n", environment.getEpisodes(),
+                reward / Long.max(1, environment.getEpisodes()));
+    }
+
+
+    /**
+     * @return count given as an argument
+     */
+    private static int parseCount(String arg){
+
+        try {
+            return Integer.parseInt(arg);
+        }
+        catch(NumberFormatException e){
+            throw new IllegalArgumentException("Unknown argument " + arg, e);
+        }
+    }
+}